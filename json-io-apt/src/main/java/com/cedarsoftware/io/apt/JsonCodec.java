@@ -0,0 +1,43 @@
+package com.cedarsoftware.io.apt;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class for which JsonCodecProcessor generates a json-io codec at compile time: a JsonClassWriter that
+ * writes the class's fields directly (no reflective field reads) and a ClassFactory that creates the instance with
+ * its no-arg constructor and assigns the fields directly (no reflective instantiation or injection, no
+ * setAccessible).  The codec, named &lt;Class&gt;_JsonCodec in the class's package, is registered as a
+ * com.cedarsoftware.io.CodecProvider in META-INF/services, so json-io picks it up without any configuration.
+ * <br><br>
+ * Every non-static, non-transient field of the class and its superclasses is written and read.  Each one must be
+ * accessible from the class's package, either directly or through a getter (getX() / isX()) and a setter
+ * (setX()), and may not be final.  The class needs a non-private no-arg constructor, and may not be private,
+ * abstract, or an inner (non-static) class.  The processor reports a compile error otherwise.  When the
+ * WriteOptions / ReadOptions select other fields of the class, or set a MissingFieldHandler, the codec leaves the
+ * class to json-io's reflective path.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface JsonCodec {
+}
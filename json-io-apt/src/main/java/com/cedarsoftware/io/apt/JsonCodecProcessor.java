@@ -0,0 +1,533 @@
+package com.cedarsoftware.io.apt;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor that generates a json-io codec for every class annotated with {@link JsonCodec}.  For a
+ * class com.acme.Order it writes com.acme.Order_JsonCodec, which is at once:
+ * <ul>
+ *     <li>a JsonClassWriter (a ThreadSafeClassWriter, as it keeps no per-call state, so parallel array writing
+ *     stays on) writing each field straight from the object (getter or field access), with the same
+ *     output JsonWriter would produce: field names, skipNullFields, @type wherever JsonWriter.isForceType() asks
+ *     for it, and every field value other than String and int / short / byte / boolean handed to
+ *     WriterContext.writeImpl(), so @id / @ref, custom writers, writeLongsAsStrings and so on apply as usual.
+ *     JsonWriter itself writes the object's own @id and @type around it.</li>
+ *     <li>a ClassFactory creating the object with its no-arg constructor and assigning each field present in the
+ *     JSON (field access or setter), with the value bound by Resolver.toTypedValue(), so conversions, @ref's and
+ *     nested objects are resolved the way json-io resolves them.</li>
+ *     <li>a CodecProvider registering both for the class.</li>
+ * </ul>
+ * The generated code is only used while the options leave the class's fields as they are.  When the WriteOptions
+ * write other fields than the generated ones (included / excluded fields, field filters), the writer hands the
+ * object to JsonWriter's own field loop.  When the ReadOptions read other fields (fields not imported) or have a
+ * MissingFieldHandler, or the JSON holds a transient field (which json-io reads, but does not write), the factory
+ * only creates the instance, and json-io assigns its fields.  Each check is done
+ * once per WriteOptions / ReadOptions instance.
+ * The processor lists every generated codec in META-INF/services/com.cedarsoftware.io.CodecProvider, which
+ * ReadOptionsBuilder and WriteOptionsBuilder load when they are initialized.  Instances of subclasses of the
+ * annotated class (which json-io would otherwise hand to the same writer) are written by JsonWriter's general
+ * field loop.
+ * <br><br>
+ * The processor itself uses no json-io classes; the generated code is compiled against the json-io the
+ * application depends on.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+@SupportedAnnotationTypes("com.cedarsoftware.io.apt.JsonCodec")
+public class JsonCodecProcessor extends AbstractProcessor {
+    static final String SERVICE_FILE = "META-INF/services/com.cedarsoftware.io.CodecProvider";
+    private static final String IO = "com.cedarsoftware.io.";
+    private final Set<String> generated = new LinkedHashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(JsonCodec.class)) {
+            try {
+                generated.add(generate(checkClass(element)));
+            } catch (CodecException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), e.element);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write json-io codec: " + e.getMessage(), element);
+            }
+        }
+        if (roundEnv.processingOver() && !generated.isEmpty()) {
+            writeServiceFile();
+        }
+        return true;
+    }
+
+    /**
+     * One field of the annotated class: how to read it from, and assign it to, an instance named obj.
+     */
+    private static final class CodecField {
+        private final String name;
+        private final TypeMirror type;
+        private final String read;          // expression
+        private final String assignPrefix;  // followed by the value expression and ");" or ";"
+        private final String assignSuffix;
+
+        private CodecField(String name, TypeMirror type, String read, String assignPrefix, String assignSuffix) {
+            this.name = name;
+            this.type = type;
+            this.read = read;
+            this.assignPrefix = assignPrefix;
+            this.assignSuffix = assignSuffix;
+        }
+    }
+
+    private static final class CodecException extends Exception {
+        private final Element element;
+
+        private CodecException(String message, Element element) {
+            super(message);
+            this.element = element;
+        }
+    }
+
+    private TypeElement checkClass(Element element) throws CodecException {
+        if (element.getKind() != ElementKind.CLASS) {
+            throw new CodecException("@JsonCodec can only be placed on a class", element);
+        }
+        final TypeElement type = (TypeElement) element;
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new CodecException("@JsonCodec class cannot be abstract", type);
+        }
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE)) {
+                throw new CodecException("@JsonCodec class (and the classes enclosing it) cannot be private", type);
+            }
+            if (((TypeElement) e).getNestingKind() == NestingKind.MEMBER && !e.getModifiers().contains(Modifier.STATIC)) {
+                throw new CodecException("@JsonCodec class cannot be an inner class, make it static", type);
+            }
+            if (((TypeElement) e).getNestingKind() == NestingKind.LOCAL || ((TypeElement) e).getNestingKind() == NestingKind.ANONYMOUS) {
+                throw new CodecException("@JsonCodec class cannot be a local or anonymous class", type);
+            }
+        }
+        boolean noArgConstructor = false;
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                noArgConstructor = true;
+            }
+        }
+        if (!noArgConstructor) {
+            throw new CodecException("@JsonCodec class needs a non-private no-arg constructor", type);
+        }
+        return type;
+    }
+
+    /**
+     * @return the class's fields, in the order json-io writes them (the class's own fields, then its
+     * superclass's, and so on).
+     */
+    private List<CodecField> collectFields(TypeElement type) throws CodecException {
+        final PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        final List<CodecField> fields = new ArrayList<>();
+        final Set<String> names = new HashSet<>();
+        TypeElement current = type;
+        while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                final Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+                final String name = field.getSimpleName().toString();
+                if (!names.add(name)) {
+                    throw new CodecException("@JsonCodec class " + type.getQualifiedName() + " has more than one field named '" + name + "' (a superclass field is hidden)", field);
+                }
+                fields.add(toCodecField(field, current, pkg));
+            }
+            final TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        if (fields.isEmpty()) {
+            throw new CodecException("@JsonCodec class " + type.getQualifiedName() + " has no fields to write", type);
+        }
+        return fields;
+    }
+
+    private CodecField toCodecField(VariableElement field, TypeElement owner, PackageElement pkg) throws CodecException {
+        final String name = field.getSimpleName().toString();
+        final TypeMirror type = field.asType();
+        final boolean fieldAccessible = isAccessible(field, pkg);
+        final String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+
+        String read = fieldAccessible ? "obj." + name : null;
+        String assignPrefix = fieldAccessible && !field.getModifiers().contains(Modifier.FINAL) ? "obj." + name + " = " : null;
+        String assignSuffix = ";";
+        for (ExecutableElement method : ElementFilter.methodsIn(owner.getEnclosedElements())) {
+            if (method.getModifiers().contains(Modifier.STATIC) || !isAccessible(method, pkg)) {
+                continue;
+            }
+            final String methodName = method.getSimpleName().toString();
+            if (read == null && method.getParameters().isEmpty() && isSameType(method.getReturnType(), type) &&
+                    (methodName.equals("get" + capitalized) || (type.getKind() == TypeKind.BOOLEAN && methodName.equals("is" + capitalized)))) {
+                read = "obj." + methodName + "()";
+            }
+            if (assignPrefix == null && methodName.equals("set" + capitalized) && method.getParameters().size() == 1 &&
+                    isSameType(method.getParameters().get(0).asType(), type)) {
+                assignPrefix = "obj." + methodName + "(";
+                assignSuffix = ");";
+            }
+        }
+        if (read == null) {
+            throw new CodecException("@JsonCodec field '" + name + "' is not accessible from package " + pkg.getQualifiedName() + " and has no accessible getter", field);
+        }
+        if (assignPrefix == null) {
+            throw new CodecException("@JsonCodec field '" + name + "' is " + (fieldAccessible ? "final" : "not accessible from package " + pkg.getQualifiedName()) + " and has no accessible setter", field);
+        }
+        return new CodecField(name, type, read, assignPrefix, assignSuffix);
+    }
+
+    private boolean isSameType(TypeMirror a, TypeMirror b) {
+        return processingEnv.getTypeUtils().isSameType(a, b);
+    }
+
+    /**
+     * @return true if the generated codec, in package pkg, can use the passed in member directly.
+     */
+    private boolean isAccessible(Element member, PackageElement pkg) {
+        final Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        // package-private or protected: only from the same package
+        return processingEnv.getElementUtils().getPackageOf(member).equals(pkg);
+    }
+
+    /**
+     * @return the names of the class's transient fields (and its superclasses').  json-io does not write them, but
+     * reads them when they are in the JSON.
+     */
+    private List<String> collectTransientFields(TypeElement type) {
+        final List<String> names = new ArrayList<>();
+        TypeElement current = type;
+        while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                final Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.TRANSIENT) && !modifiers.contains(Modifier.STATIC)) {
+                    names.add(field.getSimpleName().toString());
+                }
+            }
+            final TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        return names;
+    }
+
+    /**
+     * Write the codec source for the passed in class.
+     * @return qualified name of the generated codec class.
+     */
+    private String generate(TypeElement type) throws CodecException, IOException {
+        final List<CodecField> fields = collectFields(type);
+        final List<String> transientFields = collectTransientFields(type);
+        final PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        final String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        final String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        final String codecName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)).replace('$', '_') + "_JsonCodec";
+        final String qualifiedCodecName = packageName.isEmpty() ? codecName : packageName + '.' + codecName;
+        final String target = erasure(type.asType());
+
+        final StringBuilder s = new StringBuilder(4096);
+        if (!packageName.isEmpty()) {
+            s.append("package ").append(packageName).append(";\n\n");
+        }
+        s.append("/**\n");
+        s.append(" * json-io codec for ").append(type.getQualifiedName()).append(", generated by ").append(getClass().getName()).append(".  Do not edit.\n");
+        s.append(" */\n");
+        s.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        s.append("public final class ").append(codecName).append(" implements ").append(IO).append("CodecProvider, ")
+                .append(IO).append("JsonWriter.ThreadSafeClassWriter, ").append(IO).append("JsonReader.ClassFactory {\n");
+        s.append("    private static final String[] FIELDS = {");
+        for (int i = 0; i < fields.size(); i++) {
+            s.append(i == 0 ? "" : ", ").append(javaString(fields.get(i).name));
+        }
+        s.append("};\n");
+        s.append("    private static final String[] TRANSIENT_FIELDS = {");
+        for (int i = 0; i < transientFields.size(); i++) {
+            s.append(i == 0 ? "" : ", ").append(javaString(transientFields.get(i)));
+        }
+        s.append("};     // not written, but read by json-io when present\n");
+        s.append("    private volatile Check writeCheck;\n");
+        s.append("    private volatile Check readCheck;\n\n");
+        s.append("    /**\n");
+        s.append("     * Whether the generated field code applies with the options checked last.\n");
+        s.append("     */\n");
+        s.append("    private static final class Check {\n");
+        s.append("        private final Object options;\n");
+        s.append("        private final boolean direct;\n\n");
+        s.append("        private Check(Object options, boolean direct) {\n");
+        s.append("            this.options = options;\n");
+        s.append("            this.direct = direct;\n");
+        s.append("        }\n");
+        s.append("    }\n\n");
+
+        // CodecProvider
+        s.append("    @Override\n");
+        s.append("    public java.util.Map<Class<?>, ").append(IO).append("JsonWriter.JsonClassWriter> getWriters() {\n");
+        s.append("        return java.util.Collections.singletonMap(").append(target).append(".class, this);\n");
+        s.append("    }\n\n");
+        s.append("    @Override\n");
+        s.append("    public java.util.Map<Class<?>, ").append(IO).append("JsonReader.ClassFactory> getClassFactories() {\n");
+        s.append("        return java.util.Collections.singletonMap(").append(target).append(".class, this);\n");
+        s.append("    }\n\n");
+
+        // JsonClassWriter
+        s.append("    @Override\n");
+        s.append("    public void write(Object o, boolean showType, java.io.Writer output, ").append(IO).append("WriterContext context) throws java.io.IOException {\n");
+        s.append("        final ").append(IO).append("WriteOptions options = context.getWriteOptions();\n");
+        s.append("        if (o.getClass() != ").append(target).append(".class || !isDirect(options)) {\n");
+        s.append("            context.writeFields(o);     // a subclass, or fields chosen by the WriteOptions\n");
+        s.append("            return;\n");
+        s.append("        }\n");
+        s.append("        final ").append(target).append(" obj = (").append(target).append(") o;\n");
+        s.append("        final boolean skipNullFields = options.isSkipNullFields();\n");
+        s.append("        final ").append(IO).append("JsonWriter writer = context instanceof ").append(IO).append("JsonWriter ? (")
+                .append(IO).append("JsonWriter) context : null;\n");
+        s.append("        boolean first = true;\n");
+        for (CodecField field : fields) {
+            appendWriteField(s, field);
+        }
+        s.append("    }\n\n");
+        s.append("    private static void writeName(java.io.Writer output, ").append(IO).append("JsonWriter writer, boolean first, String name) throws java.io.IOException {\n");
+        s.append("        if (!first) {\n");
+        s.append("            output.write(',');\n");
+        s.append("            if (writer != null) {\n");
+        s.append("                writer.newLine();\n");
+        s.append("            }\n");
+        s.append("        }\n");
+        s.append("        output.write(name);\n");
+        s.append("    }\n\n");
+        s.append("    private static void writeValue(java.io.Writer output, ").append(IO).append("WriterContext context, ")
+                .append(IO).append("WriteOptions options, Object value, Class<?> declaredType) throws java.io.IOException {\n");
+        s.append("        if (value == null) {\n");
+        s.append("            output.write(\"null\");\n");
+        s.append("        } else {\n");
+        s.append("            context.writeImpl(value, ").append(IO).append("JsonWriter.isForceType(value.getClass(), declaredType, options));\n");
+        s.append("        }\n");
+        s.append("    }\n\n");
+
+        s.append("    /**\n");
+        s.append("     * @return true if the passed in WriteOptions write exactly the generated fields, in the same order.\n");
+        s.append("     */\n");
+        s.append("    boolean isDirect(").append(IO).append("WriteOptions options) {\n");
+        s.append("        Check check = writeCheck;\n");
+        s.append("        if (check == null || check.options != options) {\n");
+        s.append("            final java.util.List<").append(IO).append("reflect.Accessor> accessors = options.getAccessorsForClass(").append(target).append(".class);\n");
+        s.append("            boolean direct = accessors.size() == FIELDS.length;\n");
+        s.append("            for (int i = 0; direct && i < FIELDS.length; i++) {\n");
+        s.append("                direct = FIELDS[i].equals(accessors.get(i).getUniqueFieldName());\n");
+        s.append("            }\n");
+        s.append("            writeCheck = check = new Check(options, direct);\n");
+        s.append("        }\n");
+        s.append("        return check.direct;\n");
+        s.append("    }\n\n");
+
+        // ClassFactory
+        s.append("    @Override\n");
+        s.append("    public Object newInstance(Class<?> c, ").append(IO).append("JsonObject jObj, ").append(IO).append("Resolver resolver) {\n");
+        s.append("        final ").append(target).append(" obj = new ").append(target).append("();\n");
+        s.append("        if (!isDirect(resolver.getReadOptions()) || hasTransientField(jObj)) {\n");
+        s.append("            return obj;     // not finished, json-io assigns the fields\n");
+        s.append("        }\n");
+        s.append("        jObj.setFinishedTarget(obj, true);      // before the fields, so that a reference cycle back to obj finds it\n");
+        s.append("        Object value;\n");
+        for (CodecField field : fields) {
+            appendReadField(s, field);
+        }
+        s.append("        return obj;\n");
+        s.append("    }\n\n");
+        s.append("    /**\n");
+        s.append("     * @return true if the passed in ReadOptions read exactly the generated fields, and have no MissingFieldHandler\n");
+        s.append("     * to hand unknown fields to.\n");
+        s.append("     */\n");
+        s.append("    boolean isDirect(").append(IO).append("ReadOptions options) {\n");
+        s.append("        Check check = readCheck;\n");
+        s.append("        if (check == null || check.options != options) {\n");
+        s.append("            final java.util.Set<String> names = new java.util.HashSet<>(java.util.Arrays.asList(FIELDS));\n");
+        s.append("            names.addAll(java.util.Arrays.asList(TRANSIENT_FIELDS));\n");
+        s.append("            final boolean direct = options.getMissingFieldHandler() == null &&\n");
+        s.append("                    options.getDeepInjectorMap(").append(target).append(".class).keySet().equals(names);\n");
+        s.append("            readCheck = check = new Check(options, direct);\n");
+        s.append("        }\n");
+        s.append("        return check.direct;\n");
+        s.append("    }\n\n");
+        s.append("    private static boolean hasTransientField(").append(IO).append("JsonObject jObj) {\n");
+        s.append("        for (String name : TRANSIENT_FIELDS) {\n");
+        s.append("            if (jObj.containsKey(name)) {\n");
+        s.append("                return true;\n");
+        s.append("            }\n");
+        s.append("        }\n");
+        s.append("        return false;\n");
+        s.append("    }\n\n");
+        s.append("    @Override\n");
+        s.append("    public boolean isObjectFinal() {\n");
+        s.append("        return false;   // newInstance() marks the JsonObject finished when it has assigned the fields\n");
+        s.append("    }\n");
+        s.append("}\n");
+
+        try (Writer out = processingEnv.getFiler().createSourceFile(qualifiedCodecName, type).openWriter()) {
+            out.write(s.toString());
+        }
+        return qualifiedCodecName;
+    }
+
+    private void appendWriteField(StringBuilder s, CodecField field) {
+        final String name = javaString("\"" + field.name + "\":");
+        final TypeKind kind = field.type.getKind();
+        s.append("\n        // ").append(field.name).append('\n');
+        if (kind == TypeKind.BOOLEAN || kind == TypeKind.INT || kind == TypeKind.SHORT || kind == TypeKind.BYTE) {
+            s.append("        writeName(output, writer, first, ").append(name).append(");\n");
+            s.append("        first = false;\n");
+            if (kind == TypeKind.BOOLEAN) {
+                s.append("        output.write(").append(field.read).append(" ? \"true\" : \"false\");\n");
+            } else {
+                s.append("        ").append(IO).append("JsonWriter.writeLong(output, ").append(field.read).append(");\n");
+            }
+        } else if (kind.isPrimitive()) {
+            // long, double, float, char: written by their writers (writeLongsAsStrings, NaN / Infinity, ...)
+            s.append("        writeName(output, writer, first, ").append(name).append(");\n");
+            s.append("        first = false;\n");
+            s.append("        writeValue(output, context, options, ").append(field.read).append(", ").append(kind.name().toLowerCase()).append(".class);\n");
+        } else {
+            final boolean string = erasure(field.type).equals("java.lang.String");
+            s.append("        {\n");
+            s.append("            final ").append(string ? "String" : "Object").append(" value = ").append(field.read).append(";\n");
+            s.append("            if (value != null || !skipNullFields) {\n");
+            s.append("                writeName(output, writer, first, ").append(name).append(");\n");
+            s.append("                first = false;\n");
+            if (string) {
+                s.append("                if (value == null) {\n");
+                s.append("                    output.write(\"null\");\n");
+                s.append("                } else {\n");
+                s.append("                    ").append(IO).append("JsonWriter.writeJsonUtf8String(output, value, options);\n");
+                s.append("                }\n");
+            } else {
+                s.append("                writeValue(output, context, options, value, ").append(erasure(field.type)).append(".class);\n");
+            }
+            s.append("            }\n");
+            s.append("        }\n");
+        }
+    }
+
+    private void appendReadField(StringBuilder s, CodecField field) {
+        final String name = javaString(field.name);
+        final boolean primitive = field.type.getKind().isPrimitive();
+        final String castType = primitive ? processingEnv.getTypeUtils().boxedClass((PrimitiveType) field.type).getQualifiedName().toString() : erasure(field.type);
+        s.append("        if (jObj.containsKey(").append(name).append(")) {\n");
+        s.append("            value = resolver.toTypedValue(jObj.get(").append(name).append("), ").append(erasure(field.type)).append(".class);\n");
+        if (primitive) {
+            s.append("            if (value != null) {\n");
+            s.append("                ").append(field.assignPrefix).append('(').append(castType).append(") value").append(field.assignSuffix).append('\n');
+            s.append("            }\n");
+        } else {
+            s.append("            ").append(field.assignPrefix).append('(').append(castType).append(") value").append(field.assignSuffix).append('\n');
+        }
+        s.append("        }\n");
+    }
+
+    /**
+     * @return source form of the erasure of the passed in type (a class literal without ".class").
+     */
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private static String javaString(String s) {
+        final StringBuilder quoted = new StringBuilder(s.length() + 8).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            final char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\');
+            }
+            quoted.append(c);
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * List the generated codecs in META-INF/services, keeping the ones listed by an earlier (incremental)
+     * compilation of the same output directory.
+     */
+    private void writeServiceFile() {
+        final Set<String> providers = new LinkedHashSet<>();
+        try {
+            final FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.trim().isEmpty()) {
+                        providers.add(line.trim());
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException ignored) {
+            // no earlier service file
+        }
+        providers.addAll(generated);
+
+        try {
+            final FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (Writer out = file.openWriter()) {
+                for (String provider : providers) {
+                    out.write(provider);
+                    out.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write " + SERVICE_FILE + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.cedarsoftware.io.apt;
+
+@JsonCodec
+public class Customer
+{
+    String name;
+    private int level;
+
+    public Customer() { }
+
+    Customer(String name, int level)
+    {
+        this.name = name;
+        this.level = level;
+    }
+
+    public int getLevel()
+    {
+        return level;
+    }
+
+    public void setLevel(int level)
+    {
+        this.level = level;
+    }
+}
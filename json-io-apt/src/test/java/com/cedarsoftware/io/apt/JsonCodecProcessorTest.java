@@ -0,0 +1,280 @@
+package com.cedarsoftware.io.apt;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import com.cedarsoftware.io.JsonIo;
+import com.cedarsoftware.io.ReadOptions;
+import com.cedarsoftware.io.ReadOptionsBuilder;
+import com.cedarsoftware.io.WriteOptions;
+import com.cedarsoftware.io.WriteOptionsBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The test sources are compiled with JsonCodecProcessor (see pom.xml), so Customer, Order and Node have
+ * generated codecs, registered through the generated META-INF/services file.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+class JsonCodecProcessorTest
+{
+    private static Order newOrder(Customer customer)
+    {
+        Order order = new Order();
+        order.id = 9007199254740993L;
+        order.amount = 12.5;
+        order.discount = Float.NaN;
+        order.rush = true;
+        order.grade = 'A';
+        order.lines = 3;
+        order.reference = 42L;
+        order.note = "tab\there \"quoted\" café";
+        order.status = Order.Status.PAID;
+        order.customer = customer;
+        order.billTo = customer;
+        order.extra = new Customer("extra", 1);
+        order.tags = new ArrayList<>(Arrays.asList("a", "b"));
+        order.counts = new int[] {1, 2, 3};
+        order.cached = "not written";
+        return order;
+    }
+
+    @Test
+    void testCodecsAreRegistered()
+    {
+        assertThat(WriteOptionsBuilder.getDefaultWriteOptions().getCustomWriter(Order.class)).isInstanceOf(Order_JsonCodec.class);
+        assertThat(WriteOptionsBuilder.getDefaultWriteOptions().getCustomWriter(Customer.class)).isInstanceOf(Customer_JsonCodec.class);
+        assertThat(ReadOptionsBuilder.getDefaultReadOptions().getClassFactory(Order.class)).isInstanceOf(Order_JsonCodec.class);
+        assertThat(ReadOptionsBuilder.getDefaultReadOptions().getClassFactory(Node.class)).isInstanceOf(Node_JsonCodec.class);
+    }
+
+    @Test
+    void testGeneratedFieldsUsedByDefault()
+    {
+        assertThat(new Order_JsonCodec().isDirect(WriteOptionsBuilder.getDefaultWriteOptions())).isTrue();
+        assertThat(new Order_JsonCodec().isDirect(ReadOptionsBuilder.getDefaultReadOptions())).isTrue();
+        assertThat(new Customer_JsonCodec().isDirect(WriteOptionsBuilder.getDefaultWriteOptions())).isTrue();
+        assertThat(new Customer_JsonCodec().isDirect(ReadOptionsBuilder.getDefaultReadOptions())).isTrue();
+    }
+
+    @Test
+    void testWriteOptionsChooseTheFields()
+    {
+        WriteOptions excluded = new WriteOptionsBuilder().addExcludedFields(Order.class, Arrays.asList("note", "tags")).build();
+        WriteOptions reflective = new WriteOptionsBuilder().addExcludedFields(Order.class, Arrays.asList("note", "tags"))
+                .addNotCustomWrittenClass(Order.class).build();
+        Order order = newOrder(new Customer("Ann", 7));
+        String json = JsonIo.toJson(order, excluded);
+        assertThat(json).doesNotContain("\"note\"").doesNotContain("\"tags\"").contains("\"amount\"");
+        assertThat(json).isEqualTo(JsonIo.toJson(order, reflective));
+        assertThat(new Order_JsonCodec().isDirect(excluded)).isFalse();
+
+        WriteOptions included = new WriteOptionsBuilder().addIncludedField(Customer.class, "name").build();
+        assertThat(JsonIo.toJson(new Customer("Ann", 7), included)).contains("\"name\":\"Ann\"").doesNotContain("level");
+    }
+
+    @Test
+    void testMissingFieldHandlerGetsUnknownFields()
+    {
+        Map<String, Object> missing = new LinkedHashMap<>();
+        ReadOptions readOptions = new ReadOptionsBuilder().missingFieldHandler((object, fieldName, value) -> missing.put(fieldName, value)).build();
+        String json = "{\"@type\":\"" + Customer.class.getName() + "\",\"name\":\"Ann\",\"level\":7,\"bogus\":\"x\"}";
+        Customer customer = JsonIo.toObjects(json, readOptions, Customer.class);
+        assertThat(customer.name).isEqualTo("Ann");
+        assertThat(customer.getLevel()).isEqualTo(7);
+        assertThat(missing).containsEntry("bogus", "x");
+    }
+
+    @Test
+    void testFieldsNotImportedAreNotRead()
+    {
+        ReadOptionsBuilder.addPermanentNotImportedField(Setting.class, "secret");
+        ReadOptions readOptions = new ReadOptionsBuilder().build();
+        assertThat(new Setting_JsonCodec().isDirect(readOptions)).isFalse();
+        Setting setting = JsonIo.toObjects("{\"name\":\"a\",\"secret\":\"b\"}", readOptions, Setting.class);
+        assertThat(setting.name).isEqualTo("a");
+        assertThat(setting.secret).isNull();
+    }
+
+    @Test
+    void testTransientFieldInJsonIsRead()
+    {
+        String json = "{\"id\":3,\"cached\":\"kept\"}";
+        Order order = JsonIo.toObjects(json, null, Order.class);
+        assertThat(order.id).isEqualTo(3);
+        assertThat(order.cached).isEqualTo("kept");      // as json-io reads it without the codec
+    }
+
+    @Test
+    void testOutputMatchesReflectivePath()
+    {
+        for (boolean pretty : new boolean[] {false, true})
+        {
+            for (boolean skipNulls : new boolean[] {false, true})
+            {
+                Order order = newOrder(new Customer("Ann", 7));
+                order.note = null;
+                WriteOptions generated = new WriteOptionsBuilder().prettyPrint(pretty).skipNullFields(skipNulls).build();
+                WriteOptions reflective = new WriteOptionsBuilder().prettyPrint(pretty).skipNullFields(skipNulls)
+                        .addNotCustomWrittenClass(Order.class).addNotCustomWrittenClass(Customer.class).build();
+                assertThat(JsonIo.toJson(order, generated)).isEqualTo(JsonIo.toJson(order, reflective));
+            }
+        }
+        WriteOptions longsAsStrings = new WriteOptionsBuilder().writeLongsAsStrings(true).showTypeInfoAlways().build();
+        WriteOptions reflective = new WriteOptionsBuilder().writeLongsAsStrings(true).showTypeInfoAlways()
+                .addNotCustomWrittenClass(Order.class).addNotCustomWrittenClass(Customer.class).build();
+        Order order = newOrder(new Customer("Ann", 7));
+        assertThat(JsonIo.toJson(order, longsAsStrings)).isEqualTo(JsonIo.toJson(order, reflective));
+    }
+
+    @Test
+    void testRoundTrip()
+    {
+        Customer customer = new Customer("Ann", 7);
+        String json = JsonIo.toJson(newOrder(customer), null);
+        assertThat(json).contains("\"@ref\":").doesNotContain("not written");
+
+        Order order = JsonIo.toObjects(json, null, Order.class);
+        assertThat(order.id).isEqualTo(9007199254740993L);
+        assertThat(order.amount).isEqualTo(12.5);
+        assertThat(order.discount).isEqualTo(0.0f);     // NaN is written as null, which leaves the default
+        assertThat(order.rush).isTrue();
+        assertThat(order.grade).isEqualTo('A');
+        assertThat(order.lines).isEqualTo((short) 3);
+        assertThat(order.reference).isEqualTo(42L);
+        assertThat(order.note).isEqualTo("tab\there \"quoted\" café");
+        assertThat(order.status).isEqualTo(Order.Status.PAID);
+        assertThat(order.customer.name).isEqualTo("Ann");
+        assertThat(order.customer.getLevel()).isEqualTo(7);
+        assertThat(order.billTo).isSameAs(order.customer);
+        assertThat(order.extra).isInstanceOf(Customer.class);
+        assertThat(((Customer) order.extra).name).isEqualTo("extra");
+        assertThat(order.tags).containsExactly("a", "b");
+        assertThat(order.counts).containsExactly(1, 2, 3);
+        assertThat(order.cached).isNull();
+    }
+
+    @Test
+    void testReferenceCycle()
+    {
+        Node a = new Node();
+        Node b = new Node();
+        a.name = "a";
+        b.name = "b";
+        a.next = b;
+        b.next = a;
+
+        Node read = JsonIo.toObjects(JsonIo.toJson(a, null), null, Node.class);
+        assertThat(read.name).isEqualTo("a");
+        assertThat(read.next.name).isEqualTo("b");
+        assertThat(read.next.next).isSameAs(read);
+    }
+
+    @Test
+    void testSubclassUsesGeneralPath()
+    {
+        RushOrder rush = new RushOrder();
+        rush.id = 5;
+        rush.courier = "fast";
+        Order[] orders = new Order[] {rush, rush};   // referenced, so written with an @id before its fields
+
+        String json = JsonIo.toJson(orders, null);
+        assertThat(json).contains("\"courier\":\"fast\"");
+        Order[] read = JsonIo.toObjects(json, null, Order[].class);
+        assertThat(read[0]).isInstanceOf(RushOrder.class);
+        assertThat(read[1]).isSameAs(read[0]);
+        assertThat(((RushOrder) read[0]).courier).isEqualTo("fast");
+        assertThat(read[0].id).isEqualTo(5);
+    }
+
+    @Test
+    void testInaccessibleFieldIsACompileError() throws IOException
+    {
+        String source = "package bad;\n" +
+                "@com.cedarsoftware.io.apt.JsonCodec\n" +
+                "public class Hidden {\n" +
+                "    private String secret;\n" +
+                "}\n";
+        List<Diagnostic<? extends JavaFileObject>> errors = compile("bad.Hidden", source);
+        assertThat(errors).hasSize(1);
+        assertThat(errors.get(0).getMessage(Locale.US)).contains("'secret'").contains("no accessible getter");
+    }
+
+    @Test
+    void testFinalFieldIsACompileError() throws IOException
+    {
+        String source = "package bad;\n" +
+                "@com.cedarsoftware.io.apt.JsonCodec\n" +
+                "public class Fixed {\n" +
+                "    final String id = \"x\";\n" +
+                "}\n";
+        List<Diagnostic<? extends JavaFileObject>> errors = compile("bad.Fixed", source);
+        assertThat(errors).hasSize(1);
+        assertThat(errors.get(0).getMessage(Locale.US)).contains("'id' is final");
+    }
+
+    /**
+     * Run only the processor over the passed in source.
+     * @return the ERROR diagnostics reported.
+     */
+    private static List<Diagnostic<? extends JavaFileObject>> compile(String className, String source) throws IOException
+    {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE)
+        {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors)
+            {
+                return source;
+            }
+        };
+        Path output = Files.createTempDirectory("json-io-apt");
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<String> options = Arrays.asList("-proc:only", "-processor", JsonCodecProcessor.class.getName(),
+                "-classpath", System.getProperty("java.class.path"), "-s", output.toString(), "-d", output.toString());
+        compiler.getTask(null, null, diagnostics, options, null, Collections.singletonList(file)).call();
+
+        List<Diagnostic<? extends JavaFileObject>> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics())
+        {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR)
+            {
+                errors.add(diagnostic);
+            }
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,8 @@
+package com.cedarsoftware.io.apt;
+
+@JsonCodec
+public class Node
+{
+    String name;
+    Node next;
+}
@@ -0,0 +1,25 @@
+package com.cedarsoftware.io.apt;
+
+import java.util.List;
+
+@JsonCodec
+public class Order
+{
+    enum Status { OPEN, PAID }
+
+    long id;
+    double amount;
+    float discount;
+    boolean rush;
+    char grade;
+    short lines;
+    Long reference;
+    String note;
+    Status status;
+    Customer customer;
+    Customer billTo;
+    Object extra;
+    List<String> tags;
+    int[] counts;
+    transient String cached;
+}
@@ -0,0 +1,9 @@
+package com.cedarsoftware.io.apt;
+
+/**
+ * Not annotated: written and read by json-io's general (reflective) path, even though Order has a codec.
+ */
+public class RushOrder extends Order
+{
+    String courier;
+}
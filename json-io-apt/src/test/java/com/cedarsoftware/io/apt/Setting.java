@@ -0,0 +1,8 @@
+package com.cedarsoftware.io.apt;
+
+@JsonCodec
+public class Setting
+{
+    String name;
+    String secret;
+}
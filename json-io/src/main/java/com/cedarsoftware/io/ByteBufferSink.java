@@ -0,0 +1,38 @@
+package com.cedarsoftware.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Receives JSON output written into caller supplied ByteBuffers, see JsonIo.toJson(ByteBuffer, Object,
+ * WriteOptions, ByteBufferSink).  The sink is called each time a buffer fills up, and once more at the end of the
+ * output for the last, partly filled, buffer.  It typically writes the buffer to a socket or file (possibly
+ * gathering several buffers into one write), or queues it, and returns the buffer to continue writing into.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+@FunctionalInterface
+public interface ByteBufferSink {
+    /**
+     * @param buffer ByteBuffer holding the next bytes of output, flipped (ready to be read from position to limit).
+     *               The writer does not touch it again unless it is returned.
+     * @return ByteBuffer to continue writing into (the same buffer after clear(), or another one), from its
+     * position up to its limit.  May be null once the output is complete (on the last call).
+     * @throws IOException if the output cannot be delivered, which stops the write.
+     */
+    ByteBuffer accept(ByteBuffer buffer) throws IOException;
+}
@@ -0,0 +1,351 @@
+package com.cedarsoftware.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import com.cedarsoftware.io.reflect.Accessor;
+import com.cedarsoftware.io.writers.LongWriter;
+import com.cedarsoftware.util.ClassUtilities;
+
+import static com.cedarsoftware.io.JsonValue.SHORT_TYPE;
+import static com.cedarsoftware.io.JsonValue.TYPE;
+
+/**
+ * Per-class (and per-WriteOptions) write plan.  A class starts out written by JsonWriter's general field loop
+ * (writePlannedField() for every Accessor).  Once the class has been written getCompileThreshold() times, the
+ * plan compiles one FieldWriter per field, specialized for the field's declared type: primitive fields are read
+ * without boxing and written directly, String fields are written without the custom writer / @ref / @type
+ * checks, and anything else is handed back to writePlannedField().  Specializations are only used when the
+ * output would be identical to the general path under the current WriteOptions (stock writers, no
+ * writeLongsAsStrings for longs, and so on).
+ * <br><br>
+ * The plan also holds the class's trace accessors: the Accessors whose declared type can hold a referenceable
+ * object.  JsonWriter.traceReferences() follows only those, so primitive, String, Number, Date and final
+ * non-referenceable fields are never read (or boxed) while tracing.  A class with no trace accessors (and that
+ * is not an array, Map or Collection) is a trace leaf: the tracer marks its instances visited without
+ * pushing them.
+ * <br><br>
+ * Everything else JsonWriter would otherwise work out per object (or per field) is decided once here: the field
+ * names are UTF-8 encoded up front, together with their quotes and colon (and, for compact output, the comma
+ * before them), the @type member is built with its alias already looked up, the null-skip policy is read once,
+ * and whether the class has a custom writer is resolved once.  For a field whose declared type is final (or
+ * primitive), the class of its value is known in advance, so the decision to write @type for it is made when
+ * the field is compiled instead of for every value.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+final class ClassWritePlan {
+    /**
+     * Writes one field of an object, including the separator and the field name.
+     */
+    interface FieldWriter {
+        /**
+         * @param writer JsonWriter doing the write.
+         * @param out Writer to which the JSON is written.
+         * @param obj Object owning the field.
+         * @param first true if no field of obj has been written yet.
+         * @return the new value of 'first'.
+         */
+        boolean write(JsonWriter writer, Writer out, Object obj, boolean first) throws IOException;
+    }
+
+    private final WriteOptions writeOptions;
+    private final List<Accessor> accessors;
+    private final FieldName[] fieldNames;
+    private final String typeField;
+    private final boolean customWritten;
+    private final boolean skipNullFields;
+    private final Accessor[] traceAccessors;
+    private final boolean traceLeaf;
+    private final boolean compilable;
+    private final int threshold;
+    private int writes;     // Racy on purpose, an extra (or missed) count only moves compilation by one write.
+    private volatile FieldWriter[] fieldWriters;
+
+    ClassWritePlan(Class<?> c, WriteOptions writeOptions) {
+        this.writeOptions = writeOptions;
+        this.accessors = writeOptions.getAccessorsForClass(c);
+        this.fieldNames = new FieldName[accessors.size()];
+        for (int i = 0; i < fieldNames.length; i++) {
+            fieldNames[i] = new FieldName(accessors.get(i).getUniqueFieldName(), writeOptions.isPrettyPrint());
+        }
+        this.typeField = writeOptions.isNeverShowingType() ? null :
+                "\"" + (writeOptions.isShortMetaKeys() ? SHORT_TYPE : TYPE) + "\":\"" + writeOptions.getTypeNameAlias(c.getName()) + '"';
+        this.customWritten = !writeOptions.isNotCustomWrittenClass(c) && writeOptions.getCustomWriter(c) != null;
+        this.skipNullFields = writeOptions.isSkipNullFields();
+        this.traceAccessors = buildTraceAccessors(accessors, writeOptions);
+        this.traceLeaf = traceAccessors.length == 0 && !c.isArray() &&
+                !Map.class.isAssignableFrom(c) && !Collection.class.isAssignableFrom(c);
+        this.threshold = writeOptions.getCompileThreshold();
+        // Enums written as objects filter fields by visibility in writeField(), leave them to it.
+        this.compilable = threshold > 0 && !c.isEnum() && !Enum.class.isAssignableFrom(c);
+    }
+
+    List<Accessor> getAccessors() {
+        return accessors;
+    }
+
+    /**
+     * @return pre-encoded names of the Accessors' fields, in the same order.
+     */
+    FieldName[] getFieldNames() {
+        return fieldNames;
+    }
+
+    /**
+     * @return the class's @type member ("@type":"alias"), or null if types are never written.
+     */
+    String getTypeField() {
+        return typeField;
+    }
+
+    /**
+     * @return true if instances of the class are written by a custom writer.
+     */
+    boolean isCustomWritten() {
+        return customWritten;
+    }
+
+    boolean isSkipNullFields() {
+        return skipNullFields;
+    }
+
+    /**
+     * @return Accessors (in field order) whose values traceReferences() must follow.
+     */
+    Accessor[] getTraceAccessors() {
+        return traceAccessors;
+    }
+
+    /**
+     * @return true if instances of the class cannot reference other objects through fields, array elements,
+     * or Map / Collection entries.
+     */
+    boolean isTraceLeaf() {
+        return traceLeaf;
+    }
+
+    private static Accessor[] buildTraceAccessors(List<Accessor> accessors, WriteOptions writeOptions) {
+        final List<Accessor> traced = new ArrayList<>(accessors.size());
+        for (final Accessor accessor : accessors) {
+            if (canHoldReference(accessor.getFieldType(), writeOptions)) {
+                traced.add(accessor);
+            }
+        }
+        return traced.toArray(new Accessor[0]);
+    }
+
+    /**
+     * @return false if no value assignable to the passed in (declared) type is referenceable.  Non-referenceable
+     * classes that are not final (or are enums with constant bodies) can have referenceable subclasses, so they
+     * are kept, except for Number, Date and String, whose subclasses are all non-referenceable.
+     */
+    private static boolean canHoldReference(Class<?> type, WriteOptions writeOptions) {
+        if (type.isPrimitive() || type == String.class ||
+                Number.class.isAssignableFrom(type) || Date.class.isAssignableFrom(type)) {
+            return false;
+        }
+        return !Modifier.isFinal(type.getModifiers()) || !writeOptions.isNonReferenceableClass(type);
+    }
+
+    /**
+     * Count one more write of the class.
+     * @return compiled FieldWriters (one per Accessor, in the same order), or null while the class has not
+     * been written often enough to be compiled.
+     */
+    FieldWriter[] getFieldWriters() {
+        FieldWriter[] compiled = fieldWriters;
+        if (compiled != null || !compilable) {
+            return compiled;
+        }
+        if (++writes < threshold) {
+            return null;
+        }
+        compiled = compile();
+        fieldWriters = compiled;
+        return compiled;
+    }
+
+    private FieldWriter[] compile() {
+        final FieldWriter[] compiled = new FieldWriter[accessors.size()];
+        for (int i = 0; i < compiled.length; i++) {
+            compiled[i] = compile(accessors.get(i), fieldNames[i]);
+        }
+        return compiled;
+    }
+
+    private FieldWriter compile(final Accessor accessor, final FieldName fieldName) {
+        final Class<?> type = accessor.getFieldType();
+
+        // Primitive getter methods can throw (written as null by the general path), fields cannot.
+        if (type.isPrimitive() && !accessor.isMethod()) {
+            if (type == int.class || type == short.class || type == byte.class) {
+                if (isStockWriter(type == int.class ? Integer.class : type == short.class ? Short.class : Byte.class, Writers.PrimitiveValueWriter.class)) {
+                    return (writer, out, obj, first) -> {
+                        fieldName.write(writer, out, first);
+                        JsonWriter.writeLong(out, accessor.retrieveLong(obj));
+                        return false;
+                    };
+                }
+            } else if (type == long.class) {
+                if (!writeOptions.isWriteLongsAsStrings() && isStockWriter(Long.class, LongWriter.class)) {
+                    return (writer, out, obj, first) -> {
+                        fieldName.write(writer, out, first);
+                        JsonWriter.writeLong(out, accessor.retrieveLong(obj));
+                        return false;
+                    };
+                }
+            } else if (type == double.class) {
+                if (isStockWriter(Double.class, Writers.DoubleWriter.class)) {
+                    final boolean allowNanAndInfinity = writeOptions.isAllowNanAndInfinity();
+                    return (writer, out, obj, first) -> {
+                        fieldName.write(writer, out, first);
+                        double d = accessor.retrieveDouble(obj);
+                        if (!allowNanAndInfinity && (Double.isNaN(d) || Double.isInfinite(d))) {
+                            out.write("null");
+                        } else {
+                            JsonWriter.writeDouble(out, d);
+                        }
+                        return false;
+                    };
+                }
+            } else if (type == float.class) {
+                if (isStockWriter(Float.class, Writers.FloatWriter.class)) {
+                    final boolean allowNanAndInfinity = writeOptions.isAllowNanAndInfinity();
+                    return (writer, out, obj, first) -> {
+                        fieldName.write(writer, out, first);
+                        float f = (float) accessor.retrieveDouble(obj);
+                        if (!allowNanAndInfinity && (Float.isNaN(f) || Float.isInfinite(f))) {
+                            out.write("null");
+                        } else {
+                            JsonWriter.writeFloat(out, f);
+                        }
+                        return false;
+                    };
+                }
+            } else if (type == boolean.class) {
+                if (isStockWriter(Boolean.class, Writers.PrimitiveValueWriter.class)) {
+                    return (writer, out, obj, first) -> {
+                        fieldName.write(writer, out, first);
+                        out.write(accessor.retrieveBoolean(obj) ? "true" : "false");
+                        return false;
+                    };
+                }
+            }
+        } else if (type == String.class && isStockWriter(String.class, Writers.JsonStringWriter.class)) {
+            final boolean skipNullFields = this.skipNullFields;
+            return (writer, out, obj, first) -> {
+                final Object value = accessor.retrieve(obj);
+                if (value == null) {
+                    if (skipNullFields) {
+                        return first;
+                    }
+                    fieldName.write(writer, out, first);
+                    out.write("null");
+                } else {
+                    fieldName.write(writer, out, first);
+                    JsonWriter.writeJsonUtf8String(out, (String) value, writeOptions);
+                }
+                return false;
+            };
+        }
+
+        final Boolean forceType = forceTypeFor(type);
+        return (writer, out, obj, first) -> writer.writePlannedField(obj, first, fieldName, accessor, forceType);
+    }
+
+    /**
+     * @return whether a value of a field with the passed in declared type needs its @type written, when that
+     * does not depend on the value: for primitive types (whose values are always the wrapper) and final
+     * non-array types (whose values are always exactly that class).  null when it depends on the value.
+     */
+    private Boolean forceTypeFor(Class<?> declaredType) {
+        final Class<?> valueClass;
+        if (declaredType.isPrimitive()) {
+            valueClass = ClassUtilities.toPrimitiveWrapperClass(declaredType);
+        } else if (Modifier.isFinal(declaredType.getModifiers()) && !declaredType.isArray()) {
+            valueClass = declaredType;
+        } else {
+            valueClass = null;
+        }
+        return valueClass == null ? null : JsonWriter.isForceType(valueClass, declaredType, writeOptions);
+    }
+
+    /**
+     * @return true if values of the passed in class are written by exactly the stock json-io writer, so that
+     * writing them directly produces the same output.
+     */
+    private boolean isStockWriter(Class<?> valueClass, Class<?> stockWriterClass) {
+        if (writeOptions.isNotCustomWrittenClass(valueClass)) {
+            return false;
+        }
+        JsonWriter.JsonClassWriter writer = writeOptions.getCustomWriter(valueClass);
+        return writer != null && writer.getClass() == stockWriterClass;
+    }
+
+    /**
+     * A field name, UTF-8 encoded with its quotes and colon ("name":), and with the comma before it (,"name":)
+     * for compact output, so that it is written with one copy instead of being encoded for every object.
+     */
+    static final class FieldName {
+        private final String text;          // "name":
+        private final byte[] bytes;         // "name":
+        private final byte[] separated;     // ,"name":
+        private final boolean ascii;
+        private final boolean prettyPrint;
+
+        FieldName(String fieldName, boolean prettyPrint) {
+            this.prettyPrint = prettyPrint;
+            this.text = '"' + fieldName + "\":";
+            this.bytes = text.getBytes(StandardCharsets.UTF_8);
+            this.separated = (',' + text).getBytes(StandardCharsets.UTF_8);
+            this.ascii = bytes.length == text.length();
+        }
+
+        /**
+         * Write the name, preceded by the separator (a comma, and a new line when pretty printing) unless it is
+         * the first field written.
+         */
+        void write(JsonWriter writer, Writer out, boolean first) throws IOException {
+            if (out instanceof Utf8Writer) {
+                final Utf8Writer utf8 = (Utf8Writer) out;
+                if (first) {
+                    utf8.writeUtf8(bytes, bytes.length, ascii);
+                } else if (!prettyPrint) {
+                    utf8.writeUtf8(separated, separated.length, ascii);
+                } else {
+                    utf8.write(',');
+                    writer.newLine();
+                    utf8.writeUtf8(bytes, bytes.length, ascii);
+                }
+                return;
+            }
+            if (!first) {
+                out.write(',');
+                writer.newLine();
+            }
+            out.write(text);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.cedarsoftware.io;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Service-provider interface for supplying custom writers, readers, and class factories to json-io without
+ * calling the addPermanent*() APIs by hand.  Implementations are discovered with java.util.ServiceLoader (list
+ * the implementation class in META-INF/services/com.cedarsoftware.io.CodecProvider, or 'provides' it in a
+ * module-info) when ReadOptionsBuilder and WriteOptionsBuilder are first loaded, and their entries are added
+ * as permanent (JVM lifetime) settings, after json-io's own defaults, so a provider can replace a default.
+ * Providers in a ClassLoader that json-io cannot see at that point can be added later with
+ * addPermanentCodecProvider() or loadPermanentCodecProviders(ClassLoader) on both builders.
+ * <br><br>
+ * This is the registration point for codecs generated at build time (for example, by an annotation processor)
+ * for hot classes: a generated JsonClassWriter/ClassFactory pair avoids the reflective field scan for that class.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+public interface CodecProvider {
+    /**
+     * @return Map of Class to the JsonClassWriter that writes it.  Added with
+     * WriteOptionsBuilder.addPermanentWriter().
+     */
+    default Map<Class<?>, JsonWriter.JsonClassWriter> getWriters() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * @return Map of Class to the JsonClassReader that reads it.  Added with
+     * ReadOptionsBuilder.addPermanentReader().
+     */
+    default Map<Class<?>, JsonReader.JsonClassReader> getReaders() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * @return Map of Class to the ClassFactory that instantiates (and loads) it.  Added with
+     * ReadOptionsBuilder.addPermanentClassFactory().
+     */
+    default Map<Class<?>, JsonReader.ClassFactory> getClassFactories() {
+        return Collections.emptyMap();
+    }
+}
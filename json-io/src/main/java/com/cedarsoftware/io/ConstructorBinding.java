@@ -0,0 +1,257 @@
+package com.cedarsoftware.io;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.cedarsoftware.io.reflect.Injector;
+import com.cedarsoftware.util.convert.Convert;
+import com.cedarsoftware.util.convert.Converter;
+
+import static com.cedarsoftware.io.JsonValue.ITEMS;
+
+/**
+ * Constructor-binding plan for a class that has no no-arg constructor (typically an immutable value class).
+ * The plan, found once per class, maps JSON field names to the parameters of one constructor: by parameter
+ * name when the class was compiled with -parameters, otherwise by matching the parameter types, in order, to
+ * the types of the fields the class declares.
+ * <br><br>
+ * Each instance is then created with a single constructor call, passing the JSON values (converted through the
+ * cached ReadOptions conversions) instead of default values.  When every JSON field was bound, and the
+ * constructor stored each bound value in its field unchanged, the object is complete and is marked finished,
+ * so the Resolver does not walk its fields again.  Otherwise, the fields are assigned as usual afterward.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+final class ConstructorBinding {
+    private static final MethodType FIELD_GETTER = MethodType.methodType(Object.class, Object.class);
+
+    private final String[] names;
+    private final Class<?>[] types;
+    private final MethodHandle constructor;     // (Object[])Object
+    private final MethodHandle[] getters;       // (Object)Object, read back the bound fields
+
+    private ConstructorBinding(String[] names, Class<?>[] types, MethodHandle constructor, MethodHandle[] getters) {
+        this.names = names;
+        this.types = types;
+        this.constructor = constructor;
+        this.getters = getters;
+    }
+
+    /**
+     * @return ConstructorBinding for the passed in class, or null if the class has a no-arg constructor, or none
+     * of its constructors can be bound to its fields.
+     */
+    static ConstructorBinding create(Class<?> c) {
+        if (c.isInterface() || c.isArray() || c.isPrimitive() || c.isEnum() || Modifier.isAbstract(c.getModifiers()) ||
+                (c.getEnclosingClass() != null && !Modifier.isStatic(c.getModifiers())) ||
+                Map.class.isAssignableFrom(c) || Collection.class.isAssignableFrom(c)) {
+            return null;
+        }
+
+        final Constructor<?>[] constructors = c.getDeclaredConstructors();
+        for (Constructor<?> constructor : constructors) {
+            if (constructor.getParameterCount() == 0) {
+                return null;
+            }
+        }
+
+        final Map<String, Field> fields = new LinkedHashMap<>();
+        for (Field field : c.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                fields.put(field.getName(), field);
+            }
+        }
+
+        // Prefer the constructor that binds the most fields
+        Constructor<?>[] ordered = Arrays.copyOf(constructors, constructors.length);
+        Arrays.sort(ordered, Comparator.comparingInt(Constructor<?>::getParameterCount).reversed());
+
+        for (Constructor<?> constructor : ordered) {
+            if (constructor.isSynthetic()) {
+                continue;
+            }
+            List<Field> bound = bind(constructor, fields);
+            if (bound != null) {
+                ConstructorBinding binding = create(constructor, bound);
+                if (binding != null) {
+                    return binding;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the fields bound to the constructor's parameters (in parameter order), or null if a parameter
+     * has no field of exactly the same type.
+     */
+    private static List<Field> bind(Constructor<?> constructor, Map<String, Field> fields) {
+        final Parameter[] parameters = constructor.getParameters();
+        final List<Field> bound = new ArrayList<>(parameters.length);
+
+        boolean namesPresent = true;
+        for (Parameter parameter : parameters) {
+            namesPresent &= parameter.isNamePresent();
+        }
+
+        if (namesPresent) {     // compiled with -parameters (or a record)
+            for (Parameter parameter : parameters) {
+                Field field = fields.get(parameter.getName());
+                if (field == null || field.getType() != parameter.getType()) {
+                    return null;
+                }
+                bound.add(field);
+            }
+            return bound;
+        }
+
+        // No names: the constructor must take exactly the declared fields' types, in declaration order.
+        if (fields.size() != parameters.length) {
+            return null;
+        }
+        int i = 0;
+        for (Field field : fields.values()) {
+            if (field.getType() != parameters[i++].getType()) {
+                return null;
+            }
+            bound.add(field);
+        }
+        return bound;
+    }
+
+    private static ConstructorBinding create(Constructor<?> constructor, List<Field> fields) {
+        final int count = fields.size();
+        final String[] names = new String[count];
+        final Class<?>[] types = new Class<?>[count];
+        final MethodHandle[] getters = new MethodHandle[count];
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        try {
+            MetaUtils.trySetAccessible(constructor);
+            MethodHandle handle = lookup.unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, count)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+
+            for (int i = 0; i < count; i++) {
+                Field field = fields.get(i);
+                MetaUtils.trySetAccessible(field);
+                names[i] = field.getName();
+                types[i] = field.getType();
+                getters[i] = lookup.unreflectGetter(field).asType(FIELD_GETTER);
+            }
+            return new ConstructorBinding(names, types, handle, getters);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Create the instance for the passed in JsonObject with the bound constructor.  The created instance is set as
+     * the target of the JsonObject, and the JsonObject is marked finished if the instance is complete.
+     * @return the instance, or null if no JSON value could be bound or the constructor failed, in which case the
+     * caller instantiates the class the regular way.
+     */
+    Object newInstance(Resolver resolver, JsonObject jsonObj) {
+        final ReadOptions readOptions = resolver.getReadOptions();
+        final Class<?> c = jsonObj.getJavaType();
+        if (readOptions.getCustomReader(c) != null) {
+            return null;
+        }
+
+        final Map<String, Injector> injectors = readOptions.getDeepInjectorMap(c);
+        final Converter converter = resolver.getConverter();
+        final Object[] args = new Object[names.length];
+        int bound = 0;
+
+        for (int i = 0; i < names.length; i++) {
+            final String name = names[i];
+            final Class<?> type = types[i];
+            final Injector injector = injectors.get(name);
+            boolean isBound = false;
+            Object value = null;
+
+            if (injector != null && injector.getType() == type && jsonObj.containsKey(name)) {
+                final Object raw = jsonObj.get(name);
+                if (raw == null) {
+                    isBound = true;
+                } else if (!(raw instanceof JsonObject) && !raw.getClass().isArray() &&
+                        !(raw instanceof String && type != String.class && ((String) raw).trim().isEmpty())) {
+                    Convert<?> conversion = readOptions.getConversion(raw.getClass(), type);
+                    try {
+                        if (conversion != null) {
+                            value = conversion.convert(raw, converter);
+                            isBound = true;
+                        } else if (type.isInstance(raw)) {
+                            value = raw;
+                            isBound = true;
+                        }
+                    } catch (Exception ignored) {
+                        // Leave it to field assignment, which reports the problem
+                    }
+                }
+            }
+
+            if (isBound) {
+                bound++;
+            }
+            args[i] = value == null && type.isPrimitive() ? converter.convert(null, type) : value;
+        }
+
+        if (bound == 0) {
+            return null;
+        }
+
+        final Object target;
+        try {
+            target = (Object) constructor.invokeExact(args);
+        } catch (ThreadDeath td) {
+            throw td;
+        } catch (Throwable t) {
+            return null;
+        }
+
+        boolean complete = bound == names.length && !jsonObj.containsKey(ITEMS) && jsonObj.size() == bound;
+        for (int i = 0; complete && i < getters.length; i++) {
+            try {
+                complete = Objects.equals((Object) getters[i].invokeExact(target), args[i]);
+            } catch (ThreadDeath td) {
+                throw td;
+            } catch (Throwable t) {
+                complete = false;
+            }
+        }
+
+        if (complete) {
+            return jsonObj.setFinishedTarget(target, true);
+        }
+        jsonObj.setTarget(target);
+        return target;
+    }
+}
@@ -0,0 +1,293 @@
+package com.cedarsoftware.io;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Identity map from object to long id, used by JsonWriter to trace references.  Keys are compared with ==
+ * and hashed with System.identityHashCode(), like IdentityHashMap, but the ids are stored in a long[] parallel
+ * to an open-addressing (linear probing) key table, so tracing does not box a Long per object or allocate an
+ * entry per mapping.  clear() keeps the table, so a JsonWriter writing again starts out sized for the graph
+ * it wrote last.
+ * <br><br>
+ * JsonWriter uses the primitive methods (getId(), putId()).  The Map methods are there for WriterContext and
+ * subclasses, and box on the way out.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+final class IdentityIdMap extends AbstractMap<Object, Long> {
+    private static final Object NULL_KEY = new Object();    // stands in for a null key
+    private static final long NULL_VALUE = Long.MIN_VALUE;  // stands in for a null value (Map API only)
+    private static final int MIN_CAPACITY = 64;
+    private Object[] keys;
+    private long[] values;
+    private int size;
+    private int resizeAt;
+
+    IdentityIdMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * @param expectedSize number of mappings the map should hold before growing.
+     */
+    IdentityIdMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity / 2 < expectedSize && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new long[capacity];
+        resizeAt = capacity / 2;    // load factor 0.5 keeps linear probe runs short
+    }
+
+    private static int index(Object key, int mask) {
+        final int h = System.identityHashCode(key) * 0x9E3779B9;   // spread the low bits
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * @return slot holding the passed in key, or the (empty) slot where it would be inserted, as -(slot + 1).
+     */
+    private int find(Object key) {
+        final Object[] keys = this.keys;
+        final int mask = keys.length - 1;
+        int i = index(key, mask);
+        Object k;
+        while ((k = keys[i]) != null) {
+            if (k == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -(i + 1);
+    }
+
+    /**
+     * @return id mapped to the passed in object, or absent if the object is not in the map.
+     */
+    long getId(Object key, long absent) {
+        final Object[] keys = this.keys;
+        final int mask = keys.length - 1;
+        final Object k0 = key == null ? NULL_KEY : key;
+        int i = index(k0, mask);
+        Object k;
+        while ((k = keys[i]) != null) {
+            if (k == k0) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return absent;
+    }
+
+    /**
+     * Map the passed in object to the passed in id, replacing any id it had.
+     */
+    void putId(Object key, long id) {
+        final Object k0 = key == null ? NULL_KEY : key;
+        int i = find(k0);
+        if (i >= 0) {
+            values[i] = id;
+            return;
+        }
+        if (size >= resizeAt) {
+            resize();
+            i = find(k0);
+        }
+        i = -(i + 1);
+        keys[i] = k0;
+        values[i] = id;
+        size++;
+    }
+
+    /**
+     * Add every mapping of the passed in map to this one, replacing the ids of keys already present.
+     */
+    void putAllIds(IdentityIdMap other) {
+        final Object[] keys = other.keys;
+        final long[] values = other.values;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                putId(keys[i], values[i]);
+            }
+        }
+    }
+
+    private void resize() {
+        final Object[] oldKeys = keys;
+        final long[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        final Object[] keys = this.keys;
+        final int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            final Object k = oldKeys[j];
+            if (k != null) {
+                int i = index(k, mask);
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = k;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Remove the key in slot i, shifting later keys of its probe run back so that no lookup stops early.
+     */
+    private void deleteAt(int i) {
+        final Object[] keys = this.keys;
+        final int mask = keys.length - 1;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            final Object k = keys[j];
+            if (k == null) {
+                break;
+            }
+            final int ideal = index(k, mask);
+            // Move k back into the hole unless its home slot lies (cyclically) within (i, j].
+            if (j > i ? (ideal <= i || ideal > j) : (ideal <= i && ideal > j)) {
+                keys[i] = k;
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = null;
+        values[i] = 0;
+        size--;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key == null ? NULL_KEY : key) >= 0;
+    }
+
+    @Override
+    public Long get(Object key) {
+        final int i = find(key == null ? NULL_KEY : key);
+        return i < 0 ? null : boxed(values[i]);
+    }
+
+    @Override
+    public Long put(Object key, Long value) {
+        final Long previous = get(key);
+        putId(key, value == null ? NULL_VALUE : value);
+        return previous;
+    }
+
+    @Override
+    public Long remove(Object key) {
+        final int i = find(key == null ? NULL_KEY : key);
+        if (i < 0) {
+            return null;
+        }
+        final Long previous = boxed(values[i]);
+        deleteAt(i);
+        return previous;
+    }
+
+    /**
+     * Remove all mappings, keeping the table at its current capacity.
+     */
+    @Override
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, null);
+            size = 0;
+        }
+    }
+
+    /**
+     * Remove all mappings, shrinking the table back to the default capacity if it has grown past maxCapacity.
+     */
+    void clear(int maxCapacity) {
+        if (keys.length > maxCapacity) {
+            allocate(MIN_CAPACITY);
+            size = 0;
+        } else {
+            clear();
+        }
+    }
+
+    /**
+     * @return the number of slots in the table (not the number of mappings).
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    private static Long boxed(long value) {
+        return value == NULL_VALUE ? null : value;
+    }
+
+    @Override
+    public Set<Map.Entry<Object, Long>> entrySet() {
+        return new AbstractSet<Map.Entry<Object, Long>>() {
+            @Override
+            public Iterator<Map.Entry<Object, Long>> iterator() {
+                return new Iterator<Map.Entry<Object, Long>>() {
+                    private int next = advance(0);
+
+                    private int advance(int i) {
+                        final Object[] keys = IdentityIdMap.this.keys;
+                        while (i < keys.length && keys[i] == null) {
+                            i++;
+                        }
+                        return i;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    @Override
+                    public Map.Entry<Object, Long> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final int i = next;
+                        next = advance(i + 1);
+                        final Object key = keys[i];
+                        return new SimpleImmutableEntry<>(key == NULL_KEY ? null : key, boxed(values[i]));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
@@ -0,0 +1,455 @@
+package com.cedarsoftware.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneRules;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Hand-written ISO-8601 encoder and decoder for the date-time types json-io writes as strings.  Values are
+ * written digit by digit into a small char[] and handed to the Writer in one call, with output identical to
+ * the DateTimeFormatter json-io uses for the type (ISO_LOCAL_DATE, ISO_LOCAL_DATE_TIME, ISO_OFFSET_DATE_TIME,
+ * ISO_ZONED_DATE_TIME, ISO_INSTANT).  Strings are parsed by position, without a regex or formatter.
+ * <br><br>
+ * Only the fixed layouts are handled here, for years 0000 through 9999.  Every write method returns false,
+ * and every parse method returns null, for anything else, in which case the caller uses its general path
+ * (DateTimeFormatter on write, the Converter on read).
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+public final class Iso8601 {
+    private static final long MIN_SECOND = -62167219200L;   // 0000-01-01T00:00:00Z
+    private static final long MAX_SECOND = 253402300799L;   // 9999-12-31T23:59:59Z
+    private static final long GREGORIAN_SECOND = -12219292800L;   // 1582-10-15T00:00:00Z, java.util.Date's Julian cutover
+    private static final int MAX_LENGTH = 48;   // quoted date-time with 9 fraction digits and a +HH:MM:SS offset
+
+    private Iso8601() {
+    }
+
+    /**
+     * Write the passed in LocalDate as a quoted "yyyy-MM-dd" string.
+     * @return false (nothing written) if the year is outside 0000-9999.
+     */
+    public static boolean write(Writer out, LocalDate date) throws IOException {
+        final int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            return false;
+        }
+        final char[] buf = new char[12];
+        buf[0] = '"';
+        int pos = putDate(buf, 1, year, date.getMonthValue(), date.getDayOfMonth());
+        buf[pos++] = '"';
+        out.write(buf, 0, pos);
+        return true;
+    }
+
+    /**
+     * Write the passed in LocalDateTime as a quoted "yyyy-MM-ddTHH:mm:ss[.fraction]" string, the fraction
+     * without trailing zeros (ISO_LOCAL_DATE_TIME).
+     * @return false (nothing written) if the year is outside 0000-9999.
+     */
+    public static boolean write(Writer out, LocalDateTime dateTime) throws IOException {
+        final char[] buf = new char[MAX_LENGTH];
+        int pos = putLocalDateTime(buf, dateTime);
+        if (pos < 0) {
+            return false;
+        }
+        buf[pos++] = '"';
+        out.write(buf, 0, pos);
+        return true;
+    }
+
+    /**
+     * Write the passed in OffsetDateTime as a quoted "yyyy-MM-ddTHH:mm:ss[.fraction](Z|+HH:MM[:SS])" string
+     * (ISO_OFFSET_DATE_TIME).
+     * @return false (nothing written) if the year is outside 0000-9999.
+     */
+    public static boolean write(Writer out, OffsetDateTime dateTime) throws IOException {
+        final char[] buf = new char[MAX_LENGTH];
+        int pos = putLocalDateTime(buf, dateTime.toLocalDateTime());
+        if (pos < 0) {
+            return false;
+        }
+        pos = putString(buf, pos, dateTime.getOffset().getId());
+        buf[pos++] = '"';
+        out.write(buf, 0, pos);
+        return true;
+    }
+
+    /**
+     * Write the passed in ZonedDateTime as a quoted "yyyy-MM-ddTHH:mm:ss[.fraction](Z|+HH:MM[:SS])[[region]]"
+     * string (ISO_ZONED_DATE_TIME).  The region is only written when the zone is not a plain offset.
+     * @return false (nothing written) if the year is outside 0000-9999.
+     */
+    public static boolean write(Writer out, ZonedDateTime dateTime) throws IOException {
+        final char[] buf = new char[MAX_LENGTH];
+        int pos = putLocalDateTime(buf, dateTime.toLocalDateTime());
+        if (pos < 0) {
+            return false;
+        }
+        pos = putString(buf, pos, dateTime.getOffset().getId());
+        final ZoneId zone = dateTime.getZone();
+        if (zone instanceof ZoneOffset) {
+            buf[pos++] = '"';
+            out.write(buf, 0, pos);
+        } else {
+            buf[pos++] = '[';
+            out.write(buf, 0, pos);
+            out.write(zone.getId());
+            out.write("]\"");
+        }
+        return true;
+    }
+
+    /**
+     * Write the passed in Instant as a quoted "yyyy-MM-ddTHH:mm:ss[.SSS|.SSSSSS|.SSSSSSSSS]Z" string, the
+     * fraction in groups of three digits (ISO_INSTANT).
+     * @return false (nothing written) if the year is outside 0000-9999.
+     */
+    public static boolean write(Writer out, Instant instant) throws IOException {
+        final long seconds = instant.getEpochSecond();
+        if (seconds < MIN_SECOND || seconds > MAX_SECOND) {
+            return false;
+        }
+        final char[] buf = new char[MAX_LENGTH];
+        buf[0] = '"';
+        int pos = putDateTime(buf, 1, seconds);
+        final int nano = instant.getNano();
+        if (nano != 0) {
+            buf[pos++] = '.';
+            if (nano % 1000_000 == 0) {
+                pos = putDigits(buf, pos, nano / 1000_000, 3);
+            } else if (nano % 1000 == 0) {
+                pos = putDigits(buf, pos, nano / 1000, 6);
+            } else {
+                pos = putDigits(buf, pos, nano, 9);
+            }
+        }
+        buf[pos++] = 'Z';
+        buf[pos++] = '"';
+        out.write(buf, 0, pos);
+        return true;
+    }
+
+    /**
+     * Write the passed in java.util.Date, in the JVM's default time zone, as a quoted "yyyy-MM-dd" or
+     * "yyyy-MM-dd'T'HH:mm:ss" string, the same as a SimpleDateFormat with that pattern.
+     * @return false (nothing written) if the date is before the Gregorian cutover (where Date uses the Julian
+     * calendar) or after 9999.
+     */
+    static boolean write(Writer out, Date date, boolean withTime) throws IOException {
+        final long millis = date.getTime();
+        final long seconds = Math.floorDiv(millis + TimeZone.getDefault().getOffset(millis), 1000L);
+        if (seconds < GREGORIAN_SECOND || seconds > MAX_SECOND) {
+            return false;
+        }
+        final char[] buf = new char[24];
+        buf[0] = '"';
+        int pos = putDateTime(buf, 1, seconds);
+        if (!withTime) {
+            pos = 11;
+        }
+        buf[pos++] = '"';
+        out.write(buf, 0, pos);
+        return true;
+    }
+
+    /**
+     * @return LocalDate of a "yyyy-MM-dd" string, or null if the string is not exactly in that layout.
+     */
+    public static LocalDate parseLocalDate(String s) {
+        if (s.length() != 10 || !isDate(s)) {
+            return null;
+        }
+        try {
+            return LocalDate.of(digits(s, 0, 4), digits(s, 5, 2), digits(s, 8, 2));
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return LocalDateTime of a "yyyy-MM-ddTHH:mm[:ss[.fraction]]" string (no offset or zone), or null if the
+     * string is not exactly in that layout.
+     */
+    public static LocalDateTime parseLocalDateTime(String s) {
+        final int length = localDateTimeLength(s);
+        return length == s.length() ? toLocalDateTime(s, length) : null;
+    }
+
+    /**
+     * @return OffsetDateTime of a "yyyy-MM-ddTHH:mm[:ss[.fraction]](Z|+HH:MM[:SS])" string, or null if the
+     * string is not exactly in that layout.
+     */
+    public static OffsetDateTime parseOffsetDateTime(String s) {
+        final int length = localDateTimeLength(s);
+        if (length < 0) {
+            return null;
+        }
+        final ZoneOffset offset = parseOffset(s, length, s.length());
+        if (offset == null) {
+            return null;
+        }
+        final LocalDateTime dateTime = toLocalDateTime(s, length);
+        return dateTime == null ? null : OffsetDateTime.of(dateTime, offset);
+    }
+
+    /**
+     * @return ZonedDateTime of a "yyyy-MM-ddTHH:mm[:ss[.fraction]]Z" string, or of a string with an offset
+     * followed by a "[region]" when the offset is the region's only valid offset at that local time.  Null for
+     * anything else (including offsets without a region, and gap or overlap times).
+     */
+    public static ZonedDateTime parseZonedDateTime(String s) {
+        final int length = localDateTimeLength(s);
+        if (length < 0) {
+            return null;
+        }
+        final int end = s.length();
+        if (length == end - 1 && s.charAt(length) == 'Z') {
+            final LocalDateTime dateTime = toLocalDateTime(s, length);
+            return dateTime == null ? null : ZonedDateTime.of(dateTime, ZoneOffset.UTC);
+        }
+
+        final int bracket = s.indexOf('[', length);
+        if (bracket < 0 || s.charAt(end - 1) != ']') {
+            return null;
+        }
+        final ZoneOffset offset = parseOffset(s, length, bracket);
+        final LocalDateTime dateTime = offset == null ? null : toLocalDateTime(s, length);
+        if (dateTime == null) {
+            return null;
+        }
+        try {
+            final ZoneId zone = ZoneId.of(s.substring(bracket + 1, end - 1));
+            final ZoneRules rules = zone.getRules();
+            if (rules.getTransition(dateTime) != null || !rules.getOffset(dateTime).equals(offset)) {
+                return null;
+            }
+            return ZonedDateTime.of(dateTime, zone);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return Instant of a "yyyy-MM-ddTHH:mm[:ss[.fraction]](Z|+HH:MM[:SS])" string, or null if the string is
+     * not exactly in that layout.
+     */
+    public static Instant parseInstant(String s) {
+        final OffsetDateTime dateTime = parseOffsetDateTime(s);
+        return dateTime == null ? null : dateTime.toInstant();
+    }
+
+    /**
+     * @return Date of a "yyyy-MM-ddTHH:mm[:ss[.fraction]](Z|+HH:MM[:SS])" string (the fraction truncated to
+     * milliseconds), or null if the string is not exactly in that layout.
+     */
+    public static Date parseDate(String s) {
+        final Instant instant = parseInstant(s);
+        return instant == null ? null : new Date(instant.toEpochMilli());
+    }
+
+    /**
+     * @return the index just past the local date-time at the start of the string, or -1 if the string does not
+     * start with "yyyy-MM-ddTHH:mm[:ss[.fraction]]".
+     */
+    private static int localDateTimeLength(String s) {
+        final int length = s.length();
+        if (length < 16 || !isDate(s) || s.charAt(10) != 'T' || s.charAt(13) != ':' ||
+                digits(s, 11, 2) < 0 || digits(s, 14, 2) < 0) {
+            return -1;
+        }
+        if (length < 19 || s.charAt(16) != ':') {
+            return 16;
+        }
+        if (digits(s, 17, 2) < 0) {
+            return -1;
+        }
+        if (length == 19 || s.charAt(19) != '.') {
+            return 19;
+        }
+        int pos = 20;
+        while (pos < length && pos < 29 && isDigit(s.charAt(pos))) {
+            pos++;
+        }
+        return pos == 20 ? -1 : pos;
+    }
+
+    private static LocalDateTime toLocalDateTime(String s, int length) {
+        int second = 0;
+        int nano = 0;
+        if (length > 16) {
+            second = digits(s, 17, 2);
+            if (length > 20) {
+                nano = digits(s, 20, length - 20);
+                for (int i = length; i < 29; i++) {
+                    nano *= 10;
+                }
+            }
+        }
+        try {
+            return LocalDateTime.of(digits(s, 0, 4), digits(s, 5, 2), digits(s, 8, 2),
+                    digits(s, 11, 2), digits(s, 14, 2), second, nano);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the offset spanning s[from, to): "Z", "+HH:MM", or "+HH:MM:SS" (or '-'), otherwise null.
+     */
+    private static ZoneOffset parseOffset(String s, int from, int to) {
+        final int length = to - from;
+        if (length == 1) {
+            return s.charAt(from) == 'Z' ? ZoneOffset.UTC : null;
+        }
+        if (length != 6 && length != 9) {
+            return null;
+        }
+        final char sign = s.charAt(from);
+        if ((sign != '+' && sign != '-') || s.charAt(from + 3) != ':' || (length == 9 && s.charAt(from + 6) != ':')) {
+            return null;
+        }
+        final int hours = digits(s, from + 1, 2);
+        final int minutes = digits(s, from + 4, 2);
+        final int seconds = length == 9 ? digits(s, from + 7, 2) : 0;
+        if (hours < 0 || minutes < 0 || seconds < 0) {
+            return null;
+        }
+        try {
+            return sign == '+' ? ZoneOffset.ofHoursMinutesSeconds(hours, minutes, seconds) :
+                    ZoneOffset.ofHoursMinutesSeconds(-hours, -minutes, -seconds);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean isDate(String s) {
+        return s.charAt(4) == '-' && s.charAt(7) == '-' && digits(s, 0, 4) >= 0 && digits(s, 5, 2) >= 0 && digits(s, 8, 2) >= 0;
+    }
+
+    /**
+     * @return the value of the count digits starting at from, or -1 if any of them is not an ASCII digit.
+     */
+    private static int digits(String s, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            final char c = s.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Write the opening quote, date, 'T', and time (ISO_LOCAL_DATE_TIME) into buf.
+     * @return the position after the time, or -1 if the year is outside 0000-9999.
+     */
+    private static int putLocalDateTime(char[] buf, LocalDateTime dateTime) {
+        final int year = dateTime.getYear();
+        if (year < 0 || year > 9999) {
+            return -1;
+        }
+        buf[0] = '"';
+        int pos = putDate(buf, 1, year, dateTime.getMonthValue(), dateTime.getDayOfMonth());
+        buf[pos++] = 'T';
+        pos = putTime(buf, pos, dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond());
+        int nano = dateTime.getNano();
+        if (nano != 0) {
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            buf[pos++] = '.';
+            pos = putDigits(buf, pos, nano, digits);
+        }
+        return pos;
+    }
+
+    /**
+     * Write the date, 'T', and HH:mm:ss of the passed in (local) epoch second into buf.
+     * @return the position after the seconds.
+     */
+    private static int putDateTime(char[] buf, int pos, long epochSecond) {
+        final long epochDay = Math.floorDiv(epochSecond, 86400L);
+        final int secondOfDay = (int) (epochSecond - epochDay * 86400L);
+
+        // Civil date from days since the epoch, in 400-year eras starting on March 1st.
+        final long z = epochDay + 719468;
+        final long era = Math.floorDiv(z, 146097);
+        final long dayOfEra = z - era * 146097;
+        final long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final long mp = (5 * dayOfYear + 2) / 153;
+        final int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        final int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        final int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+        pos = putDate(buf, pos, year, month, day);
+        buf[pos++] = 'T';
+        return putTime(buf, pos, secondOfDay / 3600, (secondOfDay / 60) % 60, secondOfDay % 60);
+    }
+
+    private static int putDate(char[] buf, int pos, int year, int month, int day) {
+        pos = putDigits(buf, pos, year, 4);
+        buf[pos++] = '-';
+        pos = putDigits(buf, pos, month, 2);
+        buf[pos++] = '-';
+        return putDigits(buf, pos, day, 2);
+    }
+
+    private static int putTime(char[] buf, int pos, int hour, int minute, int second) {
+        pos = putDigits(buf, pos, hour, 2);
+        buf[pos++] = ':';
+        pos = putDigits(buf, pos, minute, 2);
+        buf[pos++] = ':';
+        return putDigits(buf, pos, second, 2);
+    }
+
+    /**
+     * Write the non-negative value as exactly count digits (zero padded on the left).
+     */
+    private static int putDigits(char[] buf, int pos, int value, int count) {
+        for (int i = pos + count - 1; i >= pos; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + count;
+    }
+
+    private static int putString(char[] buf, int pos, String s) {
+        final int length = s.length();
+        s.getChars(0, length, buf, pos);
+        return pos + length;
+    }
+}
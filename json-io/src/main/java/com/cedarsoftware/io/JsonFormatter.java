@@ -0,0 +1,418 @@
+package com.cedarsoftware.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Re-indents (pretty-prints) or minifies JSON token by token, in one streaming pass, without building any
+ * objects.  Strings, numbers and literals are copied exactly as they appear in the input (escapes, precision, and
+ * @id / @ref included), so formatting never changes the content.  Memory use is constant apart from one entry
+ * per open array / object, which is tracked on an explicit stack, so deeply nested input does not recurse.
+ * <br><br>
+ * The pretty-printed layout is the one JsonWriter writes with prettyPrint (two space indent, one member or element
+ * per line, empty arrays and objects as [] and {}, an @ref object on one line), except that JsonWriter keeps the
+ * elements of a primitive array on one line, which cannot be told apart from other arrays here.  When allowed,
+ * several root values in a row (NDJSON) are written one per line; otherwise they are an error.  The input structure is validated (brackets, commas, colons,
+ * keys); scalar tokens are checked only loosely, as a formatter should not reject what the reader accepts (NaN,
+ * Infinity).
+ * <br><br>
+ * This class is not thread-safe; use one instance per input.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+final class JsonFormatter {
+    private static final String NEW_LINE = System.lineSeparator();
+    private static final int BUFFER_SIZE = 8192;
+    private static final boolean[] TOKEN_END = new boolean[128];  // chars that end a number or literal
+    private final Reader in;
+    private final Writer out;
+    private final boolean pretty;
+    private final boolean multipleRoots;
+    private final char[] buf = new char[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private long consumed;          // chars consumed before the current buffer, for error messages
+    private boolean[] objects = new boolean[32];    // open containers, true for an object, false for an array
+    private int depth;
+    private int inlineDepth = -1;   // depth of the open {"@ref":n} object, written on one line
+    private final StringBuilder key = new StringBuilder();
+    private final StringBuilder token = new StringBuilder();
+
+    static {
+        for (char c : new char[] {' ', '\t', '\n', '\r', ',', ':', '[', ']', '{', '}', '"'}) {
+            TOKEN_END[c] = true;
+        }
+    }
+
+    /**
+     * @param in Reader supplying the JSON.  It is read to the end, but not closed.
+     * @param out Writer to which the formatted JSON is written.  It is not flushed or closed.
+     * @param pretty true to pretty-print (multi-line, indented), false to minify (no whitespace at all).
+     * @param multipleRoots true to accept several root values in a row (NDJSON), false to accept exactly one.
+     */
+    JsonFormatter(Reader in, Writer out, boolean pretty, boolean multipleRoots) {
+        this.in = in;
+        this.out = out;
+        this.pretty = pretty;
+        this.multipleRoots = multipleRoots;
+    }
+
+    /**
+     * Format all of the input.
+     * @throws JsonIoException if the input is not well-formed JSON.
+     */
+    void format() throws IOException {
+        int c = skipWhitespace();
+        if (c == -1) {
+            throw error("No JSON found");
+        }
+        while (true) {
+            formatValue(c);
+            c = skipWhitespace();
+            if (c == -1) {
+                return;
+            }
+            if (!multipleRoots) {
+                throw error("Unexpected '" + (char) c + "' after the end of the JSON");
+            }
+            out.write(pretty ? NEW_LINE : "\n");   // another root value (NDJSON)
+        }
+    }
+
+    /**
+     * Format one root value, starting with its first char.
+     */
+    private void formatValue(int c) throws IOException {
+        while (true) {
+            // Write a value.  Opening a non-empty container continues with its first element instead.
+            boolean valueDone = true;
+            if (c == '{' || c == '[') {
+                final boolean object = c == '{';
+                final int close = object ? '}' : ']';
+                out.write(c);
+                c = skipWhitespace();
+                if (c == close) {
+                    out.write(c);
+                } else {
+                    push(object);
+                    if (object) {
+                        readKey(c);
+                        if (isRef(key)) {
+                            inlineDepth = depth;
+                        } else {
+                            newLine();
+                        }
+                        writeKey();
+                        c = skipWhitespace();
+                    } else {
+                        newLine();
+                    }
+                    valueDone = false;
+                }
+            } else if (c == '"') {
+                copyString();
+            } else if (c == ',' || c == ':' || c == ']' || c == '}' || c == -1) {
+                throw error(c == -1 ? "EOF reached while expecting a value" : "Expected a value, instead found '" + (char) c + "'");
+            } else {
+                copyToken(c);
+            }
+            if (!valueDone) {
+                continue;
+            }
+
+            // After a value: a comma, or closing the container(s) it ends.
+            while (true) {
+                if (depth == 0) {
+                    return;
+                }
+                c = skipWhitespace();
+                final boolean object = objects[depth - 1];
+                if (c == ',') {
+                    if (depth == inlineDepth) {
+                        inlineDepth = -1;
+                    }
+                    out.write(',');
+                    newLine();
+                    c = skipWhitespace();
+                    if (object) {
+                        readKey(c);
+                        writeKey();
+                        c = skipWhitespace();
+                    }
+                    break;
+                }
+                if (c == (object ? '}' : ']')) {
+                    if (depth == inlineDepth) {
+                        inlineDepth = -1;
+                        depth--;
+                    } else {
+                        depth--;
+                        newLine();
+                    }
+                    out.write(c);
+                    continue;
+                }
+                throw error(c == -1 ? "EOF reached before the end of the " + (object ? "object" : "array")
+                        : "Expected ',' or '" + (object ? '}' : ']') + "', instead found '" + (char) c + "'");
+            }
+        }
+    }
+
+    /**
+     * Read an object member's key (as written, escapes included) into key, and the colon after it.  Keys are
+     * buffered, unlike string values, so that an @ref object can be recognized before its layout is chosen.
+     */
+    private void readKey(int c) throws IOException {
+        if (c != '"') {
+            throw error(c == -1 ? "EOF reached while expecting a field name" : "Expected '\"' to start a field name, instead found '" + (char) c + "'");
+        }
+        final StringBuilder key = this.key;
+        key.setLength(0);
+        while ((c = read()) != '"') {
+            if (c == -1) {
+                throw error("EOF reached before the end of a field name");
+            }
+            if (c < 0x20) {
+                throw error("Control character 0x" + Integer.toHexString(c) + " must be escaped in a field name");
+            }
+            key.append((char) c);
+            if (c == '\\') {
+                copyEscape(key, "a field name");
+            }
+        }
+        c = skipWhitespace();
+        if (c != ':') {
+            throw error(c == -1 ? "EOF reached while expecting ':'" : "Expected ':' after a field name, instead found '" + (char) c + "'");
+        }
+    }
+
+    private void writeKey() throws IOException {
+        out.write('"');
+        out.append(key);
+        out.write("\":");
+    }
+
+    private static boolean isRef(CharSequence key) {
+        final int len = key.length();
+        return (len == 4 || len == 2) && key.charAt(0) == '@' && key.charAt(1) == 'r' && (len == 2 || "@ref".contentEquals(key));
+    }
+
+    private void push(boolean object) {
+        if (depth == objects.length) {
+            objects = Arrays.copyOf(objects, depth << 1);
+        }
+        objects[depth++] = object;
+    }
+
+    private void newLine() throws IOException {
+        if (pretty) {
+            out.write(NEW_LINE);
+            for (int i = 0; i < depth; i++) {
+                out.write("  ");
+            }
+        }
+    }
+
+    /**
+     * Copy a string, whose opening quote has been read, verbatim (escapes included), in runs.
+     */
+    private void copyString() throws IOException {
+        out.write('"');
+        while (true) {
+            if (pos >= limit && !fill()) {
+                throw error("EOF reached before the end of a string");
+            }
+            final char[] buf = this.buf;
+            final int start = pos;
+            int i = start;
+            char c = 0;
+            while (i < limit && (c = buf[i]) != '"' && c != '\\' && c >= 0x20) {
+                i++;
+            }
+            if (i == limit) {
+                out.write(buf, start, i - start);
+                pos = i;
+                continue;
+            }
+            if (c < 0x20) {
+                pos = i;
+                throw error("Control character 0x" + Integer.toHexString(c) + " must be escaped in a string");
+            }
+            out.write(buf, start, i + 1 - start);
+            pos = i + 1;
+            if (c == '"') {
+                return;
+            }
+            // Backslash: copy the escaped char too, so that an escaped quote does not end the string.
+            copyEscape(out, "a string");
+        }
+    }
+
+    /**
+     * Copy what follows a backslash (the escaped char, and the 4 hex digits of a unicode escape), checking that it is
+     * a valid JSON escape.
+     * @param what "a string" or "a field name", for error messages.
+     */
+    private void copyEscape(Appendable dst, String what) throws IOException {
+        final int c = read();
+        if (c == -1) {
+            throw error("EOF reached before the end of " + what);
+        }
+        if ("\"\\/bfnrtu".indexOf(c) < 0) {
+            throw error("Invalid escape '\\" + (char) c + "' in " + what);
+        }
+        dst.append((char) c);
+        if (c == 'u') {
+            for (int i = 0; i < 4; i++) {
+                final int h = read();
+                if (h == -1) {
+                    throw error("EOF reached before the end of " + what);
+                }
+                if (Character.digit(h, 16) < 0) {
+                    throw error("Invalid \\u escape in " + what + ", '" + (char) h + "' is not a hex digit");
+                }
+                dst.append((char) h);
+            }
+        }
+    }
+
+    /**
+     * Copy a number or literal (true, false, null, and the NaN, Infinity and -Infinity that JsonWriter writes when
+     * allowed), starting with the passed in char.  Numbers must follow the JSON number grammar.
+     */
+    private void copyToken(int first) throws IOException {
+        if (!(first == '-' || (first >= '0' && first <= '9') || Character.isLetter(first))) {
+            throw error("Unexpected character '" + (char) first + "'");
+        }
+        final StringBuilder token = this.token;
+        token.setLength(0);
+        token.append((char) first);
+        while (true) {
+            if (pos >= limit && !fill()) {
+                break;
+            }
+            final char[] buf = this.buf;
+            final int start = pos;
+            int i = start;
+            char c;
+            while (i < limit && ((c = buf[i]) >= 128 || !TOKEN_END[c])) {
+                i++;
+            }
+            token.append(buf, start, i - start);
+            pos = i;
+            if (i < limit) {
+                break;
+            }
+        }
+        if (first == '-' || (first >= '0' && first <= '9')) {
+            if (!isNumber(token) && !"-Infinity".contentEquals(token)) {
+                throw error("Invalid number '" + token + "'");
+            }
+        } else if (!isLiteral(token)) {
+            throw error("Invalid literal '" + token + "', expected true, false, or null");
+        }
+        out.append(token);
+    }
+
+    private static boolean isLiteral(CharSequence token) {
+        return "true".contentEquals(token) || "false".contentEquals(token) || "null".contentEquals(token)
+                || "NaN".contentEquals(token) || "Infinity".contentEquals(token);
+    }
+
+    /**
+     * @return true if the passed in token is a JSON number: -? (0 | [1-9][0-9]*) (. [0-9]+)? ([eE] [+-]? [0-9]+)?
+     */
+    private static boolean isNumber(CharSequence token) {
+        final int len = token.length();
+        int i = 0;
+        if (token.charAt(i) == '-') {
+            i++;
+        }
+        if (i < len && token.charAt(i) == '0') {
+            i++;
+        } else {
+            final int digits = i;
+            i = skipDigits(token, i);
+            if (i == digits) {
+                return false;
+            }
+        }
+        if (i < len && token.charAt(i) == '.') {
+            final int digits = ++i;
+            i = skipDigits(token, i);
+            if (i == digits) {
+                return false;
+            }
+        }
+        if (i < len && (token.charAt(i) == 'e' || token.charAt(i) == 'E')) {
+            i++;
+            if (i < len && (token.charAt(i) == '+' || token.charAt(i) == '-')) {
+                i++;
+            }
+            final int digits = i;
+            i = skipDigits(token, i);
+            if (i == digits) {
+                return false;
+            }
+        }
+        return i == len;
+    }
+
+    private static int skipDigits(CharSequence token, int i) {
+        final int len = token.length();
+        while (i < len && token.charAt(i) >= '0' && token.charAt(i) <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c == ' ' || c == '\n' || c == '\r' || c == '\t');
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (pos >= limit && !fill()) {
+            return -1;
+        }
+        return buf[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        consumed += limit;
+        pos = 0;
+        limit = 0;
+        int n;
+        do {
+            n = in.read(buf, 0, buf.length);
+        } while (n == 0);
+        if (n < 0) {
+            return false;
+        }
+        limit = n;
+        return true;
+    }
+
+    private JsonIoException error(String message) {
+        return new JsonIoException(message + " (at offset " + (consumed + pos) + ")");
+    }
+}
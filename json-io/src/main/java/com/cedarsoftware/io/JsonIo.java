@@ -1,20 +1,27 @@
 package com.cedarsoftware.io;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Stream;
 
 import com.cedarsoftware.util.ClassUtilities;
 import com.cedarsoftware.util.Convention;
 import com.cedarsoftware.util.FastByteArrayInputStream;
-import com.cedarsoftware.util.FastByteArrayOutputStream;
 import com.cedarsoftware.util.convert.Converter;
 import com.cedarsoftware.util.convert.DefaultConverterOptions;
 
@@ -72,12 +79,69 @@ import com.cedarsoftware.util.convert.DefaultConverterOptions;
  */
 public class JsonIo {
 
+    // JsonWriters (with their output buffers) reused by toJson().  A bounded queue rather than a ThreadLocal, so
+    // that the number of idle writers does not grow with the number of (possibly virtual) threads.
+    private static final BlockingQueue<JsonWriter> writerPool = new ArrayBlockingQueue<>(Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+
     /**
      * Statically accessed class.
      */
     private JsonIo() {
     }
 
+    /**
+     * @return a JsonWriter from the pool (reset onto the passed in OutputStream, or into memory when it is null), or
+     * a new one if the pool is empty.
+     */
+    private static JsonWriter acquireWriter(OutputStream out, WriteOptions writeOptions) {
+        JsonWriter writer = writerPool.poll();
+        if (writer == null) {
+            return out == null ? new JsonWriter(writeOptions) : new JsonWriter(out, writeOptions);
+        }
+        if (out == null) {
+            writer.resetInMemory(writeOptions);
+        } else {
+            writer.reset(out, writeOptions);
+        }
+        return writer;
+    }
+
+    /**
+     * @return a JsonReader from the pool kept by the passed in ReadOptions (reset onto the passed in InputStream), or
+     * a new one if the pool is empty or the ReadOptions do not keep one.
+     */
+    private static JsonReader acquireReader(InputStream in, ReadOptions readOptions) {
+        if (readOptions instanceof ReadOptionsBuilder.DefaultReadOptions) {
+            JsonReader reader = ((ReadOptionsBuilder.DefaultReadOptions) readOptions).getReaderPool().poll();
+            if (reader != null) {
+                reader.reset(in);
+                return reader;
+            }
+        }
+        return new JsonReader(in, readOptions);
+    }
+
+    /**
+     * Return a JsonReader obtained from acquireReader() to its ReadOptions' pool, unless the pool is full.  The
+     * reader lets go of the InputStream and everything it read.
+     */
+    private static void releaseReader(JsonReader reader) {
+        ReadOptions readOptions = reader.getReadOptions();
+        if (readOptions instanceof ReadOptionsBuilder.DefaultReadOptions) {
+            reader.recycle();
+            ((ReadOptionsBuilder.DefaultReadOptions) readOptions).getReaderPool().offer(reader);
+        }
+    }
+
+    /**
+     * Return a JsonWriter obtained from acquireWriter() to the pool, unless the pool is full.  The writer lets go of
+     * the OutputStream and the objects it wrote.
+     */
+    private static void releaseWriter(JsonWriter writer) {
+        writer.recycle();
+        writerPool.offer(writer);
+    }
+
     /**
      * Convert the passed in Java source object to JSON.
      * @param srcObject Java instance to convert to JSON format.  Can be a JsonObject that was loaded earlier
@@ -88,14 +152,16 @@ public class JsonIo {
      * @throws JsonIoException A runtime exception thrown if any errors happen during serialization
      */
     public static String toJson(Object srcObject, WriteOptions writeOptions) {
-        FastByteArrayOutputStream out = new FastByteArrayOutputStream();
-        try (JsonWriter writer = new JsonWriter(out, writeOptions)) {
+        JsonWriter writer = acquireWriter(null, writeOptions);
+        try {
             writer.write(srcObject);
-            return out.toString();
+            return writer.getBufferedString();
         } catch (JsonIoException je) {
             throw je;
         } catch (Exception e) {
             throw new JsonIoException("Unable to convert object to JSON", e);
+        } finally {
+            releaseWriter(writer);
         }
     }
 
@@ -124,20 +190,139 @@ public class JsonIo {
         }
         JsonWriter writer = null;
         try {
-            writer = new JsonWriter(out, writeOptions);
+            writer = acquireWriter(out, writeOptions);
             writer.write(source);
         } catch (Exception e) {
             throw new JsonIoException("Unable to convert object and send in JSON format to OutputStream.", e);
         }
         finally {
-            if (writeOptions.isCloseStream()) {
-                if (writer != null) {
+            if (writer != null) {
+                if (writeOptions.isCloseStream()) {
                     writer.close();
                 }
+                releaseWriter(writer);
             }
         }
     }
 
+    /**
+     * Write the elements the passed in Iterator returns as one JSON array, pulling and writing one element at a
+     * time, so that a large result (a database cursor, for example) does not have to be collected into a List
+     * first.  Each element is written like an element of a Collection (including @type and custom writers), with
+     * references traced per element (see JsonWriter.ReferenceScope.ELEMENT).
+     * @param out OutputStream destination for the JSON output.  The OutputStream will be closed by default.  If
+     *            you don't want this, set writeOptions.closeStream(false).
+     * @param elements Iterator over the elements to write.
+     * @param writeOptions Feature options settings to control the JSON output.  Can be null,
+     *                     in which case, default settings will be used.
+     * @throws JsonIoException A runtime exception thrown if any errors happen during serialization
+     */
+    public static void toJsonArray(OutputStream out, Iterator<?> elements, WriteOptions writeOptions) {
+        Convention.throwIfNull(out, "OutputStream cannot be null");
+        Convention.throwIfNull(elements, "Iterator cannot be null");
+        if (writeOptions == null) {
+            writeOptions = WriteOptionsBuilder.getDefaultWriteOptions();
+        }
+        JsonWriter writer = null;
+        try {
+            writer = acquireWriter(out, writeOptions);
+            writer.beginArray();
+            writer.writeElements(elements);
+            writer.endArray();
+        } catch (Exception e) {
+            throw new JsonIoException("Unable to convert elements and send in JSON format to OutputStream.", e);
+        }
+        finally {
+            if (writer != null) {
+                if (writeOptions.isCloseStream()) {
+                    writer.close();
+                }
+                releaseWriter(writer);
+            }
+        }
+    }
+
+    /**
+     * Write the elements of the passed in Stream as one JSON array, consuming the Stream lazily, in encounter
+     * order.  See toJsonArray(OutputStream, Iterator, WriteOptions).  The Stream is not closed.
+     * @param out OutputStream destination for the JSON output.  The OutputStream will be closed by default.  If
+     *            you don't want this, set writeOptions.closeStream(false).
+     * @param elements Stream of the elements to write.
+     * @param writeOptions Feature options settings to control the JSON output.  Can be null,
+     *                     in which case, default settings will be used.
+     * @throws JsonIoException A runtime exception thrown if any errors happen during serialization
+     */
+    public static void toJsonArray(OutputStream out, Stream<?> elements, WriteOptions writeOptions) {
+        Convention.throwIfNull(elements, "Stream cannot be null");
+        toJsonArray(out, elements.iterator(), writeOptions);
+    }
+
+    /**
+     * Convert the passed in Java source object to JSON, written to a WritableByteChannel (a SocketChannel,
+     * FileChannel, ...).  The JSON is encoded into the writer's buffer, which is handed to the channel as is,
+     * without an OutputStream in between.
+     * @param channel WritableByteChannel destination for the JSON output, in blocking mode.  The channel will be
+     *                closed by default.  If you don't want this, set writeOptions.closeStream(false).
+     * @param source Java instance to convert to JSON format.  Can be a JsonObject that was loaded earlier
+     *                  via .toObjects() with readOptions.returnAsNativeJsonObjects().
+     * @param writeOptions Feature options settings to control the JSON output.  Can be null,
+     *                     in which case, default settings will be used.
+     * @throws JsonIoException A runtime exception thrown if any errors happen during serialization
+     */
+    public static void toJson(WritableByteChannel channel, Object source, WriteOptions writeOptions) {
+        Convention.throwIfNull(channel, "WritableByteChannel cannot be null");
+        if (writeOptions == null) {
+            writeOptions = WriteOptionsBuilder.getDefaultWriteOptions();
+        }
+        JsonWriter writer = acquireWriter(null, writeOptions);
+        try {
+            writer.resetToChannel(channel, writeOptions);
+            writer.write(source);
+            writer.throwIfFlushFailed();
+        } catch (JsonIoException je) {
+            throw je;
+        } catch (Exception e) {
+            throw new JsonIoException("Unable to convert object and send in JSON format to WritableByteChannel.", e);
+        } finally {
+            if (writeOptions.isCloseStream()) {
+                writer.close();
+            }
+            releaseWriter(writer);
+        }
+    }
+
+    /**
+     * Convert the passed in Java source object to JSON, written into caller supplied ByteBuffers (heap or direct).
+     * The output is copied into the passed in buffer.  Each time a buffer fills up, and once more at the end for
+     * the last partly filled buffer, it is flipped and handed to the sink, which returns the buffer to continue
+     * writing into.  This lets an NIO server fill pooled (direct) buffers and write them to a socket, possibly with
+     * a gathering write.
+     * @param buffer ByteBuffer to write the JSON into, starting at its position.
+     * @param source Java instance to convert to JSON format.  Can be a JsonObject that was loaded earlier
+     *                  via .toObjects() with readOptions.returnAsNativeJsonObjects().
+     * @param writeOptions Feature options settings to control the JSON output.  Can be null,
+     *                     in which case, default settings will be used.
+     * @param sink ByteBufferSink that receives each filled ByteBuffer.
+     * @throws JsonIoException A runtime exception thrown if any errors happen during serialization, including an
+     * IOException thrown by the sink.
+     */
+    public static void toJson(ByteBuffer buffer, Object source, WriteOptions writeOptions, ByteBufferSink sink) {
+        Convention.throwIfNull(buffer, "ByteBuffer cannot be null");
+        Convention.throwIfNull(sink, "ByteBufferSink cannot be null");
+        JsonWriter writer = acquireWriter(null, writeOptions);
+        try {
+            writer.resetToBuffer(buffer, sink, writeOptions);
+            writer.write(source);
+            writer.throwIfFlushFailed();
+        } catch (JsonIoException je) {
+            throw je;
+        } catch (Exception e) {
+            throw new JsonIoException("Unable to convert object and write it in JSON format to ByteBuffers.", e);
+        } finally {
+            releaseWriter(writer);
+        }
+    }
+
     /**
      * Convert the passed in JSON to Java Objects.
      * @param json String containing JSON content.
@@ -182,7 +367,7 @@ public class JsonIo {
 
         JsonReader jr = null;
         try  {
-            jr = new JsonReader(in, readOptions);
+            jr = acquireReader(in, readOptions);
             T root = jr.readObject(rootType);
             return root;
         } catch (JsonIoException je) {
@@ -191,10 +376,11 @@ public class JsonIo {
             throw new JsonIoException(e);
         }
         finally {
-            if (readOptions.isCloseStream()) {
-                if (jr != null) {
+            if (jr != null) {
+                if (readOptions.isCloseStream()) {
                     jr.close();
                 }
+                releaseReader(jr);
             }
         }
     }
@@ -223,13 +409,19 @@ public class JsonIo {
     }
 
     /**
-     * Format the passed in JSON into multi-line, indented format, commonly used in JSON online editors.
-     * @param readOptions ReadOptions to control the feature options. Can be null to take the defaults.
-     * @param writeOptions WriteOptions to control the feature options. Can be null to take the defaults.
+     * Format the passed in JSON into multi-line, indented format, commonly used in JSON online editors.  When
+     * options are passed, the JSON is read into Java objects with the ReadOptions, and written back out with the
+     * WriteOptions (pretty-print turned on), so the options shape the output (meta keys, type info, primitive
+     * arrays on one line, ...).  When both are null, this is the same as formatJson(String).
      * @param json String JSON content.
+     * @param readOptions ReadOptions used to read the JSON, or null for the defaults.
+     * @param writeOptions WriteOptions used to write the JSON (always pretty-printed), or null for the defaults.
      * @return String JSON formatted in human-readable, standard multi-line, indented format.
      */
     public static String formatJson(String json, ReadOptions readOptions, WriteOptions writeOptions) {
+        if (readOptions == null && writeOptions == null) {
+            return reformat(json, true, false);
+        }
         if (writeOptions == null || !writeOptions.isPrettyPrint()) {
             writeOptions = new WriteOptionsBuilder(writeOptions).prettyPrint(true).build();
         }
@@ -245,12 +437,74 @@ public class JsonIo {
     }
 
     /**
-     * Format the passed in JSON into multi-line, indented format, commonly used in JSON online editors.
-     * @param json String JSON content.
+     * Format the passed in JSON into multi-line, indented format, commonly used in JSON online editors.  The JSON
+     * is re-indented token by token, in one pass, without being parsed into objects, so the content (escapes,
+     * number precision, meta keys) is kept exactly as it is.  Every array is written one element per line, as
+     * the formatter cannot tell a primitive array (which JsonWriter keeps on one line) from other arrays.
+     * @param json String JSON content, holding one root value.
      * @return String JSON formatted in human readable, standard multi-line, indented format.
+     * @throws JsonIoException if the JSON is not well-formed, or holds more than one root value.
      */
     public static String formatJson(String json) {
-        return formatJson(json, null, null);
+        return reformat(json, true, false);
+    }
+
+    /**
+     * Format the JSON read from the passed in InputStream into multi-line, indented format, writing it to the passed
+     * in OutputStream.  This is a single streaming pass with constant memory, suitable for very large files.
+     * Several root values in a row (NDJSON) are formatted one after the other.  Neither stream is closed.
+     * @param in InputStream supplying UTF-8 JSON.
+     * @param out OutputStream to which the formatted JSON is written (UTF-8).  It is flushed when done.
+     * @throws JsonIoException if the JSON is not well-formed, or an IOException occurs.
+     */
+    public static void formatJson(InputStream in, OutputStream out) {
+        reformat(in, out, true, true);
+    }
+
+    /**
+     * Remove all insignificant whitespace from the passed in JSON, token by token, without parsing it into
+     * objects.
+     * @param json String JSON content, holding one root value.
+     * @return String JSON on a single line, without whitespace between tokens.
+     * @throws JsonIoException if the JSON is not well-formed, or holds more than one root value.
+     */
+    public static String minifyJson(String json) {
+        return reformat(json, false, false);
+    }
+
+    /**
+     * Remove all insignificant whitespace from the JSON read from the passed in InputStream, writing it to the
+     * passed in OutputStream, in a single streaming pass with constant memory.  Several root values in a row
+     * (NDJSON) are written one per line.  Neither stream is closed.
+     * @param in InputStream supplying UTF-8 JSON.
+     * @param out OutputStream to which the minified JSON is written (UTF-8).  It is flushed when done.
+     * @throws JsonIoException if the JSON is not well-formed, or an IOException occurs.
+     */
+    public static void minifyJson(InputStream in, OutputStream out) {
+        reformat(in, out, false, true);
+    }
+
+    private static String reformat(String json, boolean pretty, boolean multipleRoots) {
+        Convention.throwIfNull(json, "JSON cannot be null");
+        Utf8Writer out = new Utf8Writer();
+        try {
+            new JsonFormatter(new StringReader(json), out, pretty, multipleRoots).format();
+        } catch (IOException e) {
+            throw new JsonIoException("Unable to format JSON", e);
+        }
+        return out.getBufferedString();
+    }
+
+    private static void reformat(InputStream in, OutputStream out, boolean pretty, boolean multipleRoots) {
+        Convention.throwIfNull(in, "InputStream cannot be null");
+        Convention.throwIfNull(out, "OutputStream cannot be null");
+        Utf8Writer writer = new Utf8Writer(out);
+        try {
+            new JsonFormatter(new Utf8Reader(in), writer, pretty, multipleRoots).format();
+            writer.flush();
+        } catch (IOException e) {
+            throw new JsonIoException("Unable to format JSON", e);
+        }
     }
 
     /**
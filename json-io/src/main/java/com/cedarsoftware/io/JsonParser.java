@@ -75,6 +75,7 @@ class JsonParser {
     private final StringBuilder numBuf = new StringBuilder();
     private int curParseDepth = 0;
     private final boolean allowNanAndInfinity;
+    private final boolean treeMode;
     private final int maxParseDepth;
     private final ReadOptions readOptions;
     private final ReferenceTracker references;
@@ -143,6 +144,17 @@ class JsonParser {
         references = resolver.getReferences();
         maxParseDepth = readOptions.getMaxDepth();
         allowNanAndInfinity = readOptions.isAllowNanAndInfinity();
+        treeMode = readOptions.isTreeMode();
+    }
+
+    /**
+     * Prepare for the next document from the (reset) FastReader, keeping the string and number caches.
+     */
+    void reset() {
+        curParseDepth = 0;
+        strBuf.setLength(0);
+        hexBuf.setLength(0);
+        numBuf.setLength(0);
     }
 
     /**
@@ -574,6 +586,9 @@ class JsonParser {
         if (!(value instanceof Long)) {
             error("Expected a number for " + ID + ", instead got: " + value);
         }
+        if (treeMode) {
+            return;     // Nothing can refer to it.
+        }
         Long id = (Long) value;
         references.put(id, jObj);
         jObj.setId(id);
@@ -589,6 +604,9 @@ class JsonParser {
         if (!(value instanceof Long)) {
             error("Expected a number for " + REF + ", instead got: " + value);
         }
+        if (treeMode) {
+            error(REF + " is not allowed when reading in tree mode, turn off treeMode to read JSON with references");
+        }
         jObj.setReferenceId((Long) value);
         jObj.setFinished();   // "Nothing further to load, your honor."
     }
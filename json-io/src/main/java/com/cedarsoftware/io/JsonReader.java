@@ -2,10 +2,8 @@ package com.cedarsoftware.io;
 
 import java.io.Closeable;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -61,10 +59,11 @@ import com.cedarsoftware.util.convert.Converter;
  */
 public class JsonReader implements Closeable
 {
-    private final FastReader input;
+    private FastReader input;
     private final Resolver resolver;
     private final ReadOptions readOptions;
-    private final JsonParser parser;
+    private final ReferenceTracker references;
+    private JsonParser parser;
 
     /**
      * Subclass this interface and create a class that will return a new instance of the
@@ -163,11 +162,12 @@ public class JsonReader implements Closeable
     /**
      * Allow others to try potentially faster Readers.
      * @param inputStream InputStream that will be offering JSON.
-     * @return FastReader wrapped around the passed in inputStream, translating from InputStream to InputStreamReader.
+     * @return FastReader decoding the UTF-8 of the passed in inputStream.  The default one can be reused across
+     * inputs by reset().
      */
     protected FastReader getReader(InputStream inputStream)
     {
-        return new FastReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), 8192, 10);
+        return new Utf8Reader(inputStream);
     }
 
     /**
@@ -182,6 +182,7 @@ public class JsonReader implements Closeable
 
     public JsonReader(InputStream inputStream, ReadOptions readOptions, ReferenceTracker references) {
         this.readOptions = readOptions == null ? ReadOptionsBuilder.getDefaultReadOptions() : readOptions;
+        this.references = references;
         Converter converter = new Converter(this.readOptions.getConverterOptions());
         this.input = getReader(inputStream);
 
@@ -204,6 +205,41 @@ public class JsonReader implements Closeable
         this(new FastByteArrayInputStream(new byte[]{}), readOptions);
     }
 
+    /**
+     * Prepare this JsonReader to read another JSON document, from the passed in InputStream, with the same
+     * ReadOptions.  The reader keeps its Converter, its parser (with its warmed string and number caches), and
+     * the buffers of the default FastReader, so that reading many small documents with one JsonReader costs far
+     * less than constructing a JsonReader for each.  Anything left unread from the previous input is discarded,
+     * and the previous input is not closed.
+     * @param inputStream InputStream offering the next JSON document.
+     */
+    public void reset(InputStream inputStream) {
+        Convention.throwIfNull(inputStream, "InputStream cannot be null");
+        resolver.reset(readOptions, references);
+        if (input instanceof Utf8Reader) {
+            ((Utf8Reader) input).reset(inputStream);
+            parser.reset();
+        } else {
+            input = getReader(inputStream);
+            parser = new JsonParser(input, resolver);
+        }
+    }
+
+    /**
+     * Let go of the input and of everything read from it, so that the JsonReader can sit in a pool until its
+     * next reset().
+     */
+    void recycle() {
+        resolver.reset(readOptions, references);
+        if (input instanceof Utf8Reader) {
+            ((Utf8Reader) input).reset(null);
+        }
+    }
+
+    ReadOptions getReadOptions() {
+        return readOptions;
+    }
+
     public <T> T readObject(Class<T> rootType) {
         T returnValue;
         try {
@@ -0,0 +1,2785 @@
+package com.cedarsoftware.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+
+import com.cedarsoftware.io.reflect.Accessor;
+import com.cedarsoftware.util.Convention;
+
+import static com.cedarsoftware.io.JsonValue.ID;
+import static com.cedarsoftware.io.JsonValue.SHORT_ID;
+import static com.cedarsoftware.io.JsonValue.SHORT_TYPE;
+import static com.cedarsoftware.io.JsonValue.TYPE;
+
+/**
+ * Output a Java object graph in JSON format.  This code handles cyclic
+ * references and can serialize any Object graph without requiring a class
+ * to be 'Serializable' or have any specific methods on it.
+ * <br><ul><li>
+ * Call the static method: {@code JsonWriter.objectToJson(employee)}.  This will
+ * convert the passed in 'employee' instance into a JSON String.</li>
+ * <li>Using streams:
+ * <pre>     JsonWriter writer = new JsonWriter(stream);
+ *     writer.write(employee);
+ *     writer.close();</pre>
+ * This will write the 'employee' object to the passed in OutputStream.
+ * </li></ul>
+ * <p>That's it.  This can be used as a debugging tool.  Output an object
+ * graph using the above code.  Use the JsonWriter PRETTY_PRINT option to
+ * format the JSON to be human-readable.
+ * <br>
+ * <p>This will output any object graph deeply (or null).  Object references are
+ * properly handled.  For example, if you had A-&gt;B, B-&gt;C, and C-&gt;A, then
+ * A will be serialized with a B object in it, B will be serialized with a C
+ * object in it, and then C will be serialized with a reference to A (ref), not a
+ * redefinition of A.</p>
+ * <br>
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+public class JsonWriter implements WriterContext, Closeable, Flushable
+{
+    private static final Object[] byteStrings = new Object[256];
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    private static final String[] JSON_ESCAPES = new String[128];   // ASCII char -> escape, null when written as is
+    private static final String[] HTML_ESCAPES;
+    private static final String NEW_LINE = System.lineSeparator();
+    private static final long PENDING_ID = -1;     // referenced, id assigned when first written
+    private static final int RETAINED_MAP_CAPACITY = 1 << 16;   // reset() shrinks maps grown past this
+    private static final int POOLED_MAP_CAPACITY = 1 << 10;     // recycle() (pooled writers) shrinks maps grown past this
+    private static final int PARALLEL_MIN_ELEMENTS = 8192;      // smallest root array / Collection written in parallel
+    private static final int PARALLEL_MIN_CHUNK = 1024;         // fewest elements per parallel chunk
+    private static final ClassValue<WriteKind> WRITE_KINDS = new ClassValue<WriteKind>() {
+        @Override
+        protected WriteKind computeValue(Class<?> c) {
+            return WriteKind.of(c);
+        }
+    };
+    private WriteOptions writeOptions;
+    private final IdentityIdMap objVisited = new IdentityIdMap();
+    private final IdentityIdMap objsReferenced = new IdentityIdMap();
+    private final Utf8Writer out;
+    private long identity = 1;
+    private int depth = 0;
+    private ParallelReferenceTracer parallelTracer;     // non-null while tracing references in parallel
+    private ReferenceScope streamScope;     // non-null while a root array / object opened by beginArray() / beginObject() is open
+    private boolean streamingObject;
+    private boolean streamEmpty;
+    private IdentityIdMap streamDefined;    // ReferenceScope.STREAM: objects written with an @id by earlier elements
+    private Object parallelRoot;            // root array / Collection whose elements are written in parallel
+
+    static
+    {
+        for (short i = -128; i <= 127; i++)
+        {
+            char[] chars = Integer.toString(i).toCharArray();
+            byteStrings[i + 128] = chars;
+        }
+
+        for (char c = 0; c < ' '; c++)
+        {
+            JSON_ESCAPES[c] = unicodeEscape(c);
+        }
+        JSON_ESCAPES['\b'] = "\\b";
+        JSON_ESCAPES['\f'] = "\\f";
+        JSON_ESCAPES['\n'] = "\\n";
+        JSON_ESCAPES['\r'] = "\\r";
+        JSON_ESCAPES['\t'] = "\\t";
+        JSON_ESCAPES['"'] = "\\\"";
+        JSON_ESCAPES['\\'] = "\\\\";
+
+        HTML_ESCAPES = JSON_ESCAPES.clone();
+        for (char c : new char[]{'<', '>', '&', '\''})
+        {
+            HTML_ESCAPES[c] = unicodeEscape(c);
+        }
+    }
+
+    /**
+     * Scope of reference tracking for the elements (or fields) of a root array (or object) written incrementally,
+     * see beginArray() and beginObject().
+     */
+    public enum ReferenceScope
+    {
+        /**
+         * References are traced within each element only.  An object shared by two elements is written in full in
+         * each, and nothing is retained between elements, so any number of elements can be streamed.
+         */
+        ELEMENT,
+        /**
+         * Every object (other than Strings, numbers and the like) is written with an @id, and is written as an @ref
+         * when it shows up again, in the same or a later element.  The written objects are retained until the root
+         * array / object is closed.
+         */
+        STREAM
+    }
+
+    /**
+     * How writeImpl() writes instances of a class (when no custom writer and no @ref takes over).  It depends on
+     * the class alone, so it is resolved once per class (see WRITE_KINDS) instead of running the instanceof
+     * checks for every value.
+     */
+    private enum WriteKind
+    {
+        BLOCKED,        // written as null, for security
+        BYTE_ARRAY, CHAR_ARRAY, SHORT_ARRAY, INT_ARRAY, LONG_ARRAY, FLOAT_ARRAY, DOUBLE_ARRAY, BOOLEAN_ARRAY,
+        OBJECT_ARRAY,
+        ENUM_SET,
+        COLLECTION,
+        JSON_OBJECT,
+        MAP,
+        OBJECT;
+
+        private static WriteKind of(Class<?> c)
+        {
+            if (ProcessBuilder.class.isAssignableFrom(c) ||
+                    Process.class.isAssignableFrom(c) ||
+                    ClassLoader.class.isAssignableFrom(c) ||
+                    Constructor.class.isAssignableFrom(c) ||
+                    Method.class.isAssignableFrom(c) ||
+                    Field.class.isAssignableFrom(c)) {
+                return BLOCKED;
+            }
+            if (c.isArray()) {
+                final Class<?> component = c.getComponentType();
+                if (!component.isPrimitive()) {
+                    return OBJECT_ARRAY;
+                }
+                return component == byte.class ? BYTE_ARRAY : component == char.class ? CHAR_ARRAY :
+                        component == short.class ? SHORT_ARRAY : component == int.class ? INT_ARRAY :
+                        component == long.class ? LONG_ARRAY : component == float.class ? FLOAT_ARRAY :
+                        component == double.class ? DOUBLE_ARRAY : BOOLEAN_ARRAY;
+            }
+            if (EnumSet.class.isAssignableFrom(c)) {
+                return ENUM_SET;
+            }
+            if (Collection.class.isAssignableFrom(c)) {
+                return COLLECTION;
+            }
+            if (JsonObject.class.isAssignableFrom(c)) {     // before Map, JsonObject is a Map
+                return JSON_OBJECT;
+            }
+            return Map.class.isAssignableFrom(c) ? MAP : OBJECT;
+        }
+    }
+
+    /**
+     * Implement this interface to customize the JSON output for a given class.  One instance is shared by every
+     * JsonWriter using the same WriteOptions.  With WriteOptions.isParallelArrayWriting(), a root array whose graph
+     * reaches a class written by a custom writer is written on the calling thread, unless that writer is one of
+     * json-io's own or implements ThreadSafeClassWriter.
+     */
+    public interface JsonClassWriter
+    {
+        /**
+         * When write() is called, it is expected that subclasses will write the appropriate JSON
+         * to the passed in Writer.
+         *
+         * @param o        Object to be written in JSON format.
+         * @param showType boolean indicating whether to show @type.
+         * @param output   Writer destination to where the actual JSON is written.
+         * @param context  WriterContext to get writeOptions and other write access
+         * @throws IOException if thrown by the writer.  Will be caught at a higher level and wrapped in JsonIoException.
+         */
+        default void write(Object o, boolean showType, Writer output, WriterContext context) throws IOException {
+        }
+        
+        /**
+         * @param context  WriterContext to get writeOptions and other write access
+         * @return boolean true if the class being written has a primitive (non-object) form.  Default is false since
+         * most custom writers will not have a primitive form.
+         */
+        default boolean hasPrimitiveForm(WriterContext context) {
+            return false;
+        }
+
+        /**
+         * This default implementation will call the more basic writePrimitiveForm that does not take arguments.  No need
+         * to override this method unless you need access to the args.
+         * @param o Object to be written
+         * @param output Writer destination to where the actual JSON is written.
+         * @param context  WriterContext to get access to writeOptions and writing tools
+         * @throws IOException if thrown by the writer.  Will be caught at a higher level and wrapped in JsonIoException.
+         */
+        default void writePrimitiveForm(Object o, Writer output, WriterContext context) throws IOException {
+        }
+    }
+
+    /**
+     * Implement this interface (instead of JsonClassWriter) to declare that a custom writer can be called on
+     * several threads at once: it keeps no per-call state in fields, or guards it.  With
+     * WriteOptions.isParallelArrayWriting(), the elements of a large root array can then be written in parallel
+     * even though they reach the class it writes.
+     */
+    public interface ThreadSafeClassWriter extends JsonClassWriter
+    {
+    }
+
+    /**
+     * @param out OutputStream to which the JSON will be written.  Uses the default WriteOptions.
+     * @see WriteOptions
+     */
+    public JsonWriter(OutputStream out)
+    {
+        this(out, null);
+    }
+
+    /**
+     * @param out OutputStream to which the JSON output will be written.
+     * @param writeOptions WriteOptions containing many feature options to control the JSON output.  Can be null,
+     *                     in which case the default WriteOptions will be used.
+     * @see WriteOptions Javadoc.
+     */
+    public JsonWriter(OutputStream out, WriteOptions writeOptions) {
+        this.out = new Utf8Writer(out);
+        this.writeOptions = writeOptions == null ? WriteOptionsBuilder.getDefaultWriteOptions() : writeOptions;
+    }
+
+    /**
+     * Prepare this JsonWriter to write to another OutputStream, with the same WriteOptions.  Its output buffer
+     * and reference tracking maps are kept (emptied), so a reused JsonWriter allocates far less than a new one.
+     * Output still buffered for the previous OutputStream is discarded, and the previous OutputStream is not
+     * closed.  Ids (@id / @ref) start over at 1.
+     * @param out OutputStream to which the JSON will be written.
+     */
+    public void reset(OutputStream out) {
+        reset(out, writeOptions);
+    }
+
+    /**
+     * Prepare this JsonWriter to write to another OutputStream, with (possibly) different WriteOptions.
+     * @param out OutputStream to which the JSON will be written.
+     * @param writeOptions WriteOptions to write with.  Can be null, in which case the default WriteOptions will
+     *                     be used.
+     * @see #reset(OutputStream)
+     */
+    public void reset(OutputStream out, WriteOptions writeOptions) {
+        Convention.throwIfNull(out, "OutputStream cannot be null");
+        clearState(RETAINED_MAP_CAPACITY);
+        this.out.reset(out);
+        this.writeOptions = writeOptions == null ? WriteOptionsBuilder.getDefaultWriteOptions() : writeOptions;
+    }
+
+    /**
+     * Let go of the OutputStream and of every object seen while writing, so that the JsonWriter can sit in a pool
+     * until its next reset().  Unlike reset(), which keeps grown maps for a caller that reuses one writer for large
+     * graphs, this shrinks the maps and the output buffer back to (about) their initial size, so that an idle pooled
+     * writer holds little memory.
+     */
+    void recycle() {
+        clearState(POOLED_MAP_CAPACITY);
+        this.out.reset(null);
+        this.out.trimBuffer();
+    }
+
+    /**
+     * Forget every object seen while writing, shrinking the maps back to their default capacity if they have grown
+     * past maxMapCapacity.
+     */
+    private void clearState(int maxMapCapacity) {
+        objVisited.clear(maxMapCapacity);
+        objsReferenced.clear(maxMapCapacity);
+        identity = 1;
+        depth = 0;
+        parallelTracer = null;
+        streamScope = null;
+        streamDefined = null;
+    }
+
+    /**
+     * JsonWriter that keeps its output in memory, for callers that want the JSON as a String (see
+     * getBufferedString()).  The output is not encoded to UTF-8 bytes in one buffer and decoded again from another.
+     * @param writeOptions WriteOptions to write with.  Can be null, in which case the default WriteOptions will
+     *                     be used.
+     */
+    JsonWriter(WriteOptions writeOptions) {
+        this.out = new Utf8Writer();
+        this.writeOptions = writeOptions == null ? WriteOptionsBuilder.getDefaultWriteOptions() : writeOptions;
+    }
+
+    /**
+     * Prepare this JsonWriter to write into memory (see getBufferedString()), with (possibly) different
+     * WriteOptions.
+     */
+    void resetInMemory(WriteOptions writeOptions) {
+        recycle();
+        this.writeOptions = writeOptions == null ? WriteOptionsBuilder.getDefaultWriteOptions() : writeOptions;
+    }
+
+    /**
+     * Prepare this JsonWriter to write to a WritableByteChannel, with (possibly) different WriteOptions.
+     */
+    void resetToChannel(WritableByteChannel channel, WriteOptions writeOptions) {
+        recycle();
+        out.resetToChannel(channel);
+        this.writeOptions = writeOptions == null ? WriteOptionsBuilder.getDefaultWriteOptions() : writeOptions;
+    }
+
+    /**
+     * Prepare this JsonWriter to write into caller supplied ByteBuffers, with (possibly) different WriteOptions.
+     */
+    void resetToBuffer(ByteBuffer buffer, ByteBufferSink sink, WriteOptions writeOptions) {
+        recycle();
+        out.resetToBuffer(buffer, sink);
+        this.writeOptions = writeOptions == null ? WriteOptionsBuilder.getDefaultWriteOptions() : writeOptions;
+    }
+
+    /**
+     * flush() does not report failures (it is called at the end of every write()).  This throws the exception, if
+     * any, that the last flush of the output hit.
+     */
+    void throwIfFlushFailed() {
+        IOException e = out.getFlushFailure();
+        if (e != null) {
+            throw new JsonIoException("Unable to flush JSON output", e);
+        }
+    }
+
+    /**
+     * @return the JSON written so far, for a JsonWriter that keeps its output in memory.
+     */
+    String getBufferedString() {
+        return out.getBufferedString();
+    }
+
+    public WriteOptions getWriteOptions() {
+        return writeOptions;
+    }
+
+    /**
+     * Map containing all objects that were visited within input object graph
+     */
+    protected Map<Object, Long> getObjVisited() {
+        return objVisited;
+    }
+
+    /**
+     *  Map containing all objects that were referenced within input object graph.
+     */
+    public Map<Object, Long> getObjsReferenced() {
+        return objsReferenced;
+    }
+
+    /**
+     * Tab the output left (less indented)
+     * @throws IOException
+     */
+    public void tabIn() throws IOException
+    {
+        tab(out, 1);
+    }
+
+    /**
+     * Add newline (\n) to output
+     * @throws IOException
+     */
+    public void newLine() throws IOException
+    {
+        tab(out, 0);
+    }
+
+    /**
+     * Tab the output right (more indented)
+     * @throws IOException
+     */
+    public void tabOut() throws IOException
+    {
+        tab(out, -1);
+    }
+
+    /**
+     * tab the JSON output by the given number of characters specified by delta.
+     * @param output Writer being used for JSON output.
+     * @param delta int number of characters to tab.
+     * @throws IOException
+     */
+    private void tab(Writer output, int delta) throws IOException
+    {
+        if (!writeOptions.isPrettyPrint())
+        {
+            return;
+        }
+        output.write(NEW_LINE);
+        depth += delta;
+        for (int i=0; i < depth; i++)
+        {
+            output.write("  ");
+        }
+    }
+
+    /**
+     * Write the passed in object (o) to the JSON output stream, if and only if, there is a custom
+     * writer associated to the Class of object (o).
+     * @param o Object to be (potentially written)
+     * @param showType boolean indicating whether to show @type.
+     * @param output Writer where the actual JSON is being written to.
+     * @return boolean true if written, false is there is no custom writer for the passed in object.
+     */
+    public boolean writeUsingCustomWriter(Object o, boolean showType, Writer output) {
+        Class<?> c = o.getClass();
+        if (writeOptions instanceof WriteOptionsBuilder.DefaultWriteOptions) {
+            if (!((WriteOptionsBuilder.DefaultWriteOptions) writeOptions).getWritePlan(c).isCustomWritten()) {
+                return false;
+            }
+        } else if (writeOptions.isNotCustomWrittenClass(c)) {
+            return false;
+        }
+
+        try {
+            return writeCustom(c, o, !writeOptions.isNeverShowingType() && showType, output);
+        } catch (Exception e) {
+            throw new JsonIoException("Unable to write custom formatted object:", e);
+        }
+    }
+
+    /**
+     * Write the passed in array element to the JSON output, if any only if, there is a custom writer
+     * for the class of the instance 'o'.
+     * @param arrayComponentClass Class type of the array
+     * @param o Object instance to write
+     * @param showType boolean indicating whether @type should be output.
+     * @param output Writer to write the JSON to (if there is a custom writer for o's Class).
+     * @return true if the array element was written, false otherwise.
+     */
+    public boolean writeArrayElementIfMatching(Class<?> arrayComponentClass, Object o, boolean showType, Writer output)
+    {
+        if (!arrayComponentClass.isAssignableFrom(o.getClass()) || writeOptions.isNotCustomWrittenClass(o.getClass()))
+        {
+            return false;
+        }
+
+        try
+        {
+            return writeCustom(arrayComponentClass, o, showType, output);
+        }
+        catch (IOException e)
+        {
+            throw new JsonIoException("Unable to write custom formatted object as array element:", e);
+        }
+    }
+
+    /**
+     * Perform the actual custom writing for an array element that has a custom writer.
+     * @param arrayComponentClass Class type of the array
+     * @param o Object instance to write
+     * @param showType boolean indicating whether @type should be output.
+     * @param output Writer to write the JSON to (if there is a custom writer for o's Class).
+     * @return true if the array element was written, false otherwise.
+     */
+    protected boolean writeCustom(Class<?> arrayComponentClass, Object o, boolean showType, Writer output) throws IOException
+    {
+        if (writeOptions.isNeverShowingType())
+        {
+            showType = false;
+        }
+        JsonClassWriter closestWriter = writeOptions.getCustomWriter(o.getClass());
+
+        if (closestWriter == null)
+        {
+            return false;
+        }
+
+        if (writeOptionalReference(o))
+        {
+            return true;
+        }
+        if (!closestWriter.hasPrimitiveForm(this))
+        {
+            defineInStream(o);
+        }
+
+        writeCustom(closestWriter, o, showType, output);
+        leavePath(o);
+        return true;
+    }
+
+    private void writeCustom(JsonClassWriter closestWriter, Object o, boolean showType, Writer output) throws IOException
+    {
+        boolean referenced = objsReferenced.containsKey(o);
+
+        if (closestWriter.hasPrimitiveForm(this)) {
+            if ((!referenced && !showType) || closestWriter instanceof Writers.JsonStringWriter) {
+                closestWriter.writePrimitiveForm(o, output, this);
+                return;
+            }
+        }
+
+        output.write('{');
+        tabIn();
+        if (referenced)
+        {
+            writeId(getId(o));
+            if (showType)
+            {
+                output.write(',');
+                newLine();
+            }
+        }
+
+        if (showType)
+        {
+            writeType(o.getClass(), output);
+        }
+
+        if (referenced || showType)
+        {
+            output.write(',');
+            newLine();
+        }
+
+        closestWriter.write(o, showType || referenced, output, this);
+
+        tabOut();
+        output.write('}');
+    }
+
+    /**
+     * Write the passed in Java object in JSON format.
+     * @param obj Object any Java Object or JsonObject.
+     */
+    public void write(Object obj)
+    {
+        trace(obj);
+        objVisited.clear();
+        parallelRoot = canWriteInParallel(obj) ? obj : null;
+        try {
+            writeImpl(obj, true);
+        } catch (JsonIoException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new JsonIoException("Error writing object to JSON:", e);
+        } finally {
+            parallelRoot = null;
+        }
+        flush();
+        objVisited.clear();
+        objsReferenced.clear();
+    }
+
+    /**
+     * @return true if the passed in root is a large array of objects or Collection, and no object in the graph is
+     * referenced more than once, so its elements can be written by independent JsonWriters, in chunks.
+     */
+    private boolean canWriteInParallel(Object root)
+    {
+        if (!writeOptions.isParallelArrayWriting())
+        {
+            return false;
+        }
+        if (!writeOptions.isTreeMode() && !objsReferenced.isEmpty())
+        {
+            return false;
+        }
+        if (root instanceof Object[])
+        {
+            return ((Object[]) root).length >= PARALLEL_MIN_ELEMENTS && !reachesThreadUnsafeWriter(root);
+        }
+        return root instanceof Collection && ((Collection<?>) root).size() >= PARALLEL_MIN_ELEMENTS
+                && !reachesThreadUnsafeWriter(root);
+    }
+
+    /**
+     * @return true if a custom writer that is not known to be thread-safe (see isThreadSafe()) would be called for
+     * any object reachable from the passed in root.  Without such writers in the WriteOptions, nothing is walked.
+     */
+    private boolean reachesThreadUnsafeWriter(Object root)
+    {
+        if (writeOptions instanceof WriteOptionsBuilder.DefaultWriteOptions
+                && !((WriteOptionsBuilder.DefaultWriteOptions) writeOptions).hasThreadUnsafeWriters())
+        {
+            return false;
+        }
+
+        final Map<Class<?>, Boolean> unsafeClasses = new HashMap<>();
+        final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<Object> stack = new ArrayDeque<>();
+        stack.addFirst(root);
+        visited.add(root);
+
+        while (!stack.isEmpty())
+        {
+            final Object obj = stack.removeFirst();
+            final Class<?> clazz = obj.getClass();
+            if (unsafeClasses.computeIfAbsent(clazz, this::hasThreadUnsafeWriter))
+            {
+                return true;
+            }
+            if (writeOptions.isNonReferenceableClass(clazz))
+            {
+                continue;
+            }
+
+            if (clazz.isArray())
+            {
+                final Class<?> componentType = clazz.getComponentType();
+                if (componentType.isPrimitive())
+                {
+                    if (unsafeClasses.computeIfAbsent(componentType, this::hasThreadUnsafeWriter))
+                    {
+                        return true;
+                    }
+                    continue;
+                }
+                for (Object item : (Object[]) obj)
+                {
+                    pushUnvisited(stack, visited, item);
+                }
+            }
+            else if (obj instanceof Map)
+            {
+                try
+                {
+                    for (Entry<?, ?> entry : ((Map<?, ?>) obj).entrySet())
+                    {
+                        pushUnvisited(stack, visited, entry.getKey());
+                        pushUnvisited(stack, visited, entry.getValue());
+                    }
+                }
+                catch (UnsupportedOperationException e)
+                {
+                    // Not walked by traceReferences() either
+                }
+            }
+            else if (obj instanceof Collection)
+            {
+                for (Object item : (Collection<?>) obj)
+                {
+                    pushUnvisited(stack, visited, item);
+                }
+            }
+            else
+            {
+                for (Accessor accessor : writeOptions.getAccessorsForClass(clazz))
+                {
+                    pushUnvisited(stack, visited, accessor.retrieve(obj));
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void pushUnvisited(Deque<Object> stack, Set<Object> visited, Object obj)
+    {
+        if (obj != null && visited.add(obj))
+        {
+            stack.addFirst(obj);
+        }
+    }
+
+    private boolean hasThreadUnsafeWriter(Class<?> c)
+    {
+        final JsonClassWriter writer = writeOptions.getCustomWriter(c);
+        return writer != null && !isThreadSafe(writer);
+    }
+
+    /**
+     * @return true if the passed in custom writer may be called on several threads at once: json-io's own writers
+     * (which keep no per-call state) and writers implementing ThreadSafeClassWriter.
+     */
+    static boolean isThreadSafe(JsonClassWriter writer)
+    {
+        if (writer instanceof ThreadSafeClassWriter)
+        {
+            return true;
+        }
+        final Class<?> writerClass = writer.getClass();
+        return writerClass.getEnclosingClass() == Writers.class || writerClass.getName().startsWith("com.cedarsoftware.io.writers.");
+    }
+
+    /**
+     * Writes elements [from, to) of a root array or Collection, with the separators between them.
+     */
+    private interface ElementRangeWriter
+    {
+        void write(JsonWriter writer, int from, int to) throws IOException;
+    }
+
+    /**
+     * Write len elements in chunks on the common ForkJoinPool, each chunk by its own (in memory) JsonWriter at the
+     * current depth, and copy the chunks to the output in order, with the separator a serial write puts between
+     * two elements.  A bounded number of chunks is in flight, so the finished chunks waiting to be copied do not
+     * pile up.
+     */
+    private void writeElementsInParallel(int len, ElementRangeWriter rangeWriter) throws IOException
+    {
+        final int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        final int chunkCount = Math.max(1, Math.min(len / PARALLEL_MIN_CHUNK, parallelism * 4));
+        final int chunkSize = (len + chunkCount - 1) / chunkCount;
+        final int window = parallelism * 2;
+        final Deque<ForkJoinTask<JsonWriter>> inFlight = new ArrayDeque<>();
+        int next = 0;
+        boolean firstChunk = true;
+        try
+        {
+            while (next < len || !inFlight.isEmpty())
+            {
+                while (next < len && inFlight.size() < window)
+                {
+                    final int from = next;
+                    final int to = Math.min(len, from + chunkSize);
+                    next = to;
+                    inFlight.addLast(ForkJoinPool.commonPool().submit(() -> {
+                        final JsonWriter chunk = new JsonWriter(writeOptions);
+                        chunk.depth = depth;
+                        rangeWriter.write(chunk, from, to);
+                        return chunk;
+                    }));
+                }
+                final JsonWriter chunk = inFlight.removeFirst().join();
+                if (!firstChunk)
+                {
+                    out.write(',');
+                    newLine();
+                }
+                firstChunk = false;
+                out.append(chunk.out);
+            }
+        }
+        finally
+        {
+            for (ForkJoinTask<JsonWriter> task : inFlight)
+            {
+                task.cancel(false);
+            }
+        }
+    }
+
+    private void trace(Object obj)
+    {
+        if (writeOptions.isParallelReferenceTracing() && !writeOptions.isTreeMode())
+        {
+            traceReferencesInParallel(obj);
+        }
+        else if (!writeOptions.isTreeMode())
+        {
+            traceReferences(obj);
+        }
+    }
+
+    /**
+     * Open a root JSON array, whose elements are then written one at a time with writeElement() (or
+     * writeElements()), and close it with endArray().  References are traced per element, see
+     * ReferenceScope.ELEMENT.
+     */
+    public void beginArray()
+    {
+        beginArray(ReferenceScope.ELEMENT);
+    }
+
+    /**
+     * Open a root JSON array, whose elements are then written one at a time with writeElement() (or
+     * writeElements()), and close it with endArray().
+     * @param scope ReferenceScope, whether objects shared between elements are written as @ref.
+     */
+    public void beginArray(ReferenceScope scope)
+    {
+        beginStream(scope, false);
+    }
+
+    /**
+     * Open a root JSON object, whose fields are then written one at a time with writeField(), and close it with
+     * endObject().  References are traced per field value, see ReferenceScope.ELEMENT.
+     */
+    public void beginObject()
+    {
+        beginObject(ReferenceScope.ELEMENT);
+    }
+
+    /**
+     * Open a root JSON object, whose fields are then written one at a time with writeField(), and close it with
+     * endObject().
+     * @param scope ReferenceScope, whether objects shared between field values are written as @ref.
+     */
+    public void beginObject(ReferenceScope scope)
+    {
+        beginStream(scope, true);
+    }
+
+    private void beginStream(ReferenceScope scope, boolean object)
+    {
+        Convention.throwIfNull(scope, "ReferenceScope cannot be null");
+        if (streamScope != null)
+        {
+            throw new JsonIoException("A root " + (streamingObject ? "object" : "array") + " is already open, close it with " +
+                    (streamingObject ? "endObject()" : "endArray()") + " first.");
+        }
+        try
+        {
+            out.write(object ? '{' : '[');
+        }
+        catch (IOException e)
+        {
+            throw new JsonIoException("Error writing object to JSON:", e);
+        }
+        streamScope = scope;
+        streamingObject = object;
+        streamEmpty = true;
+        streamDefined = scope == ReferenceScope.STREAM ? new IdentityIdMap() : null;
+        objVisited.clear();
+        objsReferenced.clear();
+    }
+
+    /**
+     * Write the next element of the root array opened with beginArray(), with the same output as an element of a
+     * Collection (including @type and custom writers).  The output is not flushed until endArray().
+     * @param element Object to write, can be null.
+     */
+    public void writeElement(Object element)
+    {
+        checkStream(false, "writeElement()");
+        try
+        {
+            beginStreamEntry();
+            writeStreamValue(element);
+        }
+        catch (JsonIoException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw new JsonIoException("Error writing object to JSON:", e);
+        }
+    }
+
+    /**
+     * Write each element the passed in Iterator returns, as writeElement() does, pulling one element at a time (a
+     * database cursor, for example, is never collected into a List).
+     * @param elements Iterator over the elements to write.
+     */
+    public void writeElements(Iterator<?> elements)
+    {
+        while (elements.hasNext())
+        {
+            writeElement(elements.next());
+        }
+    }
+
+    /**
+     * Write each element of the passed in Stream, in encounter order, as writeElement() does.  The Stream is
+     * consumed lazily, one element at a time, and is not closed.
+     * @param elements Stream of the elements to write.
+     */
+    public void writeElements(Stream<?> elements)
+    {
+        writeElements(elements.iterator());
+    }
+
+    /**
+     * Write the next field of the root object opened with beginObject().  The value is written with the same output
+     * as a Map value (including @type and custom writers).  The output is not flushed until endObject().
+     * @param name String field name.
+     * @param value Object field value, can be null.
+     */
+    public void writeField(String name, Object value)
+    {
+        Convention.throwIfNull(name, "Field name cannot be null");
+        checkStream(true, "writeField()");
+        try
+        {
+            beginStreamEntry();
+            writeJsonUtf8String(out, name, writeOptions);
+            out.write(':');
+            writeStreamValue(value);
+        }
+        catch (JsonIoException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw new JsonIoException("Error writing object to JSON:", e);
+        }
+    }
+
+    /**
+     * Close the root array opened with beginArray(), and flush the output.
+     */
+    public void endArray()
+    {
+        endStream(false);
+    }
+
+    /**
+     * Close the root object opened with beginObject(), and flush the output.
+     */
+    public void endObject()
+    {
+        endStream(true);
+    }
+
+    private void endStream(boolean object)
+    {
+        checkStream(object, object ? "endObject()" : "endArray()");
+        try
+        {
+            if (!streamEmpty)
+            {
+                tabOut();
+            }
+            out.write(object ? '}' : ']');
+        }
+        catch (IOException e)
+        {
+            throw new JsonIoException("Error writing object to JSON:", e);
+        }
+        streamScope = null;
+        streamDefined = null;
+        flush();
+        objVisited.clear();
+        objsReferenced.clear();
+    }
+
+    private void checkStream(boolean object, String method)
+    {
+        if (streamScope == null || streamingObject != object)
+        {
+            throw new JsonIoException(method + " must be called between " + (object ? "beginObject() and endObject()." : "beginArray() and endArray()."));
+        }
+    }
+
+    private void beginStreamEntry() throws IOException
+    {
+        if (streamEmpty)
+        {
+            streamEmpty = false;
+            tabIn();
+        }
+        else
+        {
+            out.write(',');
+            newLine();
+        }
+    }
+
+    /**
+     * Trace and write one element (or field value) of a root array (or object) that is written incrementally.  The
+     * id counter is never reset while the root is open, so ids stay unique across elements.
+     */
+    private void writeStreamValue(Object value) throws IOException
+    {
+        if (streamScope == ReferenceScope.ELEMENT)
+        {
+            objsReferenced.clear();
+        }
+        resetStreamVisited();
+        if (value != null)
+        {
+            trace(value);
+        }
+        resetStreamVisited();
+        writeCollectionElement(value);
+        if (streamDefined != null)
+        {   // Every object written in full (see defineInStream()) now has its @id.
+            streamDefined.putAllIds(objsReferenced);
+        }
+    }
+
+    /**
+     * Reset objVisited to the objects already defined (written with an @id) by earlier elements, which is none
+     * with ReferenceScope.ELEMENT.  Tracing does not descend into them again, and writing them emits an @ref.
+     */
+    private void resetStreamVisited()
+    {
+        objVisited.clear();
+        if (streamDefined != null)
+        {
+            objVisited.putAllIds(streamDefined);
+        }
+    }
+
+    /**
+     * Walk object graph and visit each instance, following each field, each Collection, Map and so on.
+     * Tracks visited to handle cycles and to determine if an item is referenced elsewhere.  If an
+     * object is never referenced more than once, no @id field needs to be emitted for it.
+     * @param root Object to be deeply traced.  The objVisited and objsReferenced Maps will be written to
+     * during the trace.
+     */
+    protected void traceReferences(Object root) {
+        if (root == null) {
+            return;
+        }
+
+        final Deque<Object> stack = new ArrayDeque<>();
+        stack.addFirst(root);
+
+        while (!stack.isEmpty())
+        {
+            final Object obj = stack.removeFirst();
+
+            if (!writeOptions.isNonReferenceableClass(obj.getClass()) && !visit(obj))
+            {   // Only write an object once.
+                continue;
+            }
+            traceChildren(stack, obj);
+        }
+    }
+
+    /**
+     * Same classification as traceReferences() (objsReferenced ends up holding exactly the objects reachable
+     * more than once), computed by ParallelReferenceTracer on the common ForkJoinPool.  The order in which the
+     * workers meet objects is not deterministic, so ids are not assigned here: each referenced object is marked
+     * PENDING_ID and receives the next id when it is first written, which keeps the output stable.
+     * @param root Object to be deeply traced.
+     */
+    private void traceReferencesInParallel(Object root)
+    {
+        if (root == null)
+        {
+            return;
+        }
+        parallelTracer = new ParallelReferenceTracer(this, writeOptions);
+        try
+        {
+            parallelTracer.trace(root);
+            parallelTracer.collectReferenced(objsReferenced, PENDING_ID);
+        }
+        finally
+        {
+            parallelTracer = null;
+        }
+    }
+
+    /**
+     * Push the objects directly referenced by the passed in object (array elements, Map keys and values,
+     * Collection items, or fields) onto the trace stack.  Called by traceReferences() and by the workers of
+     * ParallelReferenceTracer, each with its own stack.
+     */
+    void traceChildren(final Deque<Object> stack, final Object obj)
+    {
+        final Class<?> clazz = obj.getClass();
+
+        if (clazz.isArray())
+        {
+            if (!writeOptions.isNonReferenceableClass(clazz.getComponentType()))
+            {   // Speed up: do not traceReferences of primitives, they cannot reference anything
+                final int len = Array.getLength(obj);
+
+                for (int i = 0; i < len; i++)
+                {
+                    final Object o = Array.get(obj, i);
+                    if (o != null)
+                    {   // Slight perf gain (null is legal)
+                        stack.addFirst(o);
+                    }
+                }
+            }
+        }
+        else if (Map.class.isAssignableFrom(clazz))
+        {   // Speed up - logically walk maps, as opposed to following their internal structure.
+            try
+            {
+                Map map = (Map) obj;
+                for (final Object item : map.entrySet())
+                {
+                    final Entry entry = (Entry) item;
+                    Object key = entry.getKey();
+                    Object value = entry.getValue();
+                    if (value != null && !writeOptions.isNonReferenceableClass(value.getClass()))
+                    {
+                        stack.addFirst(value);
+                    }
+                    if (key != null && !writeOptions.isNonReferenceableClass(key.getClass()))
+                    {
+                        stack.addFirst(key);
+                    }
+                }
+            }
+            catch (UnsupportedOperationException e)
+            {
+                // Some kind of Map that does not support .entrySet() - some Maps throw UnsupportedOperation for
+                // this API.  Do not attempt any further tracing of references.  Likely a ClassLoader field or
+                // something unusual like that.
+            }
+        }
+        else if (Collection.class.isAssignableFrom(clazz))
+        {
+            for (final Object item : (Collection)obj)
+            {
+                if (item != null && !writeOptions.isNonReferenceableClass(item.getClass()))
+                {
+                    stack.addFirst(item);
+                }
+            }
+        }
+        else
+        {   // Speed up: do not traceReferences of non-referenceable classes
+            if (!writeOptions.isNonReferenceableClass(obj.getClass()))
+            {
+                traceFields(stack, obj);
+            }
+        }
+    }
+
+    /**
+     * Reach-ability trace to visit all objects within the graph to be written.
+     * This API will handle any object, using either reflection APIs or by
+     * consulting a specified includedFields map if provided.
+     * @param stack Deque used to manage descent into graph (rather than using Java stack.) This allows for
+     * much larger graph processing.
+     * @param obj Object root of graph
+     * the JDK reflection operations.  This allows a subset of the actual fields on an object to be serialized.
+     */
+    protected void traceFields(final Deque<Object> stack, final Object obj)
+    {
+        // Accessor.retrieve() returns null (rather than throwing) for a field or getter that cannot be read.
+        if (writeOptions instanceof WriteOptionsBuilder.DefaultWriteOptions)
+        {   // Follow only the fields that can hold a referenceable object, visit leaf objects without pushing them.
+            final WriteOptionsBuilder.DefaultWriteOptions options = (WriteOptionsBuilder.DefaultWriteOptions) writeOptions;
+            for (final Accessor accessor : options.getWritePlan(obj.getClass()).getTraceAccessors())
+            {
+                final Object o = accessor.retrieve(obj);
+                if (o != null && !options.isNonReferenceableClass(o.getClass()))
+                {
+                    if (!options.getWritePlan(o.getClass()).isTraceLeaf())
+                    {
+                        stack.addFirst(o);
+                    }
+                    else
+                    {
+                        visit(o);
+                    }
+                }
+            }
+            return;
+        }
+
+        // If caller has special Field specifier for a given class
+        // then use it, otherwise use reflection.
+        Collection<Accessor> fields = writeOptions.getAccessorsForClass(obj.getClass());
+
+        for (final Accessor accessor : fields)
+        {
+            final Object o = accessor.retrieve(obj);
+            if (o != null && !writeOptions.isNonReferenceableClass(o.getClass()))
+            {   // Trace through objects that can reference other objects
+                stack.addFirst(o);
+            }
+        }
+    }
+
+    /**
+     * Record one (more) sighting of a referenceable object during traceReferences().
+     * @return true the first time the object is seen (its contents still need tracing), false after that.  The
+     * second sighting gives the object its id and marks it referenced.
+     */
+    private boolean visit(final Object obj)
+    {
+        if (parallelTracer != null)
+        {
+            return parallelTracer.visit(obj);
+        }
+        long id = objVisited.getId(obj, -1);
+        if (id < 0)
+        {   // Initially, mark an object with 0 as the ID, in case it is never referenced.
+            objVisited.putId(obj, 0);
+            return true;
+        }
+        if (id == 0)
+        {   // 2nd time this object has been seen, so give it a unique ID and mark it referenced
+            id = identity++;
+            objVisited.putId(obj, id);
+            objsReferenced.putId(obj, id);
+        }
+        return false;
+    }
+
+    private boolean writeOptionalReference(Object obj) throws IOException
+    {
+        if (obj == null || writeOptions.isNonReferenceableClass(obj.getClass()))
+        {
+            return false;
+        }
+
+        if (writeOptions.isTreeMode())
+        {   // objVisited holds only the objects on the path from the root to here (see leavePath()).
+            if (objVisited.containsKey(obj))
+            {
+                throw new JsonIoException("Cycle detected while writing in tree mode, instance of: " + obj.getClass().getName() +
+                        " contains itself.  Turn off treeMode to write graphs with shared or cyclic references.");
+            }
+            objVisited.putId(obj, 0);
+            return false;
+        }
+
+        final Writer output = this.out;
+        if (objVisited.containsKey(obj))
+        {    // Only write (define) an object once in the JSON stream, otherwise emit a @ref
+            long id = getId(obj);
+            if (id == 0)
+            {   // Test for no id because of Weak/Soft references being gc'd during serialization.
+                return false;
+            }
+            output.write(writeOptions.isShortMetaKeys() ? "{\"@r\":" : "{\"@ref\":");
+            writeLong(output, id);
+            output.write('}');
+            return true;
+        }
+
+        // Mark the object as visited by putting it in the Map (this map is re-used / clear()'d after walk()).
+        objVisited.putId(obj, 0);
+        return false;
+    }
+
+    /**
+     * With ReferenceScope.STREAM, mark an object about to be written in full as referenced, so that it is written
+     * with an @id that a later element can refer to, even if it appears only once in each element.  Objects written
+     * in a primitive form by a custom writer are left out: like Strings, they are repeated rather than referenced.
+     */
+    private void defineInStream(Object obj)
+    {
+        if (streamDefined != null && !writeOptions.isTreeMode() && !writeOptions.isNonReferenceableClass(obj.getClass())
+                && !objsReferenced.containsKey(obj))
+        {
+            objsReferenced.putId(obj, PENDING_ID);
+        }
+    }
+
+    /**
+     * In tree mode, take an object that has been completely written off the current path, so that it can be
+     * written again (as a copy) elsewhere in the tree.
+     */
+    private void leavePath(Object obj)
+    {
+        if (writeOptions.isTreeMode())
+        {
+            objVisited.remove(obj);
+        }
+    }
+
+    /**
+     * Main entry point (mostly used internally, but may be called from a Custom JSON writer).
+     * This method will write out whatever object type it is given, including JsonObject's.
+     * It will handle null, detecting if a custom writer should be called, array, array of
+     * JsonObject, Map, Map of JsonObjects, Collection, Collection of JsonObject, any regular
+     * object, or a JsonObject representing a regular object.
+     * @param obj Object to be written
+     * @param showType if set to true, the @type tag will be output. 
+     * @throws IOException if one occurs on the underlying output stream.
+     */
+    public void writeImpl(Object obj, boolean showType) throws IOException {
+        // For security - write instances of ProcessBuilder, Process, ClassLoader, Constructor, Method and Field out as null
+        final WriteKind kind = obj == null ? WriteKind.BLOCKED : WRITE_KINDS.get(obj.getClass());
+        if (kind == WriteKind.BLOCKED) {
+            out.write("null");
+            return;
+        }
+
+        if (writeOptions.isNeverShowingType()) {
+            showType = false;
+        }
+
+        if (writeUsingCustomWriter(obj, showType, out) || writeOptionalReference(obj)) {
+            return;
+        }
+        defineInStream(obj);
+
+        switch (kind) {
+            case ENUM_SET:
+                writeEnumSet((EnumSet<?>) obj);
+                break;
+            case COLLECTION:
+                writeCollection((Collection<?>) obj, showType);
+                break;
+            case JSON_OBJECT:   // symmetric support for writing Map of Maps representation back as equivalent JSON format.
+                JsonObject jObj = (JsonObject) obj;
+                if (jObj.isArray()) {
+                    writeJsonObjectArray(jObj, showType);
+                } else if (jObj.isCollection()) {
+                    writeJsonObjectCollection(jObj, showType);
+                } else if (jObj.isMap()) {
+                    if (!writeJsonObjectMapWithStringKeys(jObj, showType)) {
+                        writeJsonObjectMap(jObj, showType);
+                    }
+                } else {
+                    writeJsonObjectObject(jObj, showType);
+                }
+                break;
+            case MAP:
+                if (!writeMapWithStringKeys((Map) obj, showType)) {
+                    writeMap((Map) obj, showType);
+                }
+                break;
+            case OBJECT:
+                writeObject(obj, showType, false);
+                break;
+            default:
+                writeArray(obj, showType, kind);
+                break;
+        }
+        leavePath(obj);
+    }
+
+    private void writeId(final long id) throws IOException
+    {
+        out.write(writeOptions.isShortMetaKeys() ? "\"" + SHORT_ID + "\":" : "\"" + ID + "\":");
+        writeLong(out, id);
+    }
+
+    /**
+     * Write the @type member for the passed in class, pre-built by its write plan when there is one.
+     */
+    private void writeType(Class<?> c, Writer output) throws IOException {
+        if (writeOptions instanceof WriteOptionsBuilder.DefaultWriteOptions) {
+            final String typeField = ((WriteOptionsBuilder.DefaultWriteOptions) writeOptions).getWritePlan(c).getTypeField();
+            if (typeField != null) {
+                output.write(typeField);
+            }
+            return;
+        }
+        writeType(c.getName(), output);
+    }
+
+    private void writeType(String name, Writer output) throws IOException {
+        if (writeOptions.isNeverShowingType()) {
+            return;
+        }
+        output.write(writeOptions.isShortMetaKeys() ? "\"" + SHORT_TYPE + "\":\"" : "\"" + TYPE + "\":\"");
+        String alias = writeOptions.getTypeNameAlias(name);
+        output.write(alias);
+        output.write('"');
+    }
+
+    private void writePrimitive(final Object obj, boolean showType) throws IOException
+    {
+        if (writeOptions.isNeverShowingType())
+        {
+            showType = false;
+        }
+        if (obj instanceof Long && getWriteOptions().isWriteLongsAsStrings()) {
+            if (showType) {
+                out.write('{');
+                writeType("long", out);
+                out.write(',');
+            }
+
+            JsonClassWriter writer = getWriteOptions().getCustomWriter(Long.class);
+            writer.write(obj, showType, out, this);
+
+            if (showType) {
+                out.write('}');
+            }
+        } else if (!writeOptions.isAllowNanAndInfinity() && obj instanceof Double && (Double.isNaN((Double) obj) || Double.isInfinite((Double) obj))) {
+            out.write("null");
+        } else if (!writeOptions.isAllowNanAndInfinity() && obj instanceof Float && (Float.isNaN((Float) obj) || Float.isInfinite((Float) obj))) {
+            out.write("null");
+        } else if (obj instanceof Long || obj instanceof Integer || obj instanceof Short || obj instanceof Byte) {
+            writeLong(out, ((Number) obj).longValue());
+        } else if (obj instanceof Double) {
+            writeDouble(out, (Double) obj);
+        } else if (obj instanceof Float) {
+            writeFloat(out, (Float) obj);
+        } else {
+            out.write(obj.toString());
+        }
+    }
+
+    private void writeArray(final Object array, boolean showType, WriteKind kind) throws IOException
+    {
+        if (writeOptions.isNeverShowingType())
+        {
+            showType = false;
+        }
+        Class<?> arrayType = array.getClass();
+        int len = Array.getLength(array);
+        boolean referenced = objsReferenced.containsKey(array);
+        boolean typeWritten = showType && !(arrayType.equals(Object[].class));
+        final Writer output = this.out; // performance opt: place in final local for quicker access
+        
+        if (typeWritten || referenced)
+        {
+            output.write('{');
+            tabIn();
+        }
+
+        if (referenced)
+        {
+            writeId(getId(array));
+            output.write(',');
+            newLine();
+        }
+
+        if (typeWritten)
+        {
+            writeType(arrayType, output);
+            output.write(',');
+            newLine();
+        }
+
+        if (len == 0)
+        {
+            if (typeWritten || referenced)
+            {
+                output.write(writeOptions.isShortMetaKeys() ? "\"@e\":[]" : "\"@items\":[]");
+                tabOut();
+                output.write('}');
+            }
+            else
+            {
+                output.write("[]");
+            }
+            return;
+        }
+
+
+        if (typeWritten || referenced)
+        {
+            output.write(writeOptions.isShortMetaKeys() ? "\"@e\":[" : "\"@items\":[");
+        }
+        else
+        {
+            output.write('[');
+        }
+        tabIn();
+
+        final int lenMinus1 = len - 1;
+
+        // Intentionally processing each primitive array type in separate
+        // custom loop for speed. All of them could be handled using
+        // reflective Array.get() but it is slower.  I chose speed over code length.
+
+
+        switch (kind)
+        {
+            case BYTE_ARRAY:
+                writeByteArray((byte[]) array, lenMinus1);
+                break;
+            case CHAR_ARRAY:
+                writeJsonUtf8String(output, new String((char[]) array), writeOptions);
+                break;
+            case SHORT_ARRAY:
+                writeShortArray((short[]) array, lenMinus1);
+                break;
+            case INT_ARRAY:
+                writeIntArray((int[]) array, lenMinus1);
+                break;
+            case LONG_ARRAY:
+                writeLongArray((long[]) array, lenMinus1);
+                break;
+            case FLOAT_ARRAY:
+                writeFloatArray((float[]) array, lenMinus1);
+                break;
+            case DOUBLE_ARRAY:
+                writeDoubleArray((double[]) array, lenMinus1);
+                break;
+            case BOOLEAN_ARRAY:
+                writeBooleanArray((boolean[]) array, lenMinus1);
+                break;
+            default:
+                writeObjectArray((Object[]) array, len);
+                break;
+        }
+
+        tabOut();
+        output.write(']');
+        if (typeWritten || referenced)
+        {
+            tabOut();
+            output.write('}');
+        }
+    }
+
+    private void writeObjectArray(final Object[] array, int len) throws IOException
+    {
+        if (array == parallelRoot)
+        {
+            parallelRoot = null;
+            writeElementsInParallel(len, (writer, from, to) -> writer.writeArrayElements(array, from, to));
+        }
+        else
+        {
+            writeArrayElements(array, 0, len);
+        }
+    }
+
+    /**
+     * Write elements [from, to) of an array of objects, separated by commas.
+     */
+    private void writeArrayElements(final Object[] array, int from, int to) throws IOException
+    {
+        final Writer output = this.out;
+        final Class<?> componentClass = array.getClass().getComponentType();
+        final int lastIndex = to - 1;
+        for (int i = from; i < to; i++)
+        {
+            final Object value = array[i];
+
+            if (value == null) {
+                output.write("null");
+            } else {
+                final boolean forceType = isForceType(value.getClass(), componentClass);
+                if (!writeArrayElementIfMatching(componentClass, value, forceType, output)) {
+                    writeImpl(value, forceType);
+                }
+            }
+
+            if (i != lastIndex)
+            {   // Make sure no bogus comma at the end of the array
+                output.write(',');
+                newLine();
+            }
+        }
+    }
+
+    private void writeBooleanArray(boolean[] booleans, int lenMinus1) throws IOException
+    {
+        final Writer output = this.out;
+        for (int i = 0; i < lenMinus1; i++)
+        {
+            output.write(booleans[i] ? "true," : "false,");
+        }
+        output.write(Boolean.toString(booleans[lenMinus1]));
+    }
+
+    private void writeDoubleArray(double[] doubles, int lenMinus1) throws IOException
+    {
+        final Writer output = this.out;
+        final JsonClassWriter writer = getWriteOptions().getCustomWriter(Double.class);
+        for (int i = 0; i < lenMinus1; i++)
+        {
+            writer.write(doubles[i], false, output, this);
+            output.write(',');
+        }
+        writer.write(doubles[lenMinus1], false, output, this);
+    }
+
+    private void writeFloatArray(float[] floats, int lenMinus1) throws IOException
+    {
+        final Writer output = this.out;
+        final JsonClassWriter writer = getWriteOptions().getCustomWriter(Float.class);
+        for (int i = 0; i < lenMinus1; i++)
+        {
+            writer.write(floats[i], false, output, this);
+            output.write(',');
+        }
+
+        writer.write(floats[lenMinus1], false, output, this);
+    }
+
+    private void writeLongArray(long[] longs, int lenMinus1) throws IOException
+    {
+        final Writer output = this.out;
+
+        JsonClassWriter writer = getWriteOptions().getCustomWriter(long.class);
+        for (int i = 0; i < lenMinus1; i++) {
+            writer.write(longs[i], false, output, this);
+            output.write(',');
+        }
+        writer.write(longs[lenMinus1], false, output, this);
+
+    }
+
+    private void writeIntArray(int[] ints, int lenMinus1) throws IOException
+    {
+        final Writer output = this.out;
+        for (int i = 0; i < lenMinus1; i++)
+        {
+            writeLong(output, ints[i]);
+            output.write(',');
+        }
+        writeLong(output, ints[lenMinus1]);
+    }
+
+    private void writeShortArray(short[] shorts, int lenMinus1) throws IOException
+    {
+        final Writer output = this.out;
+        for (int i = 0; i < lenMinus1; i++)
+        {
+            writeLong(output, shorts[i]);
+            output.write(',');
+        }
+        writeLong(output, shorts[lenMinus1]);
+    }
+
+    private void writeByteArray(byte[] bytes, int lenMinus1) throws IOException
+    {
+        final Writer output = this.out;
+        final Object[] byteStrs = byteStrings;
+        for (int i = 0; i < lenMinus1; i++)
+        {
+            output.write((char[]) byteStrs[bytes[i] + 128]);
+            output.write(',');
+        }
+        output.write((char[]) byteStrs[bytes[lenMinus1] + 128]);
+    }
+
+    private void writeCollection(Collection<?> col, boolean showType) throws IOException
+    {
+        if (writeOptions.isNeverShowingType())
+        {
+            showType = false;
+        }
+        final Writer output = this.out;
+        boolean referenced = this.objsReferenced.containsKey(col);
+        boolean isEmpty = col.isEmpty();
+
+        if (referenced || showType)
+        {
+            output.write('{');
+            tabIn();
+        }
+        else if (isEmpty)
+        {
+            output.write('[');
+        }
+
+        writeIdAndTypeIfNeeded(col, showType, referenced);
+
+        if (isEmpty)
+        {
+            if (referenced || showType)
+            {
+                tabOut();
+                output.write('}');
+            }
+            else
+            {
+                output.write(']');
+            }
+            return;
+        }
+
+        beginCollection(showType, referenced);
+        if (col == parallelRoot)
+        {
+            parallelRoot = null;
+            final Object[] items = col.toArray();
+            writeElementsInParallel(items.length, (writer, from, to) -> writer.writeElements(writer.out, Arrays.asList(items).subList(from, to).iterator()));
+        }
+        else
+        {
+            writeElements(output, col.iterator());
+        }
+
+        tabOut();
+        output.write(']');
+        if (showType || referenced)
+        {   // Finished object, as it was output as an object if @id or @type was output
+            tabOut();
+            output.write("}");
+        }
+    }
+
+    private void writeElements(Writer output, Iterator<?> i) throws IOException
+    {
+        while (i.hasNext())
+        {
+            writeCollectionElement(i.next());
+
+            if (i.hasNext())
+            {
+                output.write(',');
+                newLine();
+            }
+        }
+    }
+
+    private void writeIdAndTypeIfNeeded(Object col, boolean showType, boolean referenced) throws IOException
+    {
+        if (writeOptions.isNeverShowingType())
+        {
+            showType = false;
+        }
+        if (referenced)
+        {
+            writeId(getId(col));
+        }
+
+        if (showType)
+        {
+            if (referenced)
+            {
+                out.write(',');
+                newLine();
+            }
+            writeType(col.getClass(), out);
+        }
+    }
+
+    private void beginCollection(boolean showType, boolean referenced) throws IOException
+    {
+        if (showType || referenced)
+        {
+            out.write(',');
+            newLine();
+            out.write(writeOptions.isShortMetaKeys() ? "\"@e\":[" : "\"@items\":[");
+        }
+        else
+        {
+            out.write('[');
+        }
+        tabIn();
+    }
+
+    private void writeJsonObjectArray(JsonObject jObj, boolean showType) throws IOException {
+        if (writeOptions.isNeverShowingType()) {
+            showType = false;
+        }
+        int len = jObj.getLength();
+        Class<?> arrayClass;
+        Class<?> jsonObjectType = jObj.getJavaType();
+        if (jsonObjectType == null || Object[].class.equals(jsonObjectType)) {
+            arrayClass = Object[].class;
+        } else {
+            arrayClass = jsonObjectType;
+        }
+
+        final Writer output = this.out;
+        final boolean isObjectArray = Object[].class == arrayClass;
+        final Class<?> componentClass = arrayClass.getComponentType();
+        boolean referenced = adjustIfReferenced(jObj);
+        boolean typeWritten = showType && !isObjectArray;
+
+        if (typeWritten || referenced) {
+            output.write('{');
+            tabIn();
+        }
+
+        if (referenced) {
+            writeId(jObj.id);
+            output.write(',');
+            newLine();
+        }
+
+        if (typeWritten) {
+            writeType(arrayClass.getName(), output);
+            output.write(',');
+            newLine();
+        }
+
+        if (len == 0) {
+            if (typeWritten || referenced) {
+                output.write(writeOptions.isShortMetaKeys() ? "\"@e\":[]" : "\"@items\":[]");
+                tabOut();
+                output.write("}");
+            } else {
+                output.write("[]");
+            }
+            return;
+        }
+
+        if (typeWritten || referenced) {
+            output.write(writeOptions.isShortMetaKeys() ? "\"@e\":[" : "\"@items\":[");
+        } else {
+            output.write('[');
+        }
+        tabIn();
+
+        Object[] items = jObj.getJsonArray();
+        final int lenMinus1 = len - 1;
+
+        for (int i = 0; i < len; i++) {
+            final Object value = items[i];
+
+            if (value == null) {
+                output.write("null");
+            } else {
+                final boolean forceType = isForceType(value.getClass(), componentClass);
+                if (writeArrayElementIfMatching(componentClass, value, forceType, output)) {
+                } else if (Character.class == componentClass || char.class == componentClass) {
+                    writeJsonUtf8String(output, (String) value, writeOptions);
+                } else if (value instanceof String) {
+                    writeJsonUtf8String(output, (String) value, writeOptions);
+                } else if (value instanceof Boolean || value instanceof Long || value instanceof Double) {
+                    writePrimitive(value, forceType);
+                } else {   // Specific Class-type arrays - only force type when
+                    // the instance is derived from array base class.
+                    writeImpl(value, forceType);
+                }
+            }
+
+            if (i != lenMinus1) {
+                output.write(',');
+                newLine();
+            }
+        }
+
+        tabOut();
+        output.write(']');
+        if (typeWritten || referenced) {
+            tabOut();
+            output.write('}');
+        }
+    }
+
+    private void writeJsonObjectCollection(JsonObject jObj, boolean showType) throws IOException
+    {
+        if (writeOptions.isNeverShowingType())
+        {
+            showType = false;
+        }
+        Class<?> colClass = jObj.getJavaType();
+        boolean referenced = adjustIfReferenced(jObj);
+        final Writer output = this.out;
+        int len = jObj.getLength();
+
+        if (referenced || showType || len == 0)
+        {
+            output.write('{');
+            tabIn();
+        }
+
+        if (referenced)
+        {
+            writeId(jObj.id);
+        }
+
+        if (showType)
+        {
+            if (referenced)
+            {
+                output.write(',');
+                newLine();
+            }
+
+            writeType(colClass.getName(), output);
+        }
+
+        if (len == 0)
+        {
+            tabOut();
+            output.write('}');
+            return;
+        }
+
+        beginCollection(showType, referenced);
+
+        Object[] items = jObj.getJsonArray();
+        final int itemsLen = items.length;
+        final int itemsLenMinus1 = itemsLen - 1;
+
+        for (int i=0; i < itemsLen; i++)
+        {
+            writeCollectionElement(items[i]);
+
+            if (i != itemsLenMinus1)
+            {
+                output.write(',');
+                newLine();
+            }
+        }
+
+        tabOut();
+        output.write("]");
+        if (showType || referenced)
+        {
+            tabOut();
+            output.write('}');
+        }
+    }
+
+    private void writeJsonObjectMap(JsonObject jObj, boolean showType) throws IOException
+    {
+        if (writeOptions.isNeverShowingType())
+        {
+            showType = false;
+        }
+        final Writer output = this.out;
+        showType = emitIdAndTypeIfNeeded(jObj, showType, output);
+
+        if (jObj.isEmpty())
+        {   // Empty
+            tabOut();
+            output.write('}');
+            return;
+        }
+
+        if (showType)
+        {
+            output.write(',');
+            newLine();
+        }
+
+        writeMapToEnd(jObj, output);
+    }
+
+    private boolean writeJsonObjectMapWithStringKeys(JsonObject jObj, boolean showType) throws IOException
+    {
+        if (writeOptions.isNeverShowingType())
+        {
+            showType = false;
+        }
+
+        if (writeOptions.isForceMapOutputAsTwoArrays() || !ensureJsonPrimitiveKeys(jObj))
+        {
+            return false;
+        }
+
+        Writer output = this.out;
+        emitIdAndTypeIfNeeded(jObj, showType, output);
+
+        if (jObj.isEmpty())
+        { // Empty
+            tabOut();
+            output.write('}');
+            return true;
+        }
+
+        if (showType)
+        {
+            output.write(',');
+            newLine();
+        }
+
+        return writeMapBody(jObj.entrySet().iterator());
+    }
+
+    private boolean emitIdAndTypeIfNeeded(JsonObject jObj, boolean showType, Writer output) throws IOException
+    {
+        boolean referenced = adjustIfReferenced(jObj);
+        output.write('{');
+        tabIn();
+
+        if (referenced)
+        {
+            writeId(jObj.getId());
+        }
+
+        if (showType)
+        {
+            if (referenced)
+            {
+                output.write(',');
+                newLine();
+            }
+            String type = jObj.getJavaTypeName();
+            if (type != null)
+            {
+                writeType(type, output);
+            }
+            else
+            {   // type not displayed
+                showType = false;
+            }
+        }
+        return showType;
+    }
+
+    /**
+     * Write fields of an Object (JsonObject)
+     */
+    private void writeJsonObjectObject(JsonObject jObj, boolean showType) throws IOException
+    {
+        if (writeOptions.isNeverShowingType())
+        {
+            showType = false;
+        }
+        final Writer output = this.out;
+
+        boolean referenced = adjustIfReferenced(jObj);
+
+        showType = showType && jObj.getJavaType() != null;
+
+        output.write('{');
+        tabIn();
+        if (referenced)
+        {
+            writeId(jObj.id);
+        }
+
+        Class<?> type = null;
+        if (showType)
+        {
+            if (referenced)
+            {
+                output.write(',');
+                newLine();
+            }
+            writeType(jObj.getJavaTypeName(), output);
+            type = jObj.getJavaType();
+        }
+
+        if (jObj.isEmpty())
+        {
+            tabOut();
+            output.write('}');
+            return;
+        }
+
+        if (showType || referenced)
+        {
+            output.write(',');
+            newLine();
+        }
+
+        Iterator<Map.Entry<Object, Object>> i = jObj.entrySet().iterator();
+        boolean first = true;
+
+        while (i.hasNext())
+        {
+            Map.Entry<Object, Object> entry = i.next();
+            if (writeOptions.isSkipNullFields() && entry.getValue() == null)
+            {
+                continue;
+            }
+
+            if (!first)
+            {
+                output.write(',');
+                newLine();
+            }
+            first = false;
+            final String fieldName = (String) entry.getKey();
+            output.write('"');
+            output.write(fieldName);
+            output.write("\":");
+            Object value = entry.getValue();
+
+            if (value == null)
+            {
+                output.write("null");
+            }
+            else if (value instanceof BigDecimal || value instanceof BigInteger)
+            {
+                writeImpl(value, !doesValueTypeMatchFieldType(type, fieldName, value));
+            } else if (value instanceof Number || value instanceof Boolean) {
+                output.write(value.toString());
+            } else if (value instanceof String) {
+                writeJsonUtf8String(output, (String) value, writeOptions);
+            } else if (value instanceof Character) {
+                writeJsonUtf8String(output, String.valueOf(value), writeOptions);
+            }
+            else
+            {
+                writeImpl(value, !doesValueTypeMatchFieldType(type, fieldName, value));
+            }
+        }
+        tabOut();
+        output.write('}');
+    }
+
+    private boolean adjustIfReferenced(JsonObject jObj)
+    {
+        long idx = jObj.hasId() ? 0 : referencedId(jObj);
+        if (idx > 0)
+        {   // Referenced object that needs an ID copied to it.
+            jObj.id = idx;
+        }
+        return objsReferenced.containsKey(jObj) && jObj.hasId();
+    }
+
+    // Hopefully this method goes away when the converters are done.
+    // We're asking for a DeepDeclaredFields to check One Field Type
+    // Its cached, but we shouldn't have to do that here.  I would think if its a known converter type
+    // that we avoid this section all together.
+    private boolean doesValueTypeMatchFieldType(Class<?> type, String fieldName, Object value)
+    {
+        if (type != null)
+        {
+            Map<String, Field> fieldMap = writeOptions.getDeepDeclaredFields(type);
+            Field field = fieldMap.get(fieldName);
+            return field != null && field.getType().equals(value.getClass());
+        }
+        return false;
+    }
+
+    private void writeMap(Map map, boolean showType) throws IOException
+    {
+        if (writeOptions.isNeverShowingType())
+        {
+            showType = false;
+        }
+        final Writer output = this.out;
+        boolean referenced = this.objsReferenced.containsKey(map);
+
+        output.write('{');
+        tabIn();
+        if (referenced)
+        {
+            writeId(getId(map));
+        }
+
+        if (showType)
+        {
+            if (referenced)
+            {
+                output.write(',');
+                newLine();
+            }
+            writeType(map.getClass(), output);
+        }
+
+        if (map.isEmpty())
+        {
+            tabOut();
+            output.write('}');
+            return;
+        }
+
+        if (showType || referenced)
+        {
+            output.write(',');
+            newLine();
+        }
+
+        writeMapToEnd(map, output);
+    }
+
+    private void writeMapToEnd(Map map, Writer output) throws IOException
+    {
+        output.write(writeOptions.isShortMetaKeys() ? "\"@k\":[" : "\"@keys\":[");
+        tabIn();
+        Iterator<?> i = map.keySet().iterator();
+
+        writeElements(output, i);
+
+        tabOut();
+        output.write("],");
+        newLine();
+        output.write(writeOptions.isShortMetaKeys() ? "\"@e\":[" : "\"@items\":[");
+        tabIn();
+        i = map.values().iterator();
+
+        writeElements(output, i);
+
+        tabOut();
+        output.write(']');
+        tabOut();
+        output.write('}');
+    }
+    
+    private boolean writeMapWithStringKeys(Map map, boolean showType) throws IOException
+    {
+        if (writeOptions.isNeverShowingType())
+        {
+            showType = false;
+        }
+        if (writeOptions.isForceMapOutputAsTwoArrays() || !ensureJsonPrimitiveKeys(map))
+        {
+            return false;
+        }
+
+        boolean referenced = this.objsReferenced.containsKey(map);
+
+        out.write('{');
+        tabIn();
+        writeIdAndTypeIfNeeded(map, showType, referenced);
+
+        if (map.isEmpty())
+        {
+            tabOut();
+            out.write('}');
+            return true;
+        }
+
+        if (showType || referenced)
+        {
+            out.write(',');
+            newLine();
+        }
+
+        return writeMapBody(map.entrySet().iterator());
+    }
+
+    private boolean writeMapBody(final Iterator i) throws IOException {
+        final Writer output = out;
+        while (i.hasNext()) {
+            Entry att2value = (Entry) i.next();
+            Object value = att2value.getValue();
+            
+            if (writeOptions.isSkipNullFields() && value == null) {
+                continue;
+            }
+            
+            writeJsonUtf8String(output, (String) att2value.getKey(), writeOptions);
+            output.write(":");
+            writeCollectionElement(value);
+
+            if (i.hasNext()) {
+                output.write(',');
+                newLine();
+            }
+        }
+
+        tabOut();
+        output.write('}');
+        return true;
+    }
+
+    /**
+     * Ensure that all keys within the Map are String instances
+     * @param map Map to inspect that all keys are primitive.  This allows the output JSON
+     *            to be optimized into {"key1":value1, "key2": value2} format if all the
+     *            keys of the Map are Strings.  If not, then a Map is written as two
+     *            arrays, a @keys array and an @items array.  This allows support for Maps
+     *            with non-String keys.
+     */
+    public static boolean ensureJsonPrimitiveKeys(Map map)
+    {
+        for (Object o : map.keySet()) {
+            if (!(o instanceof String)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write an element that is contained in some type of Collection or Map.
+     * @param o Collection element to output in JSON format.
+     * @throws IOException if an error occurs writing to the output stream.
+     */
+    private void writeCollectionElement(Object o) throws IOException
+    {
+        if (o == null) {
+            out.write("null");
+        } else if (o instanceof Boolean || o instanceof Double) {
+            writePrimitive(o, false);
+        } else if (o instanceof Long) {
+            writePrimitive(o, getWriteOptions().isWriteLongsAsStrings());
+        } else if (o instanceof String) {   // Never do an @ref to a String (they are treated as logical primitives and intern'ed on read)
+            writeJsonUtf8String(out, (String) o, writeOptions);
+        } else if (getWriteOptions().isNeverShowingType() && MetaUtils.isPrimitive(o.getClass())) {   // If neverShowType, then force primitives (and primitive wrappers)
+            // to be output with toString() - prevents {"value":6} for example
+            writePrimitive(o, false);
+        } else {
+            writeImpl(o, true);
+        }
+    }
+
+    private void writeEnumSet(final EnumSet<?> enumSet) throws IOException
+    {
+        out.write('{');
+        tabIn();
+
+        boolean referenced = this.objsReferenced.containsKey(enumSet);
+        if (referenced)
+        {
+            writeId(getId(enumSet));
+            out.write(',');
+            newLine();
+        }
+
+        out.write("\"@enum\":");
+
+        Enum<? extends Enum<?>> ee = null;
+        if (!enumSet.isEmpty())
+        {
+            ee = enumSet.iterator().next();
+        }
+        else
+        {
+            EnumSet<? extends Enum<?>> complement = EnumSet.complementOf(enumSet);
+            if (!complement.isEmpty())
+            {
+                ee = complement.iterator().next();
+            }
+        }
+
+        Field elementTypeField = writeOptions.getDeepDeclaredFields(EnumSet.class).get("elementType");
+
+        Class<?> elementType = (Class<?>) getValueByReflect(enumSet, elementTypeField);
+        if ( elementType != null)
+        {
+            // nice we got the right to sneak into
+        }
+        else if (ee == null)
+        {
+            elementType = MetaUtils.Dumpty.class;
+        }
+        else
+        {
+            elementType = ee.getClass();
+        }
+        writeBasicString(out, elementType.getName());
+
+        if (!enumSet.isEmpty())
+        {
+            Collection<Accessor> mapOfFields = writeOptions.getAccessorsForClass(elementType);
+            int enumFieldsCount = mapOfFields.size();
+
+            out.write(",");
+            newLine();
+
+            writeBasicString(out, "@items");
+            out.write(":[");
+            if (enumFieldsCount > 2)
+            {
+                newLine();
+            }
+
+            boolean firstInSet = true;
+            for (Enum e : enumSet)
+            {
+                if (!firstInSet)
+                {
+                    out.write(",");
+                    if (enumFieldsCount > 2)
+                    {
+                        newLine();
+                    }
+                }
+                firstInSet = false;
+
+                if (enumFieldsCount <= 2) {
+                    writeJsonUtf8String(out, e.name(), writeOptions);
+                }
+                else
+                {
+                    boolean firstInEntry = true;
+                    out.write('{');
+                    for (Accessor f : mapOfFields)
+                    {
+                        firstInEntry = writeField(e, firstInEntry, f.getUniqueFieldName(), f);
+                    }
+                    out.write('}');
+                }
+            }
+
+            out.write("]");
+        }
+        
+        tabOut();
+        out.write('}');
+    }
+
+    /**
+     * @param obj      Object to be written in JSON format
+     * @param showType boolean true means show the "@type" field, false
+     *                 eliminates it.  Many times the type can be dropped because it can be
+     *                 inferred from the field or array type.
+     * @param bodyOnly write only the body of the object
+     * @throws IOException if an error occurs writing to the output stream.
+     */
+    public void writeObject(final Object obj, boolean showType, boolean bodyOnly) throws IOException
+    {
+        if (writeOptions.isNeverShowingType())
+        {
+            showType = false;
+        }
+        final boolean referenced = this.objsReferenced.containsKey(obj);
+        if (!bodyOnly)
+        {
+            out.write('{');
+            tabIn();
+            if (referenced)
+            {
+                writeId(getId(obj));
+            }
+
+            if (referenced && showType)
+            {
+                out.write(',');
+                newLine();
+            }
+
+            if (showType)
+            {
+                writeType(obj.getClass(), out);
+            }
+        }
+
+        boolean first = !showType;
+        if (referenced && !showType)
+        {
+            first = false;
+        }
+
+        writeFields(obj, first);
+
+        if (!bodyOnly)
+        {
+            tabOut();
+            out.write('}');
+        }
+    }
+
+    /**
+     * Write the fields of the passed in object, with no leading comma, for a JsonClassWriter handing back an
+     * object after JsonWriter has written its @id / @type.
+     */
+    @Override
+    public void writeFields(Object obj) throws IOException
+    {
+        writeFields(obj, true);
+    }
+
+    private void writeFields(final Object obj, boolean first) throws IOException
+    {
+        if (writeOptions instanceof WriteOptionsBuilder.DefaultWriteOptions) {
+            ClassWritePlan plan = ((WriteOptionsBuilder.DefaultWriteOptions) writeOptions).getWritePlan(obj.getClass());
+            ClassWritePlan.FieldWriter[] fieldWriters = plan.getFieldWriters();
+            if (fieldWriters != null) {
+                final Writer output = this.out;
+                for (final ClassWritePlan.FieldWriter fieldWriter : fieldWriters) {
+                    first = fieldWriter.write(this, output, obj, first);
+                }
+            } else {
+                final List<Accessor> accessors = plan.getAccessors();
+                final ClassWritePlan.FieldName[] fieldNames = plan.getFieldNames();
+                for (int i = 0; i < fieldNames.length; i++) {
+                    first = writePlannedField(obj, first, fieldNames[i], accessors.get(i), null);
+                }
+            }
+        } else {
+            Collection<Accessor> accessors = writeOptions.getAccessorsForClass(obj.getClass());
+
+            for (final Accessor accessor : accessors) {
+                final String fieldName = accessor.getUniqueFieldName();
+                first = writeField(obj, first, fieldName, accessor);
+            }
+        }
+    }
+
+    private Object getValueByReflect(Object obj, Field field) {
+        try {
+            return field.get(obj);
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    boolean writeField(Object obj, boolean first, String fieldName, Accessor accessor) throws IOException
+    {
+        final Class<?> fieldDeclaringClass = accessor.getDeclaringClass();
+        Object o;
+
+        //  Only here for enumAsObject writing
+        if (Enum.class.isAssignableFrom(fieldDeclaringClass)) {
+            if (!accessor.isPublic() && writeOptions.isEnumPublicFieldsOnly()) {
+                return first;
+            }
+
+            o = accessor.retrieve(obj);
+        } else {
+            o = accessor.retrieve(obj);
+        }
+
+        if (writeOptions.isSkipNullFields() && o == null)
+        {   // If skip null, skip field and return the same status on first field written indicator
+            return first;
+        }
+
+        if (!first)
+        {
+            out.write(',');
+            newLine();
+        }
+
+        out.write("\"");
+        out.write(fieldName);   // Not using slower UTF String writer for field names
+        out.write("\":");
+
+        if (o == null)
+        {    // don't quote null
+            out.write("null");
+            return false;
+        }
+
+        // check to see if type needs to be written.
+        Class<?> type = accessor.getFieldType();
+        writeImpl(o, isForceType(o.getClass(), type));
+        return false;
+    }
+
+    /**
+     * writeField() for a class with a write plan: the field name is pre-encoded, and the @type decision may
+     * already have been made from the field's declared type.
+     * @param forceType whether to write the value's @type, or null to decide from the value's class.
+     */
+    boolean writePlannedField(Object obj, boolean first, ClassWritePlan.FieldName fieldName, Accessor accessor, Boolean forceType) throws IOException
+    {
+        if (!accessor.isPublic() && writeOptions.isEnumPublicFieldsOnly() && Enum.class.isAssignableFrom(accessor.getDeclaringClass()))
+        {   // Only here for enumAsObject writing
+            return first;
+        }
+
+        final Object o = accessor.retrieve(obj);
+        if (o == null)
+        {
+            if (writeOptions.isSkipNullFields())
+            {
+                return first;
+            }
+            fieldName.write(this, out, first);
+            out.write("null");
+            return false;
+        }
+
+        fieldName.write(this, out, first);
+        writeImpl(o, forceType == null ? isForceType(o.getClass(), accessor.getFieldType()) : forceType);
+        return false;
+    }
+
+    private boolean isForceType(Class<?> objectClass, Class<?> declaredType) {
+        return isForceType(objectClass, declaredType, writeOptions);
+    }
+
+    /**
+     * @return true if a value of class objectClass, held by a field (or array) declared as declaredType, must be
+     * written with its @type under the passed in WriteOptions.  Public for JsonClassWriters that write an object's
+     * fields themselves (such as the ones generated by json-io-apt), so that they write @type exactly when
+     * JsonWriter would.
+     */
+    public static boolean isForceType(Class<?> objectClass, Class<?> declaredType, WriteOptions writeOptions) {
+        // When no type is written we can check the Object itself not the declaration
+        final boolean writeLongsAsStrings = writeOptions.isWriteLongsAsStrings();
+        final boolean objectClassIsLongWrittenAsString = (objectClass == Long.class || objectClass == long.class) && writeLongsAsStrings;
+        final boolean declaredClassIsLongWrittenAsString = (declaredType == Long.class || objectClass == long.class) && writeLongsAsStrings;
+
+        if (Primitives.isNativeJsonType(objectClass) && !objectClassIsLongWrittenAsString) {
+            return false;
+        }
+
+        if (Primitives.isPrimitive(declaredType) && !declaredClassIsLongWrittenAsString) {
+            return false;
+        }
+
+        if (writeOptions.isNeverShowingType() && Primitives.isPrimitive(objectClass) && !objectClassIsLongWrittenAsString) {
+            return false;
+        }
+
+        if (writeOptions.isAlwaysShowingType()) {
+            return true;
+        }
+
+        if (objectClass == declaredType) {
+            return false;
+        }
+
+        if (declaredType.isEnum() && declaredType.isAssignableFrom(objectClass)) {
+            Optional<Class<?>> optionalClass = MetaUtils.getClassIfEnum(objectClass);
+            return declaredType != optionalClass.orElse(null);
+        }
+
+        return true;
+    }
+
+    public void flush()
+    {
+        try
+        {
+            if (out != null)
+            {
+                out.flush();
+            }
+        }
+        catch (Exception ignored) { }
+    }
+
+    public void close()
+    {
+        try
+        {
+            out.close();
+        }
+        catch (Exception ignore) { }
+    }
+
+    /**
+     * @return the @id of the passed in object, or 0 if it has none.
+     */
+    private long getId(Object o)
+    {
+        if (o instanceof JsonObject)
+        {
+            long id = ((JsonObject) o).id;
+            if (id > 0)
+            {
+                return id;
+            }
+        }
+        return referencedId(o);
+    }
+
+    /**
+     * @return the id of a referenced object (assigning it now, if the parallel tracer left it PENDING_ID), or 0
+     * if the object is not referenced.
+     */
+    private long referencedId(Object o)
+    {
+        long id = objsReferenced.getId(o, 0);
+        if (id == PENDING_ID)
+        {
+            id = identity++;
+            objsReferenced.putId(o, id);
+        }
+        return id;
+    }
+
+    /**
+     * Write the passed in value as JSON number, the same characters as Long.toString().  When writing to
+     * JsonWriter's own output (Utf8Writer), the digits go straight into its buffer, without creating a String.
+     *
+     * @param output Writer to which the number will be written.
+     * @param value  long value to write.
+     * @throws IOException if an error occurs writing to the output stream.
+     */
+    public static void writeLong(final Writer output, long value) throws IOException {
+        if (output instanceof Utf8Writer) {
+            ((Utf8Writer) output).writeLong(value);
+        } else {
+            output.write(Long.toString(value));
+        }
+    }
+
+    /**
+     * Write the passed in value as JSON number, the same characters as Double.toString().  Whole numbers below
+     * 10^7 (counts, ids, and amounts stored in doubles) are written as their digits plus ".0" without creating a
+     * String.  The caller decides how NaN and Infinity are written.
+     *
+     * @param output Writer to which the number will be written.
+     * @param value  double value to write.
+     * @throws IOException if an error occurs writing to the output stream.
+     */
+    public static void writeDouble(final Writer output, double value) throws IOException {
+        if (isSmallWholeNumber(value)) {
+            writeLong(output, (long) value);
+            output.write(".0");
+        } else {
+            output.write(Double.toString(value));
+        }
+    }
+
+    /**
+     * Write the passed in value as JSON number, the same characters as Float.toString().  Whole numbers below
+     * 10^7 are written without creating a String.
+     *
+     * @param output Writer to which the number will be written.
+     * @param value  float value to write.
+     * @throws IOException if an error occurs writing to the output stream.
+     */
+    public static void writeFloat(final Writer output, float value) throws IOException {
+        if (isSmallWholeNumber(value)) {
+            writeLong(output, (long) value);
+            output.write(".0");
+        } else {
+            output.write(Float.toString(value));
+        }
+    }
+
+    /**
+     * @return true if the value is a whole number with magnitude below 10^7 (and not -0.0), which Double.toString()
+     * and Float.toString() write in plain notation, as the integer digits followed by ".0".
+     */
+    private static boolean isSmallWholeNumber(double value) {
+        return value == (long) value && value < 1.0E7 && value > -1.0E7 && (value != 0.0 || Double.doubleToRawLongBits(value) == 0L);
+    }
+
+    /**
+     * Writes out a string without special characters. Use for labels, etc. when you know you
+     * will not need extra formattting for UTF-8 or tabs, quotes and newlines in the string
+     *
+     * @param writer Writer to which the UTF-8 string will be written to
+     * @param s      String to be written in UTF-8 format on the output stream.
+     * @throws IOException if an error occurs writing to the output stream.
+     */
+    public static void writeBasicString(final Writer writer, String s) throws IOException {
+        writer.write('\"');
+        writer.write(s);
+        writer.write('\"');
+    }
+
+    /**
+     * Write out special characters "\b, \f, \t, \n, \r", as such, backslash as \\
+     * quote as \" and values less than an ASCII space (20hex) as "\\u00xx" format,
+     * characters in the range of ASCII space to a '~' as ASCII, and anything higher in UTF-8.
+     *
+     * @param output Writer to which the UTF-8 string will be written to
+     * @param s      String to be written in UTF-8 format on the output stream.
+     * @throws IOException if an error occurs writing to the output stream.
+     */
+    public static void writeJsonUtf8String(final Writer output, String s) throws IOException {
+        writeJsonUtf8String(output, s, JSON_ESCAPES, false);
+    }
+
+    /**
+     * Write the passed in String as a JSON string, escaping the HTML-sensitive and non-ASCII characters when the
+     * passed in WriteOptions ask for it (isEscapeHtml(), isEscapeNonAscii()).  Null WriteOptions escape only what
+     * JSON requires.
+     *
+     * @param output       Writer to which the UTF-8 string will be written to
+     * @param s            String to be written in UTF-8 format on the output stream.
+     * @param writeOptions WriteOptions controlling the escaping, can be null.
+     * @throws IOException if an error occurs writing to the output stream.
+     */
+    public static void writeJsonUtf8String(final Writer output, String s, WriteOptions writeOptions) throws IOException {
+        if (writeOptions == null) {
+            writeJsonUtf8String(output, s, JSON_ESCAPES, false);
+        } else {
+            writeJsonUtf8String(output, s, writeOptions.isEscapeHtml() ? HTML_ESCAPES : JSON_ESCAPES, writeOptions.isEscapeNonAscii());
+        }
+    }
+
+    /**
+     * Runs of characters that need no escaping are written with a single write(s, off, len), and escapes come
+     * from the precomputed table (ASCII) or are hex-encoded (non-ASCII).
+     */
+    private static void writeJsonUtf8String(final Writer output, String s, final String[] escapes, final boolean escapeNonAscii) throws IOException {
+        output.write('\"');
+        final int len = s.length();
+        int start = 0;
+
+        for (int i = 0; i < len; i++) {
+            final char c = s.charAt(i);
+            if (c < 0x80) {
+                final String escape = escapes[c];
+                if (escape != null) {
+                    if (i > start) {
+                        output.write(s, start, i - start);
+                    }
+                    output.write(escape);
+                    start = i + 1;
+                }
+            } else if (escapeNonAscii) {
+                if (i > start) {
+                    output.write(s, start, i - start);
+                }
+                output.write(unicodeEscape(c));
+                start = i + 1;
+            }
+        }
+        if (start == 0) {
+            output.write(s);
+        } else if (start < len) {
+            output.write(s, start, len - start);
+        }
+        output.write('\"');
+    }
+
+    private static String unicodeEscape(char c) {
+        return new String(new char[]{'\\', 'u', HEX[c >> 12], HEX[(c >> 8) & 0xF], HEX[(c >> 4) & 0xF], HEX[c & 0xF]});
+    }
+}
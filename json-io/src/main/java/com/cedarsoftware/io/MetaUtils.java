@@ -3,6 +3,9 @@ package com.cedarsoftware.io;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
@@ -29,6 +32,8 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -38,6 +43,8 @@ import java.util.NavigableMap;
 import java.util.NavigableSet;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
@@ -50,6 +57,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -90,7 +98,6 @@ public class MetaUtils
     public static final String META_CLASS_NAME = "groovy.lang.MetaClass";
 
     private static final Map<String, Class<?>> nameToClass = new HashMap<>();
-    private static final ConcurrentMap<String, CachedConstructor> constructors = new ConcurrentHashMap<>();
     static final ThreadLocal<SimpleDateFormat> dateFormat = ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ"));
     private static boolean useUnsafe = false;
     private static Unsafe unsafe;
@@ -398,6 +405,14 @@ public class MetaUtils
         }
     }
 
+    /**
+     * @param c Class to be instantiated.
+     * @param args argument values for its constructor.
+     * @return String key made of the class name and the simple class names of the argument values.
+     * @deprecated no longer used: newInstance() caches its constructor choice per class and per list of argument
+     * types, without building a String key.
+     */
+    @Deprecated
     public static String createCacheKey(Class<?> c, Collection<?> args)
     {
         StringBuilder s = new StringBuilder(c.getName());
@@ -412,13 +427,141 @@ public class MetaUtils
         return s.toString();
     }
 
-    private static class CachedConstructor {
-        private final Constructor<?> constructor;
-        private final boolean useNullSetting;
+    /**
+     * Per-class instantiation cache.  The security screening of a class is performed once, and the constructor
+     * search is performed once per distinct list of argument types.  The outcome of the search is cached as an
+     * Instantiator (a MethodHandle to the chosen constructor, plus the plan mapping argument values to its
+     * parameters), or as the FAILED marker when no constructor could be used, so that a failing constructor
+     * search is never repeated.
+     */
+    private static final ClassValue<ClassInstantiators> instantiators = new ClassValue<ClassInstantiators>() {
+        protected ClassInstantiators computeValue(Class<?> c) {
+            return new ClassInstantiators(c);
+        }
+    };
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private static final class ClassInstantiators {
+        private final String securityConcern;
+        private final boolean illegalArgument;
+        private final ConcurrentMap<ArgumentTypes, Instantiator> byArgumentTypes = new ConcurrentHashMap<>();
+        private volatile Object binding;    // ConstructorBinding, or NO_BINDING, once looked up
+
+        ClassInstantiators(Class<?> c) {
+            String concern = null;
+            boolean illegalArg = false;
+            try {
+                MetaUtils.throwIfSecurityConcern(ProcessBuilder.class, c);
+                MetaUtils.throwIfSecurityConcern(Process.class, c);
+                MetaUtils.throwIfSecurityConcern(ClassLoader.class, c);
+                MetaUtils.throwIfSecurityConcern(Constructor.class, c);
+                MetaUtils.throwIfSecurityConcern(Method.class, c);
+                MetaUtils.throwIfSecurityConcern(Field.class, c);
+                // JDK11+ remove the line below
+                if (c.getName().equals("java.lang.ProcessImpl")) {
+                    illegalArg = true;
+                    concern = "For security reasons, json-io does not allow instantiation of: java.lang.ProcessImpl";
+                }
+            } catch (JsonIoException e) {
+                concern = e.getMessage();
+            }
+            securityConcern = concern;
+            illegalArgument = illegalArg;
+        }
+
+        void checkSecurity() {
+            if (securityConcern != null) {
+                if (illegalArgument) {
+                    throw new IllegalArgumentException(securityConcern);
+                }
+                throw new JsonIoException(securityConcern);
+            }
+        }
+
+        ConstructorBinding getBinding(Class<?> c) {
+            Object b = binding;
+            if (b == null) {
+                ConstructorBinding created = ConstructorBinding.create(c);
+                b = created == null ? NO_BINDING : created;
+                binding = b;
+            }
+            return b == NO_BINDING ? null : (ConstructorBinding) b;
+        }
+    }
+
+    private static final Object NO_BINDING = new Object();
+
+    /**
+     * @param c Class to be instantiated from a JsonObject.
+     * @return ConstructorBinding (JSON field names bound to constructor parameters) for a class that has no no-arg
+     * constructor, or null if the class has a no-arg constructor or no constructor could be bound.  Looked up once
+     * per class.
+     */
+    static ConstructorBinding getConstructorBinding(Class<?> c) {
+        final ClassInstantiators classInstantiators = instantiators.get(c);
+        classInstantiators.checkSecurity();
+        return classInstantiators.getBinding(c);
+    }
+
+    /**
+     * Cache key: the classes of the argument values (null for a null value), in order.
+     */
+    private static final class ArgumentTypes {
+        private static final ArgumentTypes NONE = new ArgumentTypes(new Class<?>[0]);
+        private final Class<?>[] types;
+        private final int hash;
+
+        private ArgumentTypes(Class<?>[] types) {
+            this.types = types;
+            this.hash = Arrays.hashCode(types);
+        }
 
-        CachedConstructor(Constructor<?> constructor, boolean useNullSetting) {
+        static ArgumentTypes of(Object[] values) {
+            if (values.length == 0) {
+                return NONE;
+            }
+            Class<?>[] types = new Class<?>[values.length];
+            for (int i = 0; i < values.length; i++) {
+                types[i] = values[i] == null ? null : values[i].getClass();
+            }
+            return new ArgumentTypes(types);
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object other) {
+            return other instanceof ArgumentTypes && Arrays.equals(types, ((ArgumentTypes) other).types);
+        }
+    }
+
+    private static final class Instantiator {
+        private static final Instantiator FAILED = new Instantiator(null, null, null, null);
+        private final MethodHandle handle;            // (Object[])Object, or ()Object for a no-arg constructor
+        private final Constructor<?> constructor;     // used when a MethodHandle could not be obtained
+        private final int[] argumentIndexes;          // per parameter: index of the argument value to use, or -1
+        private final Function<Converter, Object>[] defaults;  // per parameter: value used when no argument value matched
+
+        private Instantiator(MethodHandle handle, Constructor<?> constructor, int[] argumentIndexes, Function<Converter, Object>[] defaults) {
+            this.handle = handle;
             this.constructor = constructor;
-            this.useNullSetting = useNullSetting;
+            this.argumentIndexes = argumentIndexes;
+            this.defaults = defaults;
+        }
+
+        Object newInstance(Converter converter, Object[] values) throws Throwable {
+            final int len = argumentIndexes.length;
+            if (len == 0 && handle != null) {
+                return (Object) handle.invokeExact();
+            }
+            final Object[] args = len == 0 ? NO_ARGS : new Object[len];
+            for (int i = 0; i < len; i++) {
+                int index = argumentIndexes[i];
+                args[i] = index >= 0 ? values[index] : defaults[i].apply(converter);
+            }
+            return handle == null ? constructor.newInstance(args) : (Object) handle.invokeExact(args);
         }
     }
 
@@ -435,7 +578,8 @@ public class MetaUtils
      *                       to best-fit the constructor, by matching the class type of the argument values
      *                       to the class types of the parameters on 'c' constructors.  It will use all
      *                       constructors exhaustively, until it is successful.  If not, then it will look at
-     *                       the 'unsafe' setting and attempt to use that.
+     *                       the 'unsafe' setting and attempt to use that.  The constructor search is done once
+     *                       per class and list of argument types, after which the outcome is reused.
      * @return an instance of the passed in class.
      * @throws JsonIoException if it could not instantiate the passed in class.  In that case, it is best to
      * create a ClassFactory for this specific class, and add that to the ReadOptions as an instantiator
@@ -445,88 +589,170 @@ public class MetaUtils
      * make sure to return 'true' for isObjectFinal().
      */
     public static Object newInstance(Converter converter, Class<?> c, Collection<?> argumentValues) {
-        throwIfSecurityConcern(ProcessBuilder.class, c);
-        throwIfSecurityConcern(Process.class, c);
-        throwIfSecurityConcern(ClassLoader.class, c);
-        throwIfSecurityConcern(Constructor.class, c);
-        throwIfSecurityConcern(Method.class, c);
-        throwIfSecurityConcern(Field.class, c);
-        // JDK11+ remove the line below
-        if (c.getName().equals("java.lang.ProcessImpl")) {
-            throw new IllegalArgumentException("For security reasons, json-io does not allow instantiation of: java.lang.ProcessImpl");
-        }
+        final ClassInstantiators classInstantiators = instantiators.get(c);
+        classInstantiators.checkSecurity();
 
-        if (argumentValues == null) {
-            argumentValues = new ArrayList<>();
-        }
+        final Object[] values = (argumentValues == null || argumentValues.isEmpty()) ? NO_ARGS : argumentValues.toArray();
+        final ArgumentTypes argumentTypes = ArgumentTypes.of(values);
+        Instantiator instantiator = classInstantiators.byArgumentTypes.get(argumentTypes);
 
-        final String cacheKey = createCacheKey(c, argumentValues);
-        CachedConstructor cachedConstructor = constructors.get(cacheKey);
-        if (cachedConstructor == null) {
+        if (instantiator == null) {
             if (c.isInterface()) {
                 throw new JsonIoException("Cannot instantiate unknown interface: " + c.getName());
             }
+            final Object[] created = new Object[1];
+            instantiator = findInstantiator(converter, c, values, argumentTypes, created);
+            classInstantiators.byArgumentTypes.putIfAbsent(argumentTypes, instantiator);
+            if (instantiator != Instantiator.FAILED) {
+                return created[0];
+            }
+        } else if (instantiator != Instantiator.FAILED) {
+            try {
+                return instantiator.newInstance(converter, values);
+            } catch (ThreadDeath td) {
+                throw td;
+            } catch (Throwable ignored) {
+            }
+        }
+
+        Object o = tryUnsafeInstantiation(c);
+        if (o != null) {
+            return o;
+        }
 
-            final Constructor<?>[] declaredConstructors = c.getDeclaredConstructors();
-            Set<ConstructorWithValues> constructorOrder = new TreeSet<>();
-            List<Object> argValues = new ArrayList<>(argumentValues);   // Copy to allow destruction
+        throw new JsonIoException("Unable to instantiate: " + c.getName());
+    }
 
-            // Spin through all constructors, adding the constructor and the best match of arguments for it, as an
-            // Object to a Set.  The Set is ordered by ConstructorWithValues.compareTo().
-            for (Constructor<?> constructor : declaredConstructors) {
-                Parameter[] parameters = constructor.getParameters();
-                List<Object> argumentsNull = matchArgumentsToParameters(converter, argValues, parameters, true);
-                List<Object> argumentsNonNull = matchArgumentsToParameters(converter, argValues, parameters, false);
-                constructorOrder.add(new ConstructorWithValues(constructor, argumentsNull.toArray(), argumentsNonNull.toArray()));
-            }
+    /**
+     * Search the constructors of the passed in class, in the order defined by ConstructorWithValues, for one that
+     * can be called with the passed in values (best-matched to the parameters).  The instance created by the
+     * successful constructor is returned in created[0].
+     * @return Instantiator that repeats the successful constructor call, or Instantiator.FAILED if none succeeded.
+     */
+    private static Instantiator findInstantiator(Converter converter, Class<?> c, Object[] values, ArgumentTypes argumentTypes, Object[] created) {
+        final Constructor<?>[] declaredConstructors = c.getDeclaredConstructors();
+        Set<ConstructorWithValues> constructorOrder = new TreeSet<>();
+        List<Object> argValues = Arrays.asList(values);
+
+        // Spin through all constructors, adding the constructor and the best match of arguments for it, as an
+        // Object to a Set.  The Set is ordered by ConstructorWithValues.compareTo().
+        for (Constructor<?> constructor : declaredConstructors) {
+            Parameter[] parameters = constructor.getParameters();
+            List<Object> argumentsNull = matchArgumentsToParameters(converter, argValues, parameters, true);
+            List<Object> argumentsNonNull = matchArgumentsToParameters(converter, argValues, parameters, false);
+            constructorOrder.add(new ConstructorWithValues(constructor, argumentsNull.toArray(), argumentsNonNull.toArray()));
+        }
 
-            for (ConstructorWithValues constructorWithValues : constructorOrder) {
-                Constructor<?> constructor = constructorWithValues.constructor;
+        for (ConstructorWithValues constructorWithValues : constructorOrder) {
+            Constructor<?> constructor = constructorWithValues.constructor;
+            try {
+                MetaUtils.trySetAccessible(constructor);
+                created[0] = constructor.newInstance(constructorWithValues.argsNull);
+                // null used for parameters of common types not matched to arguments
+                return createInstantiator(constructor, argumentTypes, true);
+            } catch (Exception ignore) {
                 try {
-                    MetaUtils.trySetAccessible(constructor);
-                    Object o = constructor.newInstance(constructorWithValues.argsNull);
-                    // cache constructor search effort (null used for parameters of common types not matched to arguments)
-                    constructors.put(cacheKey, new CachedConstructor(constructor, true));
-                    return o;
-                } catch (Exception ignore) {
-                    try {
-                        if (constructor.getParameterCount() > 0) {
-                            // The no-arg constructor should only be tried one time.
-                            Object o = constructor.newInstance(constructorWithValues.argsNonNull);
-                            // cache constructor search effort (non-null used for parameters of common types not matched to arguments)
-                            constructors.put(cacheKey, new CachedConstructor(constructor, false));
-                            return o;
-                        }
-                    }
-                    catch (Exception ignored) {
+                    if (constructor.getParameterCount() > 0) {
+                        // The no-arg constructor should only be tried one time.
+                        created[0] = constructor.newInstance(constructorWithValues.argsNonNull);
+                        // non-null used for parameters of common types not matched to arguments
+                        return createInstantiator(constructor, argumentTypes, false);
                     }
                 }
+                catch (Exception ignored) {
+                }
             }
+        }
+        return Instantiator.FAILED;
+    }
 
-            Object o = tryUnsafeInstantiation(c);
-            if (o != null) {
-                return o;
+    private static Instantiator createInstantiator(Constructor<?> constructor, ArgumentTypes argumentTypes, boolean useNull) {
+        final Parameter[] parameters = constructor.getParameters();
+        final int[] argumentIndexes = matchArgumentIndexes(argumentTypes.types, parameters);
+        @SuppressWarnings("unchecked")
+        final Function<Converter, Object>[] defaults = new Function[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            if (argumentIndexes[i] < 0) {
+                defaults[i] = getArgDefaultForType(parameters[i].getType(), useNull);
             }
-        } else {
-            List<Object> argValues = new ArrayList<>(argumentValues);   // Copy to allow destruction
-            Parameter[] parameters = cachedConstructor.constructor.getParameters();
-            List<Object> arguments = matchArgumentsToParameters(converter, argValues, parameters, cachedConstructor.useNullSetting);
+        }
 
-            try {
-                // Be nice to person debugging
-                Object o = cachedConstructor.constructor.newInstance(arguments.toArray());
-                return o;
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.lookup().unreflectConstructor(constructor).asFixedArity();
+            handle = parameters.length == 0 ?
+                    handle.asType(MethodType.methodType(Object.class)) :
+                    handle.asType(MethodType.genericMethodType(parameters.length)).asSpreader(Object[].class, parameters.length);
+        } catch (Exception e) {
+            handle = null;
+        }
+        return new Instantiator(handle, constructor, argumentIndexes, defaults);
+    }
+
+    /**
+     * Same matching as matchArgumentsToParameters(), computed on the argument types instead of the values, so that
+     * the result can be reused for every list of values having those types.
+     * @return int[] holding, for each parameter, the index of the argument to pass, or -1 when none matched.
+     */
+    private static int[] matchArgumentIndexes(Class<?>[] argumentTypes, Parameter[] parameters) {
+        final int[] indexes = new int[parameters.length];
+        final boolean[] used = new boolean[argumentTypes.length];
+
+        for (int p = 0; p < parameters.length; p++) {
+            final Class<?> paramType = parameters[p].getType();
+            int best = -1;
+            int bestDistance = Integer.MAX_VALUE;
+            for (int a = 0; a < argumentTypes.length; a++) {
+                if (used[a] || argumentTypes[a] == null) {
+                    continue;
+                }
+                int distance = ClassUtilities.computeInheritanceDistance(argumentTypes[a], paramType);
+                if (distance > -1 && distance < bestDistance) {
+                    best = a;
+                    bestDistance = distance;
+                }
             }
-            catch (Exception ignored) {
+            if (best >= 0) {
+                used[best] = true;
             }
+            indexes[p] = best;
+        }
+        return indexes;
+    }
 
-            Object o = tryUnsafeInstantiation(c);
-            if (o != null) {
-                return o;
+    /**
+     * Function form of getArgForType() (or the null/primitive-default when useNull is true), so that the
+     * decision is made once per constructor parameter, while mutable defaults are still created per call.  The
+     * primitive defaults come from the Converter of each call, as the Instantiator is shared by all of them.
+     */
+    private static Function<Converter, Object> getArgDefaultForType(Class<?> argType, boolean useNull) {
+        if (useNull) {
+            return argType.isPrimitive() ? converter -> converter.convert(null, argType) : converter -> null;
+        }
+
+        if (Primitives.isPrimitive(argType)) {
+            return converter -> converter.convert(null, argType);
+        }
+
+        Supplier<Object> directClassMapping = DIRECT_CLASS_MAPPING.get(argType);
+
+        if (directClassMapping != null) {
+            return converter -> directClassMapping.get();
+        }
+
+        for (Map.Entry<Class<?>, Supplier<Object>> entry : ASSIGNABLE_CLASS_MAPPING.entrySet()) {
+            if (entry.getKey().isAssignableFrom(argType)) {
+                final Supplier<Object> assignable = entry.getValue();
+                return converter -> assignable.get();
             }
         }
 
-        throw new JsonIoException("Unable to instantiate: " + c.getName());
+        if (argType.isArray()) {
+            final Class<?> componentType = argType.getComponentType();
+            return converter -> Array.newInstance(componentType, 0);
+        }
+
+        return converter -> null;
     }
 
     // Try instantiation via unsafe (if turned on).  It is off by default.  Use
@@ -691,6 +917,53 @@ public class MetaUtils
         return map;
     }
 
+    /**
+     * Load the CodecProvider implementations registered with java.util.ServiceLoader, through json-io's own
+     * ClassLoader and through the thread context ClassLoader (so that providers of an application deployed in an
+     * app server or plugin ClassLoader are found).  json-io's own ClassLoader is always searched, so the providers
+     * found do not depend on which thread happens to initialize the builders first.
+     * @return List of CodecProviders, in ServiceLoader order, each provider class once.
+     */
+    static List<CodecProvider> loadCodecProviders() {
+        return loadCodecProviders(CodecProvider.class.getClassLoader(), Thread.currentThread().getContextClassLoader());
+    }
+
+    /**
+     * Load the CodecProvider implementations registered with java.util.ServiceLoader through the passed in
+     * ClassLoaders, searched in order.  A provider that cannot be loaded is reported and skipped, the same
+     * way a bad entry in the config/*.txt resources is.
+     * @param classLoaders ClassLoaders to search (null entries are skipped).
+     * @return List of CodecProviders, in ServiceLoader order, each provider class once.
+     */
+    static List<CodecProvider> loadCodecProviders(ClassLoader... classLoaders) {
+        Set<ClassLoader> loaders = new LinkedHashSet<>();
+        for (ClassLoader loader : classLoaders) {
+            if (loader != null) {
+                loaders.add(loader);
+            }
+        }
+
+        List<CodecProvider> providers = new ArrayList<>();
+        Set<Class<?>> loaded = new HashSet<>();
+        for (ClassLoader loader : loaders) {
+            Iterator<CodecProvider> i = ServiceLoader.load(CodecProvider.class, loader).iterator();
+            while (true) {
+                try {
+                    if (!i.hasNext()) {
+                        break;
+                    }
+                    CodecProvider provider = i.next();
+                    if (loaded.add(provider.getClass())) {
+                        providers.add(provider);
+                    }
+                } catch (ServiceConfigurationError e) {
+                    System.out.println("Note: could not load CodecProvider: " + e.getMessage());
+                }
+            }
+        }
+        return providers;
+    }
+
     /**
      * Load in a Set-style simple file of values. Expects values to be one per line.  Ignores lines beginning with a #
      * and it also ignores blank lines.
@@ -15,6 +15,7 @@ import java.util.Map;
 
 import com.cedarsoftware.io.reflect.Injector;
 import com.cedarsoftware.util.ClassUtilities;
+import com.cedarsoftware.util.convert.Convert;
 import com.cedarsoftware.util.convert.Converter;
 
 /**
@@ -37,8 +38,8 @@ import com.cedarsoftware.util.convert.Converter;
  * The resolver 'wires' the original object graph.  It does this by replacing
  * '@ref' values in the Maps with pointers (on the field of the associated instance of the
  * Map) to the object that has the same ID.  If the object has not yet been read, then
- * an UnresolvedReference is created.  These are back-patched at the end of the resolution
- * process.  UnresolvedReference keeps track of what field or array element the actual value
+ * an unresolved reference is recorded.  These are back-patched at the end of the resolution
+ * process.  UnresolvedReferences keeps track of what field or array element the actual value
  * should be stored within, and then locates the object (by id), and updates the appropriate
  * value.
  * </p>
@@ -156,7 +157,7 @@ public class ObjectResolver extends Resolver
                 if (refObject.getTarget() != null) {
                     injector.inject(target, refObject.getTarget());
                 } else {
-                    unresolvedRefs.add(new UnresolvedReference(jsonObj, injector.getName(), ref));
+                    unresolvedRefs.addField(jsonObj, injector, ref);
                 }
             } else {    // Assign ObjectMap's to Object (or derived) fields
                 Object fieldObject = jsRhs.getTarget();
@@ -311,7 +312,7 @@ public class ObjectResolver extends Resolver
                         if (refObject.getTarget() != null) {
                             col.add(refObject.getTarget());
                         } else {
-                            unresolvedRefs.add(new UnresolvedReference(jsonObj, idx, ref));
+                            unresolvedRefs.addElement(jsonObj, idx, ref);
                             if (isList) {   // Index-able collection, so set 'null' as element for now - will be patched in later.
                                 col.add(null);
                             }
@@ -360,6 +361,15 @@ public class ObjectResolver extends Resolver
             final Object element = jsonItems[i];
             Object special;
 
+            if (element instanceof JsonObject && compType != Object.class) {
+                // Untyped elements take the component type, as fields take the field type, so that a custom
+                // reader or ClassFactory registered for it is used.
+                JsonObject jsonElement = (JsonObject) element;
+                if (jsonElement.getJavaType() == null && !jsonElement.isReference()) {
+                    jsonElement.setHintType(compType);
+                }
+            }
+
             if (element == null) {
                 Array.set(array, i, null);
             } else if ((special = readWithFactoryIfExists(element, compType)) != null) {
@@ -403,7 +413,7 @@ public class ObjectResolver extends Resolver
                     if (refObject.getTarget() != null) {   // Array element with reference to existing object
                         Array.set(array, i, refObject.getTarget());
                     } else {    // Array with a forward reference as an element
-                        unresolvedRefs.add(new UnresolvedReference(jsonObj, i, ref));
+                        unresolvedRefs.addElement(jsonObj, i, ref);
                     }
                 } else {    // Convert JSON HashMap to Java Object instance and assign values
                     jsonElement.setHintType(compType);
@@ -486,8 +496,9 @@ public class ObjectResolver extends Resolver
 
         if (jsonObj.getTarget() == null) {
             if (jsonObj.hasValue()) {
-                if (getConverter().isConversionSupportedFor(jsonObj.getValue().getClass(), c)) {
-                    Object target = getConverter().convert(jsonObj.getValue(), c);
+                Convert<?> conversion = readOptions.getConversion(jsonObj.getValue().getClass(), c);
+                if (conversion != null) {
+                    Object target = conversion.convert(jsonObj.getValue(), getConverter());
                     return jsonObj.setFinishedTarget(target, true);
                 }
             }
@@ -0,0 +1,135 @@
+package com.cedarsoftware.io;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Traces the references of an object graph on the common ForkJoinPool, for JsonWriter when
+ * WriteOptions.isParallelReferenceTracing() is set.  Each worker walks the graph depth first with its own
+ * stack (expanding objects with JsonWriter.traceChildren(), exactly like the serial trace), and hands half of
+ * its stack to a new task when it grows large while the pool has idle workers.  Sightings are counted in a
+ * striped identity map: each stripe is an IdentityIdMap guarded by its own lock, selected by the object's
+ * identity hash.  An object seen twice or more is referenced, the same classification as the serial trace.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+final class ParallelReferenceTracer {
+    private static final int STRIPE_BITS = 6;
+    private static final int SPLIT_SIZE = 64;      // stack size at which a worker considers handing off work
+    private static final long SEEN_ONCE = 0;
+    private static final long SEEN_TWICE = 1;
+    private final JsonWriter writer;
+    private final WriteOptions writeOptions;
+    private final IdentityIdMap[] stripes = new IdentityIdMap[1 << STRIPE_BITS];
+
+    ParallelReferenceTracer(JsonWriter writer, WriteOptions writeOptions) {
+        this.writer = writer;
+        this.writeOptions = writeOptions;
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new IdentityIdMap();
+        }
+    }
+
+    /**
+     * Trace the graph reachable from root, returning when every worker is done.
+     */
+    void trace(Object root) {
+        final Deque<Object> stack = new ArrayDeque<>();
+        stack.addFirst(root);
+        ForkJoinPool.commonPool().invoke(new TraceTask(stack));
+    }
+
+    /**
+     * Record one sighting of a referenceable object.  Safe to call from any worker.
+     * @return true the first time the object is seen (its contents still need tracing), false after that.
+     */
+    boolean visit(Object obj) {
+        final int h = System.identityHashCode(obj) * 0x9E3779B9;
+        final IdentityIdMap stripe = stripes[h >>> (32 - STRIPE_BITS)];
+        synchronized (stripe) {
+            final long seen = stripe.getId(obj, -1);
+            if (seen < 0) {
+                stripe.putId(obj, SEEN_ONCE);
+                return true;
+            }
+            if (seen == SEEN_ONCE) {
+                stripe.putId(obj, SEEN_TWICE);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Put every object that was seen more than once into the passed in map, with the passed in id, unless it is
+     * already there (keeping the id an earlier write gave it).
+     */
+    void collectReferenced(IdentityIdMap referenced, long id) {
+        for (IdentityIdMap stripe : stripes) {
+            for (Map.Entry<Object, Long> entry : stripe.entrySet()) {
+                if (entry.getValue() == SEEN_TWICE && !referenced.containsKey(entry.getKey())) {
+                    referenced.putId(entry.getKey(), id);
+                }
+            }
+        }
+    }
+
+    private final class TraceTask extends RecursiveAction {
+        private final Deque<Object> stack;
+
+        private TraceTask(Deque<Object> stack) {
+            this.stack = stack;
+        }
+
+        @Override
+        protected void compute() {
+            final Deque<Object> stack = this.stack;
+            List<ForkJoinTask<?>> forked = null;
+
+            while (!stack.isEmpty()) {
+                final Object obj = stack.removeFirst();
+                if (!writeOptions.isNonReferenceableClass(obj.getClass()) && !visit(obj)) {
+                    continue;
+                }
+                writer.traceChildren(stack, obj);
+
+                if (stack.size() >= SPLIT_SIZE && getSurplusQueuedTaskCount() < 2) {
+                    // Hand the bottom half of the stack (furthest from the current path) to another worker.
+                    final Deque<Object> half = new ArrayDeque<>();
+                    for (int i = stack.size() / 2; i > 0; i--) {
+                        half.addFirst(stack.removeLast());
+                    }
+                    if (forked == null) {
+                        forked = new ArrayList<>();
+                    }
+                    forked.add(new TraceTask(half).fork());
+                }
+            }
+
+            if (forked != null) {
+                for (ForkJoinTask<?> task : forked) {
+                    task.join();
+                }
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import java.lang.reflect.Field;
 import java.util.Map;
 
 import com.cedarsoftware.io.reflect.Injector;
+import com.cedarsoftware.util.convert.Convert;
 import com.cedarsoftware.util.convert.ConverterOptions;
 
 /**
@@ -91,6 +92,13 @@ public interface ReadOptions {
 
     boolean isAllowNanAndInfinity();
 
+    /**
+     * @return boolean true if the JSON being read is promised to be a tree (written with WriteOptions treeMode).
+     * @id values are not registered and no reference patching is done.  An @ref in the JSON causes a
+     * JsonIoException.  The default is false.
+     */
+    boolean isTreeMode();
+
     /**
      * @return ClassLoader to be used when reading JSON to resolve String named classes.
      */
@@ -211,6 +219,19 @@ public interface ReadOptions {
 
     ConverterOptions getConverterOptions();
 
+    /**
+     * Fetch the conversion function for the passed in (source, target) type pair.  The function is resolved once
+     * per pair and cached, so that loops converting many values (array elements, for example) can fetch it once
+     * and then call it directly, instead of asking the Converter whether the conversion is supported for every
+     * value.  Conversions from the JSON value types to primitives, BigInteger, BigDecimal, UUID, and the common
+     * date/time types are bound directly; other pairs still call Converter.convert(), which looks the pair up.
+     * @param source Class of the values that will be converted
+     * @param target Class the values will be converted to
+     * @return Convert instance to call with the Converter in use by the current read, or null if the Converter
+     * does not support the conversion.
+     */
+    Convert<?> getConversion(Class<?> source, Class<?> target);
+
     /**
      * Get a custom option
      * @param key String name of the custom option
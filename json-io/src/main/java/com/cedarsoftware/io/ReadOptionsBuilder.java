@@ -3,9 +3,16 @@ package com.cedarsoftware.io;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -20,7 +27,11 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 
 import com.cedarsoftware.io.factory.ArrayFactory;
@@ -38,6 +49,7 @@ import com.cedarsoftware.util.Convention;
 import com.cedarsoftware.util.StringUtilities;
 import com.cedarsoftware.util.convert.CommonValues;
 import com.cedarsoftware.util.convert.Convert;
+import com.cedarsoftware.util.convert.Converter;
 import com.cedarsoftware.util.convert.ConverterOptions;
 
 import static com.cedarsoftware.io.MetaUtils.loadMapDefinition;
@@ -83,6 +95,7 @@ public class ReadOptionsBuilder {
         loadBaseNonRefs();
         loadBaseFieldsNotImported();
         loadBaseNonStandardSetters();
+        loadCodecProviders();
 
         defReadOptions = new ReadOptionsBuilder().build();
     }
@@ -135,6 +148,7 @@ public class ReadOptionsBuilder {
 
             // Copy simple settings
             options.allowNanAndInfinity = other.allowNanAndInfinity;
+            options.treeMode = other.treeMode;
             options.closeStream = other.closeStream;
             options.failOnUnknownType = other.failOnUnknownType;
             options.maxDepth = other.maxDepth;
@@ -542,6 +556,17 @@ public class ReadOptionsBuilder {
         return this;
     }
 
+    /**
+     * @param treeMode boolean 'treeMode' setting.  true promises that the JSON being read is a tree (as written
+     *                 with WriteOptionsBuilder.treeMode(true)): @id values are not registered, no reference patching
+     *                 is done, and an @ref causes a JsonIoException.  false (default) resolves @id / @ref.
+     * @return ReadOptionsBuilder for chained access.
+     */
+    public ReadOptionsBuilder treeMode(boolean treeMode) {
+        options.treeMode = treeMode;
+        return this;
+    }
+
     /**
      * @param aliasTypeNames Map containing String class names to alias names.  The passed in Map will
      *                       be copied, and be the new baseline settings.
@@ -768,6 +793,38 @@ public class ReadOptionsBuilder {
         }
     }
 
+    /**
+     * Add the readers and class factories of every CodecProvider found by ServiceLoader.  Loaded after the base
+     * readers and factories, so a provider can replace one of them.
+     */
+    private static void loadCodecProviders() {
+        MetaUtils.loadCodecProviders().forEach(ReadOptionsBuilder::addPermanentCodecProvider);
+    }
+
+    /**
+     * Add the readers and class factories of a CodecProvider permanently (JVM lifecycle), the same as the
+     * providers discovered with java.util.ServiceLoader when this class is loaded.  Use this (or
+     * loadPermanentCodecProviders()) when the provider lives in a ClassLoader json-io cannot see, for example a
+     * plugin or web-app ClassLoader.  Register the provider with WriteOptionsBuilder as well if it also supplies
+     * writers.
+     *
+     * @param provider CodecProvider whose readers and class factories are added.
+     */
+    public static void addPermanentCodecProvider(CodecProvider provider) {
+        provider.getReaders().forEach(ReadOptionsBuilder::addPermanentReader);
+        provider.getClassFactories().forEach(ReadOptionsBuilder::addPermanentClassFactory);
+    }
+
+    /**
+     * Discover the CodecProviders registered (META-INF/services/com.cedarsoftware.io.CodecProvider) in the passed
+     * in ClassLoader and add their readers and class factories permanently (JVM lifecycle).
+     *
+     * @param classLoader ClassLoader to search for CodecProvider implementations.
+     */
+    public static void loadPermanentCodecProviders(ClassLoader classLoader) {
+        MetaUtils.loadCodecProviders(classLoader).forEach(ReadOptionsBuilder::addPermanentCodecProvider);
+    }
+
     /**
      * Load custom writer classes based on contents of customWriters.txt in the resources folder.
      * Verify that classes listed are indeed valid classes loaded in the JVM.
@@ -847,6 +904,7 @@ public class ReadOptionsBuilder {
         private ReadOptions.Decimals decimalType = Decimals.DOUBLE;
         private ReadOptions.Integers integerType = Integers.LONG;
         private boolean allowNanAndInfinity = false;
+        private boolean treeMode = false;
         private Map<String, String> aliasTypeNames = new LinkedHashMap<>();
         private Map<Class<?>, Class<?>> coercedTypes = new LinkedHashMap<>();
         private Set<Class<?>> notCustomReadClasses = new LinkedHashSet<>();
@@ -870,6 +928,13 @@ public class ReadOptionsBuilder {
 
         //  Cache of fields used for accessors.  controlled by ignoredFields
         private final Map<Class<?>, Map<String, Field>> classMetaCache = new ConcurrentHashMap<>(200, 0.8f, Runtime.getRuntime().availableProcessors());
+
+        // Cache of resolved conversion functions, (source, target) -> Convert (or NO_CONVERSION)
+        private final Map<Class<?>, Map<Class<?>, Convert<?>>> conversionCache = new ConcurrentHashMap<>(100, 0.8f, Runtime.getRuntime().availableProcessors());
+        private volatile Converter supportChecker;
+        // Idle JsonReaders built with these options, reused by JsonIo.toObjects().  Bounded, and not a ThreadLocal,
+        // so that the number of idle readers does not grow with the number of (possibly virtual) threads.
+        private final BlockingQueue<JsonReader> readerPool = new ArrayBlockingQueue<>(Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
         
         /**
          * Default constructor.  Prevent instantiation outside of package.
@@ -885,6 +950,14 @@ public class ReadOptionsBuilder {
             return allowNanAndInfinity;
         }
 
+        /**
+         * @return boolean true if the JSON being read is promised to be a tree (no @id registration, no reference
+         * patching, @ref not allowed).  The default is false.
+         */
+        public boolean isTreeMode() {
+            return treeMode;
+        }
+
         /**
          * @return ClassLoader to be used when reading JSON to resolve String named classes.
          */
@@ -1034,6 +1107,14 @@ public class ReadOptionsBuilder {
 
         private static final NullClass nullReader = new NullClass();
 
+        /**
+         * Place-holder for a (source, target) pair the Converter does not support, as ConcurrentHashMap
+         * cannot contain a null value.
+         */
+        private static final Convert<?> NO_CONVERSION = (from, converter) -> {
+            throw new JsonIoException("Conversion not supported");
+        };
+
         /**
          * Fetch the custom reader for the passed in Class.  If it is cached (already associated to the
          * passed in Class), return the same instance, otherwise, make a call to get the custom reader
@@ -1115,6 +1196,13 @@ public class ReadOptionsBuilder {
 
         public void clearCaches() {
             injectorsCache.clear();
+            conversionCache.clear();
+            supportChecker = null;
+            readerPool.clear();
+        }
+
+        BlockingQueue<JsonReader> getReaderPool() {
+            return readerPool;
         }
 
         private Map<String, Injector> buildInjectors(Class<?> c) {
@@ -1168,6 +1256,141 @@ public class ReadOptionsBuilder {
             return this.converterOptions;
         }
 
+        public Convert<?> getConversion(Class<?> source, Class<?> target) {
+            Map<Class<?>, Convert<?>> targets = conversionCache.computeIfAbsent(source, k -> new ConcurrentHashMap<>());
+            Convert<?> conversion = targets.computeIfAbsent(target, k -> buildConversion(source, target));
+            return conversion == NO_CONVERSION ? null : conversion;
+        }
+
+        private Convert<?> buildConversion(Class<?> source, Class<?> target) {
+            Converter checker = supportChecker;
+            if (checker == null) {
+                checker = supportChecker = new Converter(converterOptions);
+            }
+            if (!checker.isConversionSupportedFor(source, target)) {
+                return NO_CONVERSION;
+            }
+            if (!converterOptions.getConverterOverrides().isEmpty()) {
+                // A user supplied conversion may replace any of the built-in ones, so always route through the Converter.
+                return (from, converter) -> converter.convert(from, target);
+            }
+            Convert<?> direct = directConversion(source, target);
+            return direct == null ? (from, converter) -> converter.convert(from, target) : direct;
+        }
+
+        /**
+         * Conversions from the native JSON value types (String, Long, Double, Boolean) to the primitive (and
+         * primitive wrapper) types, BigInteger, BigDecimal, UUID, and the epoch-millis and ISO-8601 date/time types
+         * are the overwhelming majority of conversions performed while reading.  These are bound directly,
+         * producing the same values as the Converter, without the Converter's per-call lookup.  Input the direct
+         * path does not handle (blank or malformed strings, NaN, ...) is handed to the Converter, so its results
+         * and error messages are unchanged.  All other pairs go through Converter.convert().
+         */
+        private static Convert<?> directConversion(Class<?> source, Class<?> target) {
+            if (source == target && (source == String.class || source == Long.class || source == Double.class || source == Boolean.class)) {
+                return (from, converter) -> from;
+            }
+            if (source == Boolean.class && target == boolean.class) {
+                return (from, converter) -> from;
+            }
+            if (source == String.class) {
+                return stringConversion(target);
+            }
+            if (source != Long.class && source != Double.class) {
+                return null;
+            }
+            if (target == long.class || target == Long.class) {
+                return (from, converter) -> ((Number) from).longValue();
+            } else if (target == int.class || target == Integer.class) {
+                return (from, converter) -> ((Number) from).intValue();
+            } else if (target == double.class || target == Double.class) {
+                return (from, converter) -> ((Number) from).doubleValue();
+            } else if (target == float.class || target == Float.class) {
+                return (from, converter) -> ((Number) from).floatValue();
+            } else if (target == short.class || target == Short.class) {
+                return (from, converter) -> ((Number) from).shortValue();
+            } else if (target == byte.class || target == Byte.class) {
+                return (from, converter) -> ((Number) from).byteValue();
+            } else if (target == BigDecimal.class) {
+                if (source == Long.class) {
+                    return (from, converter) -> BigDecimal.valueOf((Long) from);
+                }
+                return (from, converter) -> {
+                    double d = (Double) from;
+                    return Double.isNaN(d) || Double.isInfinite(d) ? converter.convert(from, target) : BigDecimal.valueOf(d);
+                };
+            } else if (source == Long.class) {
+                if (target == BigInteger.class) {
+                    return (from, converter) -> BigInteger.valueOf((Long) from);
+                } else if (target == Instant.class) {
+                    return (from, converter) -> Instant.ofEpochMilli((Long) from);
+                } else if (target == Date.class) {
+                    return (from, converter) -> new Date((Long) from);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * String to BigDecimal, BigInteger, and UUID are parsed with the JDK parsers, and ISO-8601 date/time strings
+         * with Iso8601.  Strings a parser does not accept are passed to the Converter.
+         */
+        private static Convert<?> stringConversion(Class<?> target) {
+            if (target == BigDecimal.class) {
+                return (from, converter) -> {
+                    try {
+                        return new BigDecimal((String) from);
+                    } catch (NumberFormatException e) {
+                        return converter.convert(from, target);
+                    }
+                };
+            } else if (target == BigInteger.class) {
+                return (from, converter) -> {
+                    try {
+                        return new BigInteger((String) from);
+                    } catch (NumberFormatException e) {
+                        return converter.convert(from, target);
+                    }
+                };
+            } else if (target == UUID.class) {
+                return (from, converter) -> {
+                    try {
+                        return UUID.fromString((String) from);
+                    } catch (IllegalArgumentException e) {
+                        return converter.convert(from, target);
+                    }
+                };
+            }
+            return isoConversion(target);
+        }
+
+        /**
+         * ISO-8601 strings are parsed by Iso8601 when they are in its fixed layouts, and by the Converter otherwise,
+         * so the result is the same as the Converter's either way.
+         */
+        private static Convert<?> isoConversion(Class<?> target) {
+            final Function<String, Object> parser;
+            if (target == Instant.class) {
+                parser = Iso8601::parseInstant;
+            } else if (target == LocalDate.class) {
+                parser = Iso8601::parseLocalDate;
+            } else if (target == LocalDateTime.class) {
+                parser = Iso8601::parseLocalDateTime;
+            } else if (target == OffsetDateTime.class) {
+                parser = Iso8601::parseOffsetDateTime;
+            } else if (target == ZonedDateTime.class) {
+                parser = Iso8601::parseZonedDateTime;
+            } else if (target == Date.class) {
+                parser = Iso8601::parseDate;
+            } else {
+                return null;
+            }
+            return (from, converter) -> {
+                Object value = parser.apply((String) from);
+                return value == null ? converter.convert(from, target) : value;
+            };
+        }
+
         public Object getCustomOption(String key)
         {
             return customOptions.get(key);
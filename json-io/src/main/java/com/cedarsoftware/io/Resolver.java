@@ -1,7 +1,6 @@
 package com.cedarsoftware.io;
 
 import java.lang.reflect.Array;
-import java.lang.reflect.Field;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -18,6 +17,7 @@ import java.util.Set;
 import com.cedarsoftware.io.JsonReader.MissingFieldHandler;
 import com.cedarsoftware.io.reflect.Injector;
 import com.cedarsoftware.util.ClassUtilities;
+import com.cedarsoftware.util.convert.Convert;
 import com.cedarsoftware.util.convert.Converter;
 
 import static com.cedarsoftware.io.JsonObject.ITEMS;
@@ -51,7 +51,7 @@ import static com.cedarsoftware.io.JsonObject.KEYS;
 @SuppressWarnings({"rawtypes", "unchecked"})
 public abstract class Resolver {
     private static final String NO_FACTORY = "_︿_ψ_☼";
-    final Collection<UnresolvedReference> unresolvedRefs = new ArrayList<>();
+    final UnresolvedReferences unresolvedRefs = new UnresolvedReferences();
     private final Map<Object, Object> visited = new IdentityHashMap<>();
     protected final Deque<JsonObject> stack = new ArrayDeque<>();
     private final Collection<Object[]> prettyMaps = new ArrayList<>();
@@ -60,6 +60,7 @@ public abstract class Resolver {
     private ReadOptions readOptions;
     private ReferenceTracker references;
     private Converter converter;
+    private final boolean treeMode;     // no @ref, so every JsonObject is reached once
     private SealedSupplier sealedSupplier = new SealedSupplier();
 
     private static final Set<String> convertableValues = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
@@ -123,26 +124,55 @@ public abstract class Resolver {
     )));
     
     /**
-     * UnresolvedReference is created to hold a logical pointer to a reference that
-     * could not yet be loaded, as the @ref appears ahead of the referenced object's
-     * definition.  This can point to a field reference or an array/Collection element reference.
+     * UnresolvedReferences holds the logical pointers to references that could not yet be loaded,
+     * as the @ref appears ahead of the referenced object's definition.  Each entry points to either
+     * a field reference (in which case the Injector that was in hand when the field was assigned is
+     * kept, so that the patch is a direct MethodHandle call) or an array/Collection element reference.
+     * The entries are stored in parallel arrays, rather than as one object per reference, to keep
+     * heavily forward-referenced documents compact.
      */
-    static final class UnresolvedReference {
-        private final JsonObject referencingObj;
-        private String field;
-        private final long refId;
-        private int index = -1;
+    static final class UnresolvedReferences {
+        private static final int INITIAL_CAPACITY = 16;
+        private JsonObject[] referrers;
+        private Injector[] injectors;
+        private long[] refIds;
+        private int[] indices;
+        private int size;
+
+        void addField(JsonObject referrer, Injector injector, long refId) {
+            add(referrer, injector, -1, refId);
+        }
+
+        void addElement(JsonObject referrer, int index, long refId) {
+            add(referrer, null, index, refId);
+        }
 
-        UnresolvedReference(JsonObject referrer, String fld, long id) {
-            referencingObj = referrer;
-            field = fld;
-            refId = id;
+        private void add(JsonObject referrer, Injector injector, int index, long refId) {
+            if (referrers == null) {
+                referrers = new JsonObject[INITIAL_CAPACITY];
+                injectors = new Injector[INITIAL_CAPACITY];
+                refIds = new long[INITIAL_CAPACITY];
+                indices = new int[INITIAL_CAPACITY];
+            } else if (size == referrers.length) {
+                int newCapacity = size << 1;
+                referrers = Arrays.copyOf(referrers, newCapacity);
+                injectors = Arrays.copyOf(injectors, newCapacity);
+                refIds = Arrays.copyOf(refIds, newCapacity);
+                indices = Arrays.copyOf(indices, newCapacity);
+            }
+            referrers[size] = referrer;
+            injectors[size] = injector;
+            refIds[size] = refId;
+            indices[size] = index;
+            size++;
         }
 
-        UnresolvedReference(JsonObject referrer, int idx, long id) {
-            referencingObj = referrer;
-            index = idx;
-            refId = id;
+        void clear() {
+            if (size > 0) {
+                Arrays.fill(referrers, 0, size, null);
+                Arrays.fill(injectors, 0, size, null);
+                size = 0;
+            }
         }
     }
 
@@ -165,6 +195,7 @@ public abstract class Resolver {
         this.readOptions = readOptions;
         this.references = references;
         this.converter = converter;
+        this.treeMode = readOptions.isTreeMode();
     }
 
     public ReadOptions getReadOptions() {
@@ -234,11 +265,13 @@ public abstract class Resolver {
             if (jsonObj.isFinished) {
                 continue;
             }
-            if (visited.containsKey(jsonObj)) {
-                jsonObj.setFinished();
-                continue;
+            if (!treeMode) {
+                if (visited.containsKey(jsonObj)) {
+                    jsonObj.setFinished();
+                    continue;
+                }
+                visited.put(jsonObj, null);
             }
-            visited.put(jsonObj, null);
             traverseSpecificType(jsonObj);
         }
         return (T) root.getTarget();
@@ -283,6 +316,24 @@ public abstract class Resolver {
 
     public abstract void assignField(final JsonObject jsonObj, final Injector injector, final Object rhs);
     
+    /**
+     * Re-arm this Resolver for another document (cleanup() lets go of the ReadOptions and ReferenceTracker), and
+     * drop anything left over from a read that failed before cleanup().
+     */
+    void reset(ReadOptions readOptions, ReferenceTracker references) {
+        this.readOptions = readOptions;
+        this.references = references;
+        references.clear();
+        unresolvedRefs.clear();
+        prettyMaps.clear();
+        missingFields.clear();
+        stack.clear();
+        visited.clear();
+        if (sealedSupplier == null || sealedSupplier.get()) {
+            sealedSupplier = new SealedSupplier();
+        }
+    }
+
     protected void cleanup() {
         patchUnresolvedReferences();
         rehashMaps();
@@ -375,11 +426,12 @@ public abstract class Resolver {
         
         // Does a 'Converter' conversion exist?
         if (jsonObj.hasValue() && jsonObj.getValue() != null) {
-            if (converter.isConversionSupportedFor(jsonObj.getValue().getClass(), targetType)) {
-                Object value = converter.convert(jsonObj.getValue(), targetType);
+            Convert<?> conversion = readOptions.getConversion(jsonObj.getValue().getClass(), targetType);
+            if (conversion != null) {
+                Object value = conversion.convert(jsonObj.getValue(), converter);
                 return jsonObj.setFinishedTarget(value, true);
             }
-        } else if (!jsonObj.isEmpty() && converter.isConversionSupportedFor(Map.class, targetType)) {
+        } else if (!jsonObj.isEmpty() && readOptions.getConversion(Map.class, targetType) != null) {
             try {
                 Object value = converter.convert(jsonObj, targetType);
                 return jsonObj.setFinishedTarget(value, true);  // Calendar, Timestamp, Duration, Instance, LocalDateTime, ...
@@ -442,6 +494,15 @@ public abstract class Resolver {
         } else {
             // Handle regular field.object reference
             // ClassFactory already consulted above, likely regular business/data classes.
+            // Classes without a no-arg constructor are created with their JSON values bound to constructor
+            // parameters, when possible (the binding sets the target, and marks it finished if complete).
+            ConstructorBinding binding = MetaUtils.getConstructorBinding(c);
+            if (binding != null) {
+                mate = binding.newInstance(this, jsonObj);
+                if (mate != null) {
+                    return mate;
+                }
+            }
             // If the newInstance(c) fails, it throws a JsonIoException.
             mate = MetaUtils.newInstance(converter, c, null);  // can add constructor arg values
         }
@@ -528,32 +589,35 @@ public abstract class Resolver {
      * that had not yet been encountered in the stream, make the final substitution.
      */
     private void patchUnresolvedReferences() {
-        for (UnresolvedReference ref : unresolvedRefs) {
-            Object objToFix = ref.referencingObj.getTarget();
-            JsonObject objReferenced = this.references.get(ref.refId);
+        final UnresolvedReferences refs = unresolvedRefs;
+        final int size = refs.size;
 
-            if (ref.index >= 0) {    // Fix []'s and Collections containing a forward reference.
+        for (int i = 0; i < size; i++) {
+            Object objToFix = refs.referrers[i].getTarget();
+            long refId = refs.refIds[i];
+            JsonObject objReferenced = this.references.get(refId);
+            Injector injector = refs.injectors[i];
+
+            if (injector == null) {    // Fix []'s and Collections containing a forward reference.
+                int index = refs.indices[i];
                 if (objToFix instanceof List) {
                     List list = (List) objToFix;
-                    list.set(ref.index, objReferenced.getTarget());
+                    list.set(index, objReferenced.getTarget());
                 } else if (objToFix instanceof Collection) {   // Patch up Indexable Collections
                     Collection col = (Collection) objToFix;
                     col.add(objReferenced.getTarget());
                 } else {
-                    Array.set(objToFix, ref.index, objReferenced.getTarget());        // patch array element here
+                    Array.set(objToFix, index, objReferenced.getTarget());        // patch array element here
                 }
             } else {    // Fix field forward reference
-                Field field = getReadOptions().getDeepDeclaredFields(objToFix.getClass()).get(ref.field);
-                if (field != null) {
-                    try {
-                        MetaUtils.setFieldValue(field, objToFix, objReferenced.getTarget());    // patch field here
-                    } catch (Exception e) {
-                        throw new JsonIoException("Error setting field while resolving references '" + field.getName() + "', @ref = " + ref.refId, e);
-                    }
+                try {
+                    injector.inject(objToFix, objReferenced.getTarget());    // patch field here
+                } catch (Exception e) {
+                    throw new JsonIoException("Error setting field while resolving references '" + injector.getName() + "', @ref = " + refId, e);
                 }
             }
         }
-        unresolvedRefs.clear();
+        refs.clear();
     }
 
     /**
@@ -596,16 +660,30 @@ public abstract class Resolver {
                 return true;
             }
             Object javaArray = Array.newInstance(componentType, jsonItems.length);
+            // Conversion function fetched once per (source, target) run, not once per element
+            Class<?> lastSource = null;
+            Class<?> lastType = null;
+            Convert<?> conversion = null;
             for (int i=0; i < jsonItems.length; i++) {
                 try {
+                    final Object item = jsonItems[i];
                     Class<?> type = componentType;
-                    if (jsonItems[i] instanceof JsonObject) {
-                        JsonObject jObj = (JsonObject) jsonItems[i];
+                    if (item instanceof JsonObject) {
+                        JsonObject jObj = (JsonObject) item;
                         if (jObj.getJavaType() != null) {
                             type = jObj.getJavaType();
                         }
                     }
-                    Array.set(javaArray, i, converter.convert(jsonItems[i], type));
+                    if (item == null) {
+                        Array.set(javaArray, i, converter.convert(null, type));
+                        continue;
+                    }
+                    if (item.getClass() != lastSource || type != lastType) {
+                        lastSource = item.getClass();
+                        lastType = type;
+                        conversion = readOptions.getConversion(item instanceof JsonObject ? Map.class : lastSource, type);
+                    }
+                    Array.set(javaArray, i, conversion == null ? converter.convert(item, type) : conversion.convert(item, converter));
                 } catch (Exception e) {
                     JsonIoException jioe = new JsonIoException(e.getMessage());
                     jioe.setStackTrace(e.getStackTrace());
@@ -635,6 +713,52 @@ public abstract class Resolver {
         return convertableValues.contains(type.getName());
     }
 
+    /**
+     * Bind one parsed JSON value (a field value, record component, or constructor argument) to the passed in
+     * type, for ClassFactories and JsonClassReaders that fill in an object themselves.  Convertable values are
+     * converted straight from the parsed value, enums are looked up by name, arrays and Collections given as a
+     * JSON array are built by this Resolver, and sub-objects (including @ref's) are resolved.  Anything else is
+     * returned as-is.
+     * @param value parsed value: null, a JSON primitive, an Object[], or a JsonObject.
+     * @param type Class the value is bound to.
+     * @return value as an instance of type (or null).
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Object toTypedValue(Object value, Class<?> type) {
+        if (value != null && (type.isArray() || Collection.class.isAssignableFrom(type))) {
+            // Arrays and Collections are built by the Resolver from a JsonObject holding the items.
+            JsonObject items;
+            if (value instanceof JsonObject) {
+                items = (JsonObject) value;
+            } else if (value instanceof Object[]) {
+                items = new JsonObject();
+                items.setJsonArray((Object[]) value);
+            } else {
+                return value;
+            }
+            if (items.getJavaType() == null && !items.isReference()) {
+                items.setJavaType(type);
+            }
+            return valueToTarget(items) ? items.getTarget() : toJavaObjects(items, type);
+        }
+
+        if (isConvertable(type) || type.isPrimitive()) {
+            if (value == null || value instanceof JsonObject) {
+                return converter.convert(value, type);
+            }
+            Convert<?> conversion = readOptions.getConversion(value.getClass(), type);
+            return conversion == null ? converter.convert(value, type) : conversion.convert(value, converter);
+        }
+
+        if (value instanceof String && type.isEnum()) {
+            return Enum.valueOf((Class<? extends Enum>) type, (String) value);
+        }
+        if (value instanceof JsonObject) {
+            return toJavaObjects((JsonObject) value, type);
+        }
+        return value;
+    }
+
     /**
      * Create peer Java object to the passed in root JsonObject.  In the special case that root is an Object[],
      * then create a JsonObject to wrap it, set the passed in Object[] to be the target of the JsonObject, ensure
@@ -0,0 +1,229 @@
+package com.cedarsoftware.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+import com.cedarsoftware.util.FastReader;
+
+/**
+ * FastReader that decodes UTF-8 from an InputStream itself, instead of through an InputStreamReader, and that can
+ * be reset() onto another InputStream.  Its byte and char buffers and its CharsetDecoder are kept across resets,
+ * so a reused JsonReader does not allocate them again per document.  Malformed input is replaced with U+FFFD,
+ * exactly as InputStreamReader does.  Line / column tracking, pushback, and getLastSnippet() behave like
+ * FastReader's.
+ * <br><br>
+ * Like FastReader, this class is not thread-safe; JsonReader owns one per input.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+final class Utf8Reader extends FastReader {
+    private static final Reader UNUSED = new StringReader("");     // FastReader's own (tiny) buffers go unused
+    private static final int BUFFER_SIZE = 8192;
+    private static final int PUSHBACK_SIZE = 10;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final byte[] bytes = new byte[BUFFER_SIZE];
+    private final ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+    private final char[] buf = new char[BUFFER_SIZE];
+    private final CharBuffer charBuffer = CharBuffer.wrap(buf);
+    private final char[] pushbackBuffer = new char[PUSHBACK_SIZE];
+    private InputStream in;
+    private int position;
+    private int limit;
+    private int pushbackPosition;
+    private int line;
+    private int col;
+    private boolean endOfInput;     // InputStream exhausted
+    private boolean flushed;        // decoder flushed after end of input, no more chars
+
+    Utf8Reader(InputStream in) {
+        super(UNUSED, 1, 1);
+        reset(in);
+    }
+
+    /**
+     * Point this reader at a new InputStream, discarding anything buffered from the previous one.  The previous
+     * InputStream is not closed.
+     * @param in InputStream to read from, or null to leave the reader closed until the next reset().
+     */
+    void reset(InputStream in) {
+        this.in = in;
+        byteBuffer.clear().limit(0);
+        decoder.reset();
+        position = 0;
+        limit = 0;
+        pushbackPosition = PUSHBACK_SIZE;
+        line = 1;
+        col = 0;
+        endOfInput = false;
+        flushed = false;
+    }
+
+    /**
+     * Decode the next block of chars into buf.  Sets limit to -1 at the end of the input.
+     */
+    private void fill() throws IOException {
+        if (flushed) {
+            limit = -1;
+            return;
+        }
+        final CharBuffer chars = charBuffer;
+        chars.clear();
+        while (true) {
+            final CoderResult result = decoder.decode(byteBuffer, chars, endOfInput);
+            if (result.isOverflow() || chars.position() > 0) {
+                break;
+            }
+            if (endOfInput) {
+                decoder.flush(chars);
+                flushed = true;
+                break;
+            }
+            readBytes();
+        }
+        position = 0;
+        limit = chars.position() > 0 ? chars.position() : -1;
+    }
+
+    private void readBytes() throws IOException {
+        final ByteBuffer bytes = byteBuffer;
+        bytes.compact();
+        final int n = in.read(this.bytes, bytes.position(), bytes.remaining());
+        if (n < 0) {
+            endOfInput = true;
+        } else {
+            bytes.position(bytes.position() + n);
+        }
+        bytes.flip();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (in == null) {
+            throw new IOException("Utf8Reader stream is closed.");
+        }
+    }
+
+    @Override
+    public void pushback(char c) throws IOException {
+        if (pushbackPosition == 0) {
+            throw new IOException("Pushback buffer overflow");
+        }
+        pushbackBuffer[--pushbackPosition] = c;
+        if (c == '\n') {
+            line--;
+        } else {
+            col--;
+        }
+    }
+
+    @Override
+    protected void movePosition(char c) {
+        if (c == '\n') {
+            line++;
+            col = 0;
+        } else {
+            col++;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        ensureOpen();
+        final char c;
+        if (pushbackPosition < PUSHBACK_SIZE) {
+            c = pushbackBuffer[pushbackPosition++];
+        } else {
+            if (position >= limit) {
+                fill();
+                if (limit == -1) {
+                    return -1;
+                }
+            }
+            c = buf[position++];
+        }
+        if (c == '\n') {
+            line++;
+            col = 0;
+        } else {
+            col++;
+        }
+        return c;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        ensureOpen();
+        int count = 0;
+        while (len > 0) {
+            final int pushed = PUSHBACK_SIZE - pushbackPosition;
+            if (pushed > 0) {
+                final int n = Math.min(pushed, len);
+                System.arraycopy(pushbackBuffer, pushbackPosition, cbuf, off, n);
+                pushbackPosition += n;
+                off += n;
+                len -= n;
+                count += n;
+                continue;
+            }
+            if (position >= limit) {
+                fill();
+                if (limit == -1) {
+                    return count > 0 ? count : -1;
+                }
+            }
+            final int n = Math.min(limit - position, len);
+            System.arraycopy(buf, position, cbuf, off, n);
+            position += n;
+            off += n;
+            len -= n;
+            count += n;
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (in != null) {
+            in.close();
+            in = null;
+        }
+    }
+
+    @Override
+    public int getLine() {
+        return line;
+    }
+
+    @Override
+    public int getCol() {
+        return col;
+    }
+
+    @Override
+    public String getLastSnippet() {
+        return new String(buf, 0, Math.max(position, 0));
+    }
+}
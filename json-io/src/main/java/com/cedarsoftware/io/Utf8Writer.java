@@ -0,0 +1,489 @@
+package com.cedarsoftware.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.cedarsoftware.util.Convention;
+
+/**
+ * Writer that encodes characters to UTF-8 itself, directly into a byte[] buffer, and writes the buffer to the
+ * OutputStream in large blocks.  ASCII (nearly all JSON output) is stored one byte per char, without going through
+ * a CharsetEncoder.  Other chars are encoded by hand, including surrogate pairs that are split across write calls.
+ * A surrogate without its partner is written as '?', the same as OutputStreamWriter does.
+ * <br><br>
+ * Without an OutputStream, the writer keeps all of its output in memory (growing the buffer as needed), and
+ * getBufferedString() turns it into a String with a single copy, instead of encoding to UTF-8 bytes in one
+ * buffer and decoding them again from another.
+ * <br><br>
+ * Instead of an OutputStream, the writer can also write to a WritableByteChannel (see resetToChannel()), handing
+ * its buffer to the channel as is, or into ByteBuffers supplied by the caller (see resetToBuffer()), which can be
+ * direct buffers.
+ * <br><br>
+ * Like java-util's FastWriter, this class is not thread-safe; JsonWriter owns one per output.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+public final class Utf8Writer extends Writer {
+    private static final int DEFAULT_BUFFER_SIZE = 16384;
+    private static final byte[] DIGIT_TENS = new byte[100];
+    private static final byte[] DIGIT_ONES = new byte[100];
+    private OutputStream out;       // null when the output is kept in memory (or goes to a channel or ByteBuffer)
+    private WritableByteChannel channel;
+    private ByteBufferSink sink;
+    private ByteBuffer target;      // caller's ByteBuffer being filled, when writing to a ByteBufferSink
+    private final int bufferSize;
+    private byte[] buf;
+    private int pos;
+    private char highSurrogate;     // pending high surrogate, waiting for its low surrogate
+    private boolean nonAscii;       // in memory output holds bytes above 0x7F
+    private boolean closed;
+    private IOException flushFailure;
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGIT_TENS[i] = (byte) ('0' + i / 10);
+            DIGIT_ONES[i] = (byte) ('0' + i % 10);
+        }
+    }
+
+    /**
+     * Create a Utf8Writer that keeps its output in memory, see getBufferedString().
+     */
+    public Utf8Writer() {
+        this(null, DEFAULT_BUFFER_SIZE);
+    }
+
+    public Utf8Writer(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param out OutputStream to write to, or null to keep the output in memory.
+     * @param bufferSize size of the byte buffer (the initial size, when the output is kept in memory).
+     */
+    public Utf8Writer(OutputStream out, int bufferSize) {
+        if (bufferSize < 16) {
+            throw new JsonIoException("Utf8Writer buffer size must be at least 16 bytes, size: " + bufferSize);
+        }
+        this.out = out;
+        this.bufferSize = bufferSize;
+        this.buf = new byte[bufferSize];
+    }
+
+    /**
+     * Point this writer at a new OutputStream, discarding anything buffered (and not flushed) for the previous
+     * one, so that the buffer can be reused.  The previous OutputStream is not flushed or closed.
+     * @param out OutputStream to write to, or null to keep the output in memory.
+     */
+    public void reset(OutputStream out) {
+        this.out = out;
+        channel = null;
+        sink = null;
+        target = null;
+        if (buf.length > bufferSize * 4) {
+            buf = new byte[bufferSize];     // do not hold on to the memory of an unusually large output
+        }
+        pos = 0;
+        highSurrogate = 0;
+        nonAscii = false;
+        closed = false;
+        flushFailure = null;
+    }
+
+    /**
+     * Drop the buffer if it has grown past its initial size, for a writer that is about to sit idle.  Call only
+     * right after reset(), when nothing is buffered.
+     */
+    void trimBuffer() {
+        if (buf.length > bufferSize) {
+            buf = new byte[bufferSize];
+        }
+    }
+
+    /**
+     * Point this writer at a WritableByteChannel, discarding anything buffered for the previous output.  Each full
+     * buffer is written to the channel without being copied.  The channel should be in blocking mode; a
+     * non-blocking channel is written to until it has taken the whole buffer.
+     * @param channel WritableByteChannel to write to.
+     */
+    public void resetToChannel(WritableByteChannel channel) {
+        Convention.throwIfNull(channel, "WritableByteChannel cannot be null");
+        reset(null);
+        this.channel = channel;
+    }
+
+    /**
+     * Point this writer at caller supplied ByteBuffers, discarding anything buffered for the previous output.  The
+     * output is copied into the passed in buffer (from its position up to its limit).  Each time it is full, and
+     * on flush() or close(), it is flipped and handed to the sink, which returns the buffer to continue with.
+     * @param buffer ByteBuffer (heap or direct) to write into first.
+     * @param sink ByteBufferSink that receives each filled ByteBuffer.
+     */
+    public void resetToBuffer(ByteBuffer buffer, ByteBufferSink sink) {
+        Convention.throwIfNull(buffer, "ByteBuffer cannot be null");
+        Convention.throwIfNull(sink, "ByteBufferSink cannot be null");
+        reset(null);
+        this.sink = sink;
+        this.target = buffer;
+    }
+
+    private boolean isInMemory() {
+        return out == null && channel == null && sink == null;
+    }
+
+    /**
+     * @return everything written so far, when the output is kept in memory (no OutputStream).  A high surrogate
+     * still waiting for its partner is not included.
+     */
+    public String getBufferedString() {
+        if (!isInMemory()) {
+            throw new JsonIoException("Utf8Writer output is written to an OutputStream, channel, or ByteBuffer, not kept in memory");
+        }
+        // Only ASCII written: ISO-8859-1 decoding is a plain copy (no UTF-8 validation).
+        return new String(buf, 0, pos, nonAscii ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Utf8Writer is closed");
+        }
+    }
+
+    /**
+     * Make room in the buffer: write it to the OutputStream, or grow it when the output is kept in memory.
+     */
+    private void drain() throws IOException {
+        if (out != null) {
+            if (pos > 0) {
+                out.write(buf, 0, pos);
+                pos = 0;
+            }
+        } else if (channel != null) {
+            final ByteBuffer bytes = ByteBuffer.wrap(buf, 0, pos);
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            pos = 0;
+        } else if (sink != null) {
+            int off = 0;
+            while (off < pos) {
+                if (target == null) {
+                    throw new IOException("ByteBufferSink returned no ByteBuffer to continue writing into");
+                }
+                final int n = Math.min(pos - off, target.remaining());
+                target.put(buf, off, n);
+                off += n;
+                if (!target.hasRemaining()) {
+                    handOff();
+                }
+            }
+            pos = 0;
+        } else {
+            buf = Arrays.copyOf(buf, buf.length << 1);
+        }
+    }
+
+    /**
+     * Give the filled (flipped) target buffer to the sink, and continue with the buffer it returns.
+     */
+    private void handOff() throws IOException {
+        target.flip();
+        final ByteBuffer next = sink.accept(target);
+        target = next != null && next.hasRemaining() ? next : null;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        ensureOpen();
+        if (pos > buf.length - 4) {
+            drain();
+        }
+        if (c < 0x80 && highSurrogate == 0) {
+            buf[pos++] = (byte) c;
+        } else {
+            encode((char) c);
+        }
+    }
+
+    @Override
+    public void write(char[] chars, int off, int len) throws IOException {
+        ensureOpen();
+        if ((off | len | (off + len) | (chars.length - (off + len))) < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        final int end = off + len;
+        int i = off;
+        while (i < end) {
+            if (pos > this.buf.length - 4) {
+                drain();
+            }
+            final byte[] buf = this.buf;
+            // ASCII run, bounded to leave 4 bytes of room for the char that ends it
+            final int runEnd = Math.min(end, i + buf.length - pos - 3);
+            int p = pos;
+            if (highSurrogate == 0) {
+                char c;
+                while (i < runEnd && (c = chars[i]) < 0x80) {
+                    buf[p++] = (byte) c;
+                    i++;
+                }
+            }
+            pos = p;
+            if (i < runEnd) {
+                encode(chars[i++]);
+            }
+        }
+    }
+
+    @Override
+    public void write(String s, int off, int len) throws IOException {
+        ensureOpen();
+        if ((off | len | (off + len) | (s.length() - (off + len))) < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        final int end = off + len;
+        int i = off;
+        while (i < end) {
+            if (pos > this.buf.length - 4) {
+                drain();
+            }
+            final byte[] buf = this.buf;
+            final int runEnd = Math.min(end, i + buf.length - pos - 3);
+            int p = pos;
+            if (highSurrogate == 0) {
+                char c;
+                while (i < runEnd && (c = s.charAt(i)) < 0x80) {
+                    buf[p++] = (byte) c;
+                    i++;
+                }
+            }
+            pos = p;
+            if (i < runEnd) {
+                encode(s.charAt(i++));
+            }
+        }
+    }
+
+    @Override
+    public void write(String s) throws IOException {
+        write(s, 0, s.length());
+    }
+
+    /**
+     * Append everything the passed in (in memory) Utf8Writer holds, as is, without decoding and encoding it again.
+     * Used to concatenate JSON written in parallel into separate buffers.
+     */
+    void append(Utf8Writer other) throws IOException {
+        writeUtf8(other.buf, other.pos, !other.nonAscii);
+    }
+
+    /**
+     * Write already UTF-8 encoded bytes (for instance a field name encoded once per class) as is.
+     * @param utf8 bytes to write.
+     * @param len number of bytes (from the start of utf8) to write.
+     * @param ascii true if the bytes are all 0x7F or below.
+     */
+    void writeUtf8(byte[] utf8, int len, boolean ascii) throws IOException {
+        ensureOpen();
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            if (pos == buf.length) {
+                drain();
+            }
+            buf[pos++] = '?';
+        }
+        nonAscii |= !ascii;
+        if (len <= buf.length - pos) {
+            System.arraycopy(utf8, 0, buf, pos, len);
+            pos += len;
+            return;
+        }
+        final byte[] src = utf8;
+        if (out != null && len >= buf.length) {
+            drain();
+            out.write(src, 0, len);
+            return;
+        }
+        int off = 0;
+        while (off < len) {
+            if (pos == buf.length) {
+                drain();
+            }
+            final int n = Math.min(len - off, buf.length - pos);
+            System.arraycopy(src, off, buf, pos, n);
+            pos += n;
+            off += n;
+        }
+    }
+
+    /**
+     * Write the decimal digits of the passed in value (the same characters as Long.toString()) straight into the
+     * buffer, two digits at a time, without creating a String.
+     */
+    public void writeLong(long value) throws IOException {
+        ensureOpen();
+        if (pos > buf.length - 21) {
+            drain();
+        }
+        final byte[] buf = this.buf;
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            buf[pos++] = '?';
+        }
+
+        // Work with the negated value, so that Long.MIN_VALUE needs no special case.
+        if (value < 0) {
+            buf[pos++] = '-';
+        } else {
+            value = -value;
+        }
+        final int end = pos + digitCount(value);
+        int p = end;
+        while (value <= -100) {
+            final long q = value / 100;
+            final int r = (int) (q * 100 - value);
+            value = q;
+            buf[--p] = DIGIT_ONES[r];
+            buf[--p] = DIGIT_TENS[r];
+        }
+        final int r = (int) -value;
+        buf[--p] = DIGIT_ONES[r];
+        if (r >= 10) {
+            buf[--p] = DIGIT_TENS[r];
+        }
+        pos = end;
+    }
+
+    /**
+     * @return number of decimal digits in the passed in (zero or negative) value.
+     */
+    private static int digitCount(long negative) {
+        long limit = -10;
+        for (int i = 1; i < 19; i++) {
+            if (negative > limit) {
+                return i;
+            }
+            limit = 10 * limit;
+        }
+        return 19;
+    }
+
+    /**
+     * Encode one char, which may be half of a surrogate pair.  The caller guarantees 4 bytes of room.
+     */
+    private void encode(char c) {
+        final byte[] buf = this.buf;
+        nonAscii = true;
+        if (highSurrogate != 0) {
+            final char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                final int codePoint = Character.toCodePoint(high, c);
+                buf[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                buf[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buf[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+                return;
+            }
+            buf[pos++] = '?';   // unpaired high surrogate, at most 3 more bytes follow for c
+        }
+
+        if (c < 0x80) {
+            buf[pos++] = (byte) c;
+        } else if (c < 0x800) {
+            buf[pos++] = (byte) (0xC0 | (c >> 6));
+            buf[pos++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buf[pos++] = '?';   // unpaired low surrogate
+        } else {
+            buf[pos++] = (byte) (0xE0 | (c >> 12));
+            buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buf[pos++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (closed || isInMemory()) {
+            return;
+        }
+        try {
+            drain();
+            if (out != null) {
+                out.flush();
+            } else if (sink != null && target != null && target.position() > 0) {
+                handOff();
+            }
+        } catch (IOException e) {
+            flushFailure = e;
+            throw e;
+        }
+    }
+
+    /**
+     * @return the exception the most recent failed flush() threw (since the last reset), or null.  For callers
+     * that flush through a layer that does not report failures.
+     */
+    IOException getFlushFailure() {
+        return flushFailure;
+    }
+
+    /**
+     * Flush and close the underlying OutputStream or channel (if any).  When writing to a ByteBufferSink, the last
+     * (partly) filled buffer is handed to it.  A high surrogate still waiting for its partner is written as '?'.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            if (pos > buf.length - 4) {
+                drain();
+            }
+            buf[pos++] = '?';
+        }
+        if (out != null) {
+            try {
+                drain();
+                out.flush();
+            } finally {
+                out.close();
+            }
+        } else if (channel != null) {
+            try {
+                drain();
+            } finally {
+                channel.close();
+            }
+        } else if (sink != null) {
+            drain();
+            if (target != null && target.position() > 0) {
+                handOff();
+            }
+        }
+    }
+}
@@ -68,6 +68,13 @@ public interface WriteOptions {
      */
     boolean isSkipNullFields();
 
+    /**
+     * @return int number of times a class is written before json-io compiles specialized field writers for it
+     * (primitive and String fields written directly, without per-value dispatch).  0 means never compile.
+     * The default is 8.
+     */
+    int getCompileThreshold();
+
     /**
      * @return boolean 'forceMapOutputAsTwoArrays' setting.  true indicates that two arrays will be written to
      * represent a Java Map, one for keys, one for values.  false indicates one Java object will be used, if
@@ -82,6 +89,42 @@ public interface WriteOptions {
      */
     boolean isAllowNanAndInfinity();
 
+    /**
+     * @return boolean true if the HTML-sensitive characters &lt;, &gt;, &amp;, and ' are written in \\uXXXX form
+     * within JSON strings, so that the JSON can be embedded in HTML or XML as is.  The default is false.
+     */
+    boolean isEscapeHtml();
+
+    /**
+     * @return boolean true if characters above 0x7F are written in \\uXXXX form within JSON strings, making the
+     * output pure ASCII.  false writes them as UTF-8.  The default is false.
+     */
+    boolean isEscapeNonAscii();
+
+    /**
+     * @return boolean true if the object graph being written is promised to be a tree (no object reachable twice).
+     * The reference tracing pass is skipped, no @id / @ref is written, and an object that contains itself
+     * (a cycle along the current path) causes a JsonIoException.  An object reachable twice without a cycle is
+     * written out twice.  The default is false.
+     */
+    boolean isTreeMode();
+
+    /**
+     * @return boolean true if references are traced on the common ForkJoinPool, for very large graphs.  Objects
+     * referenced more than once get @id / @ref exactly as with the serial trace, but ids are numbered in the
+     * order the objects are written.  Ignored in tree mode.  The default is false.
+     */
+    boolean isParallelReferenceTracing();
+
+    /**
+     * @return boolean true if the elements of a large root array or Collection are written in chunks on the common
+     * ForkJoinPool, each into its own buffer, and then copied to the output in order.  Only done when no object is
+     * referenced more than once (or in tree mode), so the output is identical to a serial write, and when no
+     * object in the graph is written by a custom writer other than json-io's own or a
+     * JsonWriter.ThreadSafeClassWriter.  The default is false.
+     */
+    boolean isParallelArrayWriting();
+
     /**
      * true indicates that only public fields will be output on an Enum.  Enums don't often have fields added to them
      * but if so, then only the public fields will be written.  The Enum will be written out in JSON object { } format.
@@ -71,6 +71,7 @@ public class WriteOptionsBuilder {
         loadBaseNonRefs();
         loadBaseExcludedFields();
         loadBaseNonStandardGetters();
+        loadCodecProviders();
 
         // If the lists below become large, then break these out into load* APIs like we've done for the ones above.
         addPermanentFieldFilter("static", new StaticFieldFilter());
@@ -117,6 +118,11 @@ public class WriteOptionsBuilder {
 
             // Copy simple settings
             options.allowNanAndInfinity = other.allowNanAndInfinity;
+            options.escapeHtml = other.escapeHtml;
+            options.escapeNonAscii = other.escapeNonAscii;
+            options.treeMode = other.treeMode;
+            options.parallelReferenceTracing = other.parallelReferenceTracing;
+            options.parallelArrayWriting = other.parallelArrayWriting;
             options.closeStream = other.closeStream;
             options.classLoader = other.classLoader;
             options.enumPublicFieldsOnly = other.enumPublicFieldsOnly;
@@ -125,6 +131,7 @@ public class WriteOptionsBuilder {
             options.shortMetaKeys = other.shortMetaKeys;
             options.showTypeInfo = other.showTypeInfo;
             options.skipNullFields = other.skipNullFields;
+            options.compileThreshold = other.compileThreshold;
             options.writeLongsAsStrings = other.writeLongsAsStrings;
 
             // Copy complex settings
@@ -414,6 +421,19 @@ public class WriteOptionsBuilder {
         return this;
     }
 
+    /**
+     * @param compileThreshold int number of times a class is written before specialized field writers are
+     *                         compiled for it.  Use 0 to always write fields through the general path.
+     * @return WriteOptionsBuilder for chained access.
+     */
+    public WriteOptionsBuilder compileThreshold(int compileThreshold) {
+        if (compileThreshold < 0) {
+            throw new JsonIoException("compileThreshold must be >= 0, value: " + compileThreshold);
+        }
+        options.compileThreshold = compileThreshold;
+        return this;
+    }
+
     /**
      * @param forceMapOutputAsTwoArrays boolean 'forceMapOutputAsTwoArrays' setting.  true will force Java Maps to be
      *                                  written out as two parallel arrays, once for keys, one array for values.
@@ -437,6 +457,67 @@ public class WriteOptionsBuilder {
         return this;
     }
 
+    /**
+     * @param escapeHtml boolean 'escapeHtml' setting.  true will write the HTML-sensitive characters &lt;, &gt;,
+     *                   &amp;, and ' in \\uXXXX form within JSON strings, false writes them as is (default).
+     * @return WriteOptionsBuilder for chained access.
+     */
+    public WriteOptionsBuilder escapeHtml(boolean escapeHtml) {
+        options.escapeHtml = escapeHtml;
+        return this;
+    }
+
+    /**
+     * @param escapeNonAscii boolean 'escapeNonAscii' setting.  true will write characters above 0x7F in \\uXXXX
+     *                       form within JSON strings (pure ASCII output), false writes them as UTF-8 (default).
+     * @return WriteOptionsBuilder for chained access.
+     */
+    public WriteOptionsBuilder escapeNonAscii(boolean escapeNonAscii) {
+        options.escapeNonAscii = escapeNonAscii;
+        return this;
+    }
+
+    /**
+     * @param treeMode boolean 'treeMode' setting.  true promises that the graph being written is a tree: the
+     *                 reference tracing pass is skipped and no @id / @ref is written.  A cycle along the current
+     *                 path is reported as a JsonIoException, and an object reachable twice is written twice.
+     *                 false (default) traces references, so that shared objects are written once.
+     * @return WriteOptionsBuilder for chained access.
+     */
+    public WriteOptionsBuilder treeMode(boolean treeMode) {
+        options.treeMode = treeMode;
+        return this;
+    }
+
+    /**
+     * @param parallelReferenceTracing boolean 'parallelReferenceTracing' setting.  true traces the references of
+     *                                 the graph being written on the common ForkJoinPool, which pays off for graphs
+     *                                 of millions of objects.  The same objects get @id / @ref as with the serial
+     *                                 trace, with ids numbered in the order the objects are written.  false
+     *                                 (default) traces on the calling thread.
+     * @return WriteOptionsBuilder for chained access.
+     */
+    public WriteOptionsBuilder parallelReferenceTracing(boolean parallelReferenceTracing) {
+        options.parallelReferenceTracing = parallelReferenceTracing;
+        return this;
+    }
+
+    /**
+     * @param parallelArrayWriting boolean 'parallelArrayWriting' setting.  true writes the elements of a large root
+     *                             array or Collection in chunks on the common ForkJoinPool, each chunk into its own
+     *                             buffer, and then copies the chunks to the output in order.  This is only done
+     *                             when no object in the graph is referenced more than once (or in tree mode).  The
+     *                             output is identical to a serial write.  A graph that reaches a class with a
+     *                             custom writer other than json-io's own is written on the calling thread, unless
+     *                             the writer implements JsonWriter.ThreadSafeClassWriter.  false (default) writes
+     *                             on the calling thread.
+     * @return WriteOptionsBuilder for chained access.
+     */
+    public WriteOptionsBuilder parallelArrayWriting(boolean parallelArrayWriting) {
+        options.parallelArrayWriting = parallelArrayWriting;
+        return this;
+    }
+
     /**
      * Option to write out enums as a String, it will write out the enum.name() field.
      * This is the default way enums will be written out.
@@ -782,6 +863,8 @@ public class WriteOptionsBuilder {
         options.accessorFactories = Collections.unmodifiableMap(options.accessorFactories);
         options.customWrittenClasses = Collections.unmodifiableMap(options.customWrittenClasses);
         options.customOptions = Collections.unmodifiableMap(options.customOptions);
+        options.threadUnsafeWriters = !JsonWriter.isThreadSafe(options.enumWriter)
+                || options.customWrittenClasses.values().stream().anyMatch(writer -> !JsonWriter.isThreadSafe(writer));
         return options;
     }
 
@@ -791,8 +874,14 @@ public class WriteOptionsBuilder {
         private boolean prettyPrint = false;
         private boolean writeLongsAsStrings = false;
         private boolean skipNullFields = false;
+        private int compileThreshold = 8;
         private boolean forceMapOutputAsTwoArrays = false;
         private boolean allowNanAndInfinity = false;
+        private boolean escapeHtml = false;
+        private boolean escapeNonAscii = false;
+        private boolean treeMode = false;
+        private boolean parallelReferenceTracing = false;
+        private boolean parallelArrayWriting = false;
         private boolean enumPublicFieldsOnly = false;
         private boolean closeStream = true;
         private JsonWriter.JsonClassWriter enumWriter = new Writers.EnumsAsStringWriter();
@@ -808,6 +897,7 @@ public class WriteOptionsBuilder {
         private Map<String, AccessorFactory> accessorFactories = new LinkedHashMap<>();
         private Map<Class<?>, JsonWriter.JsonClassWriter> customWrittenClasses = new LinkedHashMap<>();
         private Map<String, Object> customOptions = new LinkedHashMap<>();
+        private boolean threadUnsafeWriters = false;     // set by build()
 
         // Runtime caches (not feature options), since looking up writers can be expensive
         // when one does not exist, we cache the write or a nullWriter if one does not exist.
@@ -818,6 +908,9 @@ public class WriteOptionsBuilder {
 
         private final Map<Class<?>, Map<String, Field>> classMetaCache = new ConcurrentHashMap<>(200, 0.8f, Runtime.getRuntime().availableProcessors());
 
+        // Per-class write plans (field list plus the compiled field writers once a class is written often enough)
+        private final Map<Class<?>, ClassWritePlan> writePlanCache = new ConcurrentHashMap<>(200, 0.8f, Runtime.getRuntime().availableProcessors());
+
         /**
          * Default Constructor.  Prevent instantiation outside of package.
          */
@@ -886,6 +979,10 @@ public class WriteOptionsBuilder {
             return accessorsCache.computeIfAbsent(c, this::buildDeepAccessors);
         }
 
+        ClassWritePlan getWritePlan(final Class<?> c) {
+            return writePlanCache.computeIfAbsent(c, clazz -> new ClassWritePlan(clazz, this));
+        }
+
         /**
          * @return boolean true if java.util.Date and java.sql.Date's are being written in long (numeric) format.
          */
@@ -946,6 +1043,14 @@ public class WriteOptionsBuilder {
             return skipNullFields;
         }
 
+        /**
+         * @return int number of times a class is written before json-io compiles specialized field writers for it.
+         * 0 means never compile.  The default is 8.
+         */
+        public int getCompileThreshold() {
+            return compileThreshold;
+        }
+
         /**
          * @return boolean 'forceMapOutputAsTwoArrays' setting.  true indicates that two arrays will be written to
          * represent a Java Map, one for keys, one for values.  false indicates one Java object will be used, if
@@ -964,6 +1069,45 @@ public class WriteOptionsBuilder {
             return allowNanAndInfinity;
         }
 
+        /**
+         * @return boolean true if the HTML-sensitive characters &lt;, &gt;, &amp;, and ' are written in \\uXXXX
+         * form within JSON strings.  The default is false.
+         */
+        public boolean isEscapeHtml() {
+            return escapeHtml;
+        }
+
+        /**
+         * @return boolean true if characters above 0x7F are written in \\uXXXX form within JSON strings.  The
+         * default is false.
+         */
+        public boolean isEscapeNonAscii() {
+            return escapeNonAscii;
+        }
+
+        /**
+         * @return boolean true if the graph being written is promised to be a tree (no reference tracing, no
+         * @id / @ref).  The default is false.
+         */
+        public boolean isTreeMode() {
+            return treeMode;
+        }
+
+        /**
+         * @return boolean true if references are traced on the common ForkJoinPool.  The default is false.
+         */
+        public boolean isParallelReferenceTracing() {
+            return parallelReferenceTracing;
+        }
+
+        /**
+         * @return boolean true if the elements of a large root array or Collection are written in parallel.  The
+         * default is false.
+         */
+        public boolean isParallelArrayWriting() {
+            return parallelArrayWriting;
+        }
+
         /**
          * true indicates that only public fields will be output on an Enum.  Enums don't often have fields added to them
          * but if so, then only the public fields will be written.  The Enum will be written out in JSON object { } format.
@@ -1012,6 +1156,14 @@ public class WriteOptionsBuilder {
             return writer == nullWriter ? null : writer;
         }
 
+        /**
+         * @return true if any of the custom writers is not known to be thread-safe, in which case a parallel array
+         * write first checks whether the graph reaches one of them.
+         */
+        boolean hasThreadUnsafeWriters() {
+            return threadUnsafeWriters;
+        }
+
         public JsonWriter.JsonClassWriter findCustomWriter(Class<?> c) {
             JsonWriter.JsonClassWriter writer = MetaUtils.findClosest(c, customWrittenClasses, nullWriter);
             return writer != nullWriter ? writer : MetaUtils.getClassIfEnum(c).isPresent() ? enumWriter : nullWriter;
@@ -1032,6 +1184,7 @@ public class WriteOptionsBuilder {
 
         public void clearCaches() {
             accessorsCache.clear();
+            writePlanCache.clear();
         }
 
         private List<Accessor> buildDeepAccessors(final Class<?> clazz) {
@@ -1178,6 +1331,36 @@ public class WriteOptionsBuilder {
         }
     }
 
+    /**
+     * Add the writers of every CodecProvider found by ServiceLoader.  Loaded after the base writers, so a provider
+     * can replace one of them.
+     */
+    private static void loadCodecProviders() {
+        MetaUtils.loadCodecProviders().forEach(WriteOptionsBuilder::addPermanentCodecProvider);
+    }
+
+    /**
+     * Add the writers of a CodecProvider permanently (JVM lifecycle), the same as the providers discovered with
+     * java.util.ServiceLoader when this class is loaded.  Use this (or loadPermanentCodecProviders()) when the
+     * provider lives in a ClassLoader json-io cannot see, for example a plugin or web-app ClassLoader.  Register
+     * the provider with ReadOptionsBuilder as well if it also supplies readers or class factories.
+     *
+     * @param provider CodecProvider whose writers are added.
+     */
+    public static void addPermanentCodecProvider(CodecProvider provider) {
+        provider.getWriters().forEach(WriteOptionsBuilder::addPermanentWriter);
+    }
+
+    /**
+     * Discover the CodecProviders registered (META-INF/services/com.cedarsoftware.io.CodecProvider) in the passed
+     * in ClassLoader and add their writers permanently (JVM lifecycle).
+     *
+     * @param classLoader ClassLoader to search for CodecProvider implementations.
+     */
+    public static void loadPermanentCodecProviders(ClassLoader classLoader) {
+        MetaUtils.loadCodecProviders(classLoader).forEach(WriteOptionsBuilder::addPermanentCodecProvider);
+    }
+
     /**
      * Load the list of classes that are intended to be treated as non-referenceable, immutable classes.
      *
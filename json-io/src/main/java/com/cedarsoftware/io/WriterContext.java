@@ -33,6 +33,16 @@ public interface WriterContext {
      */
     void writeObject(final Object obj, boolean showType, boolean bodyOnly) throws IOException;
 
+    /**
+     * Write the fields of an object, as comma separated "name":value pairs, the way JsonWriter writes the fields
+     * of any object, with no leading comma.  For a JsonClassWriter that hands an instance (such as a subclass it
+     * does not know) back to json-io from inside write(), where JsonWriter has already written the opening brace
+     * and the @id / @type.
+     */
+    default void writeFields(Object obj) throws IOException {
+        writeObject(obj, false, true);
+    }
+
     /**
      * Write any object fully.
      */
@@ -93,7 +93,11 @@ public class Writers
          */
         @Override
         public void writePrimitiveForm(Object o, Writer output, WriterContext context) throws IOException {
-            output.write(extractString(o));
+            if ((o instanceof Integer || o instanceof Short || o instanceof Byte) && getClass() == PrimitiveValueWriter.class) {
+                JsonWriter.writeLong(output, ((Number) o).longValue());
+            } else {
+                output.write(extractString(o));
+            }
         }
     }
 
@@ -109,6 +113,10 @@ public class Writers
         public void writePrimitiveForm(Object o, Writer output, WriterContext context) throws IOException {
             if (!context.getWriteOptions().isAllowNanAndInfinity() && isNanOrInfinity((T) o)) {
                 output.write("null");
+            } else if (o instanceof Double) {
+                JsonWriter.writeDouble(output, (Double) o);
+            } else if (o instanceof Float) {
+                JsonWriter.writeFloat(output, (Float) o);
             } else {
                 output.write(o.toString());
             }
@@ -154,7 +162,7 @@ public class Writers
         public String extractString(Object o) { return o.toString(); }
 
         public void writePrimitiveForm(Object o, Writer output, WriterContext writerContext) throws IOException {
-            JsonWriter.writeJsonUtf8String(output, extractString(o));
+            JsonWriter.writeJsonUtf8String(output, extractString(o), writerContext == null ? null : writerContext.getWriteOptions());
         }
     }
 
@@ -166,7 +174,7 @@ public class Writers
 
         @Override
         public void writePrimitiveForm(Object o, Writer output, WriterContext context) throws IOException {
-            JsonWriter.writeJsonUtf8String(output, "" + (char) o);
+            JsonWriter.writeJsonUtf8String(output, "" + (char) o, context == null ? null : context.getWriteOptions());
         }
     }
 
@@ -234,15 +242,27 @@ public class Writers
     public static class DateWriter extends PrimitiveUtf8StringWriter {
         // could change to DateFormatter.ofPattern to keep from creating new objects
         private final String dateFormat;
+        private final boolean isoDate;
+        private final boolean isoDateTime;
 
         public DateWriter(String format) {
             this.dateFormat = format;
+            this.isoDate = WriteOptionsBuilder.ISO_DATE_FORMAT.equals(format);
+            this.isoDateTime = WriteOptionsBuilder.ISO_DATE_TIME_FORMAT.equals(format);
         }
 
         public String extractString(Object o) {
             Date date = (Date) o;
             return new SimpleDateFormat(dateFormat).format(date);
         }
+
+        @Override
+        public void writePrimitiveForm(Object o, Writer output, WriterContext writerContext) throws IOException {
+            // The ISO patterns are written directly, other patterns go through SimpleDateFormat.
+            if (!(isoDate || isoDateTime) || !Iso8601.write(output, (Date) o, isoDateTime)) {
+                super.writePrimitiveForm(o, output, writerContext);
+            }
+        }
         
         String getDateFormat()
         {
@@ -298,6 +318,13 @@ public class Writers
         public LocalDateWriter() {
             setFormatter(DateTimeFormatter.ISO_LOCAL_DATE);
         }
+
+        @Override
+        protected void writePrimitiveForm(LocalDate date, Writer output) throws IOException {
+            if (formatter != DateTimeFormatter.ISO_LOCAL_DATE || !Iso8601.write(output, date)) {
+                super.writePrimitiveForm(date, output);
+            }
+        }
     }
 
     public static class LocalTimeWriter extends TemporalWriter<LocalTime> {
@@ -310,12 +337,26 @@ public class Writers
         public LocalDateTimeWriter() {
             setFormatter(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
         }
+
+        @Override
+        protected void writePrimitiveForm(LocalDateTime dateTime, Writer output) throws IOException {
+            if (formatter != DateTimeFormatter.ISO_LOCAL_DATE_TIME || !Iso8601.write(output, dateTime)) {
+                super.writePrimitiveForm(dateTime, output);
+            }
+        }
     }
 
     public static class ZonedDateTimeWriter extends TemporalWriter<ZonedDateTime> {
         public ZonedDateTimeWriter() {
             setFormatter(DateTimeFormatter.ISO_ZONED_DATE_TIME);
         }
+
+        @Override
+        protected void writePrimitiveForm(ZonedDateTime dateTime, Writer output) throws IOException {
+            if (formatter != DateTimeFormatter.ISO_ZONED_DATE_TIME || !Iso8601.write(output, dateTime)) {
+                super.writePrimitiveForm(dateTime, output);
+            }
+        }
     }
 
     public static class YearMonthWriter extends TemporalWriter<YearMonth> {
@@ -362,6 +403,13 @@ public class Writers
         public OffsetDateTimeWriter() {
             setFormatter(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
         }
+
+        @Override
+        protected void writePrimitiveForm(OffsetDateTime dateTime, Writer output) throws IOException {
+            if (formatter != DateTimeFormatter.ISO_OFFSET_DATE_TIME || !Iso8601.write(output, dateTime)) {
+                super.writePrimitiveForm(dateTime, output);
+            }
+        }
     }
 
     public static class TimestampWriter implements JsonWriter.JsonClassWriter
@@ -1,10 +1,13 @@
 package com.cedarsoftware.io.factory;
 
 import java.lang.reflect.Array;
+import java.util.Map;
 
 import com.cedarsoftware.io.JsonObject;
 import com.cedarsoftware.io.JsonReader;
+import com.cedarsoftware.io.ReadOptions;
 import com.cedarsoftware.io.Resolver;
+import com.cedarsoftware.util.convert.Convert;
 import com.cedarsoftware.util.convert.Converter;
 
 /**
@@ -39,16 +42,24 @@ public class ArrayFactory<T> implements JsonReader.ClassFactory {
             jObj.setTarget(null);
             return null;
         }
+        ReadOptions readOptions = resolver.getReadOptions();
         int len = items.length;
         Class<?> arrayType = getType();
         Class<?> componentType = arrayType.getComponentType();
         Object array = Array.newInstance(componentType, len);
 
+        // The conversion function is looked up once per run of same-typed elements, not once per element.
+        Class<?> lastSource = null;
+        Class<?> lastType = null;
+        Convert<?> conversion = null;
+
         for (int i = 0; i < len; i++) {
             Object val = items[i];
             if (val == null) {
-            } else if (val instanceof JsonObject) {
-                Class<?> type;
+                continue;
+            }
+            Class<?> type = componentType;
+            if (val instanceof JsonObject) {
                 do {
                     // Allow for {@type:long, value:{@type:int, value:3}}  (and so on...)
                     JsonObject jsonObject = (JsonObject) val;
@@ -62,15 +73,24 @@ public class ArrayFactory<T> implements JsonReader.ClassFactory {
                 if (type == null) {
                     type = componentType;
                 }
-                val = resolver.getConverter().convert(val, type);
+            }
 
+            if (val == null) {
+                val = converter.convert(null, type);
             } else {
-                val = resolver.getConverter().convert(val, componentType);
+                if (val.getClass() != lastSource || type != lastType) {
+                    lastSource = val.getClass();
+                    lastType = type;
+                    conversion = readOptions.getConversion(val instanceof JsonObject ? Map.class : lastSource, type);
+                }
+                val = conversion == null ? converter.convert(val, type) : conversion.convert(val, converter);
             }
+
             try {
                 Array.set(array, i, val);
             } catch (Exception e) {
-                Array.set(array, i, converter.convert(val, componentType));
+                Convert<?> toComponent = val == null ? null : readOptions.getConversion(val.getClass(), componentType);
+                Array.set(array, i, toComponent == null ? converter.convert(val, componentType) : toComponent.convert(val, converter));
             }
         }
 
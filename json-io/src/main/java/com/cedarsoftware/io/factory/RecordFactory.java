@@ -0,0 +1,122 @@
+package com.cedarsoftware.io.factory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+import com.cedarsoftware.io.JsonObject;
+import com.cedarsoftware.io.JsonReader;
+import com.cedarsoftware.io.MetaUtils;
+import com.cedarsoftware.io.Resolver;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+public class RecordFactory implements JsonReader.ClassFactory {
+    private RecordFactory() {}
+
+    public static class RecordReader implements JsonReader.JsonClassReader
+    {
+        // Record components, types, and canonical constructor, looked up (reflectively, for Java<16 code
+        // compatibility) once per record class.
+        private static final ClassValue<RecordMeta> recordMetas = new ClassValue<RecordMeta>() {
+            protected RecordMeta computeValue(Class<?> c) {
+                try {
+                    return new RecordMeta(c);
+                } catch (NoSuchMethodException e) {
+                    throw new RuntimeException("Record de-serialization only works with java>=16.", e);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+
+        public Object read(Object o, Resolver resolver)
+        {
+            JsonObject jsonObj = (JsonObject) o;
+            RecordMeta meta = recordMetas.get(jsonObj.getJavaType());
+            Object[] values = new Object[meta.names.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = resolver.toTypedValue(jsonObj.get(meta.names[i]), meta.types[i]);
+            }
+
+            try {
+                return meta.newInstance(values);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new RuntimeException(t);
+            }
+        }
+    }
+
+    /**
+     * Component names and types (in canonical constructor order) and the canonical constructor of a record class.
+     */
+    private static final class RecordMeta
+    {
+        private final String[] names;
+        private final Class<?>[] types;
+        private final Constructor<?> constructor;
+        private final MethodHandle constructorHandle;
+
+        private RecordMeta(Class<?> c) throws Exception
+        {
+            // the record components are per definition in the constructor parameter order
+            Method getRecordComponents = Class.class.getMethod("getRecordComponents");
+            Object[] recordComponents = (Object[]) getRecordComponents.invoke(c);
+            names = new String[recordComponents.length];
+            types = new Class<?>[recordComponents.length];
+
+            if (recordComponents.length > 0) {
+                Class<?> componentClass = recordComponents.getClass().getComponentType();
+                Method getType = componentClass.getMethod("getType");
+                Method getName = componentClass.getMethod("getName");
+                for (int i = 0; i < recordComponents.length; i++) {
+                    types[i] = (Class<?>) getType.invoke(recordComponents[i]);
+                    names[i] = (String) getName.invoke(recordComponents[i]);
+                }
+            }
+
+            constructor = c.getDeclaredConstructor(types);
+            MetaUtils.trySetAccessible(constructor);
+            MethodHandle handle;
+            try {
+                handle = MethodHandles.lookup().unreflectConstructor(constructor)
+                        .asSpreader(Object[].class, types.length)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+            } catch (IllegalAccessException e) {
+                handle = null;  // Constructor.newInstance() below reports the access problem
+            }
+            constructorHandle = handle;
+        }
+
+        private Object newInstance(Object[] values) throws Throwable
+        {
+            if (constructorHandle != null) {
+                return (Object) constructorHandle.invokeExact(values);
+            }
+            return constructor.newInstance(values);
+        }
+    }
+
+    public boolean isObjectFinal() {
+        return true;
+    }
+}
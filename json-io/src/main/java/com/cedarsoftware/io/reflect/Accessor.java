@@ -0,0 +1,255 @@
+package com.cedarsoftware.io.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import com.cedarsoftware.io.MetaUtils;
+
+/**
+ * @author Kenny Partlow (kpartlow@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+public class Accessor {
+    private static final MethodType OBJECT_GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType LONG_GETTER = MethodType.methodType(long.class, Object.class);
+    private static final MethodType DOUBLE_GETTER = MethodType.methodType(double.class, Object.class);
+    private static final MethodType BOOLEAN_GETTER = MethodType.methodType(boolean.class, Object.class);
+
+    private final String uniqueFieldName;
+
+    /**
+     * The field we are trying to access with this method handle
+     */
+    private final Field field;
+    private final boolean isMethod;
+    private final String fieldOrMethodName;
+    private final MethodHandle methodHandle;
+    private final boolean isPublic;
+
+    // Fastest available retrieval: a generated Function (getter methods), else the MethodHandle adapted to
+    // (Object)Object so that it can be called with invokeExact().
+    private final Function<Object, Object> getter;
+    private final MethodHandle exactHandle;
+
+    // Primitive retrieval (no boxing), only one of these is set, and only for primitive fields.
+    private final ToLongFunction<Object> longGetter;
+    private final ToDoubleFunction<Object> doubleGetter;
+    private final Predicate<Object> booleanGetter;
+    private final MethodHandle primitiveHandle;
+
+    private Accessor(Field field, MethodHandle methodHandle, String uniqueFieldName, String fieldOrMethodName, boolean isPublic, boolean isMethod) {
+        this.field = field;
+        this.methodHandle = methodHandle;
+        this.uniqueFieldName = uniqueFieldName;
+        this.fieldOrMethodName = fieldOrMethodName;
+        this.isPublic = isPublic;
+        this.isMethod = isMethod;
+
+        final Class<?> type = field.getType();
+        final boolean isLong = type == long.class || type == int.class || type == short.class || type == byte.class;
+        final boolean isDouble = type == double.class || type == float.class;
+        final boolean isBoolean = type == boolean.class;
+
+        if (methodHandle == null) {
+            getter = null;
+            exactHandle = null;
+            longGetter = null;
+            doubleGetter = null;
+            booleanGetter = null;
+            primitiveHandle = null;
+            return;
+        }
+
+        // Getter methods can be bound to generated implementations.  Fields cannot (LambdaMetafactory only
+        // targets methods), they use the exact-typed MethodHandle.
+        getter = isMethod ? Lambdas.getter(methodHandle) : null;
+        exactHandle = methodHandle.asType(OBJECT_GETTER);
+        longGetter = isMethod && isLong ? Lambdas.longGetter(methodHandle) : null;
+        doubleGetter = isMethod && isDouble ? Lambdas.doubleGetter(methodHandle) : null;
+        booleanGetter = isMethod && isBoolean ? Lambdas.booleanGetter(methodHandle) : null;
+
+        if (isLong) {
+            primitiveHandle = methodHandle.asType(LONG_GETTER);
+        } else if (isDouble) {
+            primitiveHandle = methodHandle.asType(DOUBLE_GETTER);
+        } else if (isBoolean) {
+            primitiveHandle = methodHandle.asType(BOOLEAN_GETTER);
+        } else {
+            primitiveHandle = null;
+        }
+    }
+
+    public static Accessor createFieldAccessor(Field field, String uniqueFieldName) {
+        if (!(Modifier.isPublic(field.getModifiers()) && Modifier.isPublic(field.getDeclaringClass().getModifiers()))) {
+            MetaUtils.trySetAccessible(field);
+        }
+
+        try {
+            MethodHandle handle = MethodHandles.lookup().unreflectGetter(field);
+            return new Accessor(field, handle, uniqueFieldName, field.getName(), Modifier.isPublic(field.getModifiers()), false);
+        } catch (IllegalAccessException ex) {
+            return null;
+        }
+    }
+
+    public static Accessor createMethodAccessor(Field field, String methodName, String uniqueFieldName) {
+        try {
+            MethodType type = MethodType.methodType(field.getType());
+            MethodHandle handle = MethodHandles.publicLookup().findVirtual(field.getDeclaringClass(), methodName, type);
+            return new Accessor(field, handle, uniqueFieldName, methodName, true, true);
+        } catch (Exception ignore) {
+            return null;
+        }
+    }
+
+    public Object retrieve(Object o) {
+        try {
+            if (getter != null) {
+                return getter.apply(o);
+            } else if (exactHandle != null) {
+                return (Object) exactHandle.invokeExact(o);
+            } else {
+                return field.get(o);
+            }
+        } catch (ThreadDeath td) {
+            throw td;
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /**
+     * Retrieve the value of a byte, short, int, or long field without boxing it.
+     * @param o Object from which to read the field.
+     * @return long value of the field (0 if it could not be read).
+     */
+    public long retrieveLong(Object o) {
+        try {
+            if (longGetter != null) {
+                return longGetter.applyAsLong(o);
+            } else if (primitiveHandle != null) {
+                return (long) primitiveHandle.invokeExact(o);
+            } else {
+                return field.getLong(o);
+            }
+        } catch (ThreadDeath td) {
+            throw td;
+        } catch (Throwable t) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Retrieve the value of a float or double field without boxing it.
+     * @param o Object from which to read the field.
+     * @return double value of the field (0.0 if it could not be read).
+     */
+    public double retrieveDouble(Object o) {
+        try {
+            if (doubleGetter != null) {
+                return doubleGetter.applyAsDouble(o);
+            } else if (primitiveHandle != null) {
+                return (double) primitiveHandle.invokeExact(o);
+            } else {
+                return field.getDouble(o);
+            }
+        } catch (ThreadDeath td) {
+            throw td;
+        } catch (Throwable t) {
+            return 0.0d;
+        }
+    }
+
+    /**
+     * Retrieve the value of a boolean field without boxing it.
+     * @param o Object from which to read the field.
+     * @return boolean value of the field (false if it could not be read).
+     */
+    public boolean retrieveBoolean(Object o) {
+        try {
+            if (booleanGetter != null) {
+                return booleanGetter.test(o);
+            } else if (primitiveHandle != null) {
+                return (boolean) primitiveHandle.invokeExact(o);
+            } else {
+                return field.getBoolean(o);
+            }
+        } catch (ThreadDeath td) {
+            throw td;
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    /**
+     * @return MethodHandle or null if there is none.
+     */
+    public MethodHandle getMethodHandle() {
+         return methodHandle;
+    }
+
+    public boolean isMethod() {
+        return isMethod;
+    }
+
+    public Class<?> getFieldType() {
+        return this.field.getType();
+    }
+
+    public Class<?> getDeclaringClass() {
+        return this.field.getDeclaringClass();
+    }
+
+    public Type getGenericType() {
+        return this.field.getGenericType();
+    }
+
+    public String getActualFieldName() {
+        return field.getName();
+    }
+
+    /**
+     * The unique field name if two fields have the same name in the same class structure,
+     * the more parent field will be qualified with the ShortName of the Declaring class
+     */
+    public String getUniqueFieldName() {
+        return uniqueFieldName;
+    }
+
+    /**
+     * The display name will be either the underlying field name or the underlying
+     * method name from which the method handle was created.
+     */
+    public String getFieldOrMethodName() {
+        return fieldOrMethodName;
+    }
+
+    /**
+     * This will be the modifiers of the field or method that defines this MethodHandle
+     * (or Field) itself if we had to fall back to field access.
+     */
+    public boolean isPublic() {
+        return isPublic;
+    }
+}
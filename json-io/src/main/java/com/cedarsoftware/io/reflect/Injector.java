@@ -5,6 +5,8 @@ import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.function.BiConsumer;
 
 import com.cedarsoftware.io.JsonIoException;
 import com.cedarsoftware.util.Converter;
@@ -30,18 +32,41 @@ import static java.lang.reflect.Modifier.isPublic;
  *         limitations under the License.
  */
 public class Injector {
+    private static final MethodType OBJECT_SETTER = MethodType.methodType(void.class, Object.class, Object.class);
 
     private final Field field;
     private final String displayName;
     private final String uniqueFieldName;
     private MethodHandle injector;
 
+    // Fastest available injection: a generated BiConsumer (setter methods), else the MethodHandle adapted to
+    // (Object, Object)void so that it can be called with invokeExact().
+    private final BiConsumer<Object, Object> setter;
+    private final MethodHandle exactInjector;
+    // Type a value must be an instance of to be injected as-is (primitive field types are boxed here).
+    private final Class<?> acceptedType;
 
     public Injector(Field field, MethodHandle handle, String uniqueFieldName, String displayName) {
+        this(field, handle, uniqueFieldName, displayName, false);
+    }
+
+    private Injector(Field field, MethodHandle handle, String uniqueFieldName, String displayName, boolean isMethod) {
         this.field = field;
         this.displayName = displayName;
         this.uniqueFieldName = uniqueFieldName;
         this.injector = handle;
+        this.acceptedType = MethodType.methodType(field.getType()).wrap().returnType();
+
+        MethodHandle exact;
+        try {
+            exact = handle.asType(OBJECT_SETTER);
+        } catch (Exception e) {
+            exact = null;
+        }
+        this.exactInjector = exact;
+        // Setter methods can be bound to generated implementations.  Fields cannot (LambdaMetafactory only
+        // targets methods), they use the exact-typed MethodHandle.
+        this.setter = isMethod ? Lambdas.setter(handle) : null;
     }
 
     public static Injector create(Field field, String uniqueFieldName) {
@@ -68,9 +93,9 @@ public class Injector {
 
     public static Injector create(Field field, String methodName, String uniqueFieldName) {
         try {
-            MethodType methodType = MethodType.methodType(Void.class, field.getType());
+            MethodType methodType = MethodType.methodType(void.class, field.getType());
             MethodHandle handle = MethodHandles.publicLookup().findVirtual(field.getDeclaringClass(), methodName, methodType);
-            return new Injector(field, handle, uniqueFieldName, methodName);
+            return new Injector(field, handle, uniqueFieldName, methodName, true);
         } catch (NoSuchMethodException | IllegalAccessException ex) {
             // ignore
             return null;
@@ -82,19 +107,23 @@ public class Injector {
             throw new JsonIoException("Attempting to set field: " + getName() + " on null object.");
         }
 
+        if (value != null && !acceptedType.isInstance(value)) {
+            // Value cannot be assigned as-is, convert it up front rather than waiting for a ClassCastException.
+            injectConverted(object, value, null);
+            return;
+        }
+
         try {
-            injector.invoke(object, value);
+            if (setter != null) {
+                setter.accept(object, value);
+            } else if (exactInjector != null) {
+                exactInjector.invokeExact(object, value);
+            } else {
+                injector.invoke(object, value);
+            }
         }
         catch (ClassCastException e) {
-            String msg = e.getMessage();
-            if (StringUtilities.hasContent(msg) && msg.contains("LinkedHashMap")) {
-                throw new JsonIoException("Unable to set field: " + getName() + " using " + getDisplayName() + ".", e);
-            }
-            try {
-                injector.invoke(object, Converter.convert(value, field.getType()));
-            } catch (Throwable t) {
-                throw new JsonIoException("Unable to set field: " + getName() + " using " + getDisplayName() + ". Getting a ClassCastException.", e);
-            }
+            injectConverted(object, value, e);
         }
         catch (Throwable t) {
             if (t instanceof JsonIoException) {
@@ -104,6 +133,18 @@ public class Injector {
         }
     }
 
+    private void injectConverted(Object object, Object value, ClassCastException e) {
+        String msg = e == null ? null : e.getMessage();
+        if (value instanceof LinkedHashMap || (StringUtilities.hasContent(msg) && msg.contains("LinkedHashMap"))) {
+            throw new JsonIoException("Unable to set field: " + getName() + " using " + getDisplayName() + ".", e);
+        }
+        try {
+            injector.invoke(object, Converter.convert(value, field.getType()));
+        } catch (Throwable t) {
+            throw new JsonIoException("Unable to set field: " + getName() + " using " + getDisplayName() + ". Getting a ClassCastException.", e == null ? t : e);
+        }
+    }
+
     public Class<?> getType() {
         return field.getType();
     }
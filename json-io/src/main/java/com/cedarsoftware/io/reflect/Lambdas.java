@@ -0,0 +1,148 @@
+package com.cedarsoftware.io.reflect;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Spins functional-interface implementations (via LambdaMetafactory) that call a getter or setter method
+ * directly.  Unlike a MethodHandle held in a field, the generated call site is a plain interface call that
+ * the JIT inlines like any other.  Every method returns null when the implementation cannot be generated
+ * (class not visible from json-io's class loader, module access, etc.), in which case callers keep using
+ * the MethodHandle.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+final class Lambdas {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private Lambdas() {
+    }
+
+    /**
+     * @param getter direct MethodHandle of an instance method taking no arguments.
+     * @return Function calling the getter, or null if one could not be generated.
+     */
+    @SuppressWarnings("unchecked")
+    static Function<Object, Object> getter(MethodHandle getter) {
+        MethodType type = getter.type();
+        return (Function<Object, Object>) spin(Function.class, "apply", MethodType.methodType(Object.class, Object.class),
+                getter, MethodType.methodType(type.wrap().returnType(), type.parameterType(0)));
+    }
+
+    /**
+     * @param getter direct MethodHandle of an instance method returning byte, short, int, or long.
+     * @return ToLongFunction calling the getter (widening the result), or null if one could not be generated.
+     */
+    @SuppressWarnings("unchecked")
+    static ToLongFunction<Object> longGetter(MethodHandle getter) {
+        MethodType type = getter.type();
+        return (ToLongFunction<Object>) spin(ToLongFunction.class, "applyAsLong", MethodType.methodType(long.class, Object.class),
+                getter, MethodType.methodType(long.class, type.parameterType(0)));
+    }
+
+    /**
+     * @param getter direct MethodHandle of an instance method returning float or double.
+     * @return ToDoubleFunction calling the getter (widening the result), or null if one could not be generated.
+     */
+    @SuppressWarnings("unchecked")
+    static ToDoubleFunction<Object> doubleGetter(MethodHandle getter) {
+        MethodType type = getter.type();
+        return (ToDoubleFunction<Object>) spin(ToDoubleFunction.class, "applyAsDouble", MethodType.methodType(double.class, Object.class),
+                getter, MethodType.methodType(double.class, type.parameterType(0)));
+    }
+
+    /**
+     * @param getter direct MethodHandle of an instance method returning boolean.
+     * @return Predicate calling the getter, or null if one could not be generated.
+     */
+    @SuppressWarnings("unchecked")
+    static Predicate<Object> booleanGetter(MethodHandle getter) {
+        MethodType type = getter.type();
+        return (Predicate<Object>) spin(Predicate.class, "test", MethodType.methodType(boolean.class, Object.class),
+                getter, MethodType.methodType(boolean.class, type.parameterType(0)));
+    }
+
+    /**
+     * @param setter direct MethodHandle of an instance method taking one argument.
+     * @return BiConsumer calling the setter, or null if one could not be generated.
+     */
+    @SuppressWarnings("unchecked")
+    static BiConsumer<Object, Object> setter(MethodHandle setter) {
+        MethodType type = setter.type();
+        return (BiConsumer<Object, Object>) spin(BiConsumer.class, "accept", MethodType.methodType(void.class, Object.class, Object.class),
+                setter, MethodType.methodType(void.class, type.parameterType(0), type.wrap().parameterType(1)));
+    }
+
+    private static Object spin(Class<?> functionalInterface, String methodName, MethodType erasedType, MethodHandle impl, MethodType instantiatedType) {
+        if (!isVisible(instantiatedType)) {
+            return null;
+        }
+        try {
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, methodName, MethodType.methodType(functionalInterface),
+                    erasedType, impl, instantiatedType);
+            return site.getTarget().invoke();
+        } catch (ThreadDeath td) {
+            throw td;
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /**
+     * The generated class is defined alongside json-io, so every class it names must resolve, from json-io's
+     * class loader, to the same Class, and be public.  Classes from a child class loader (application servers, plugins)
+     * do not qualify, and neither do non-public parameter types of public setters - both would only fail when called.
+     */
+    private static boolean isVisible(MethodType type) {
+        if (!isVisible(type.returnType())) {
+            return false;
+        }
+        for (Class<?> c : type.parameterArray()) {
+            if (!isVisible(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isVisible(Class<?> c) {
+        while (c.isArray()) {
+            c = c.getComponentType();
+        }
+        if (c.isPrimitive()) {
+            return true;
+        }
+        if (!Modifier.isPublic(c.getModifiers())) {
+            // The generated class (in this package) casts to the type, which it may not access otherwise
+            return false;
+        }
+        try {
+            return Class.forName(c.getName(), false, Lambdas.class.getClassLoader()) == c;
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+}
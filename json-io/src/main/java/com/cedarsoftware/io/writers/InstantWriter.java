@@ -1,8 +1,11 @@
 package com.cedarsoftware.io.writers;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 
+import com.cedarsoftware.io.Iso8601;
 import com.cedarsoftware.io.Writers;
 
 /**
@@ -26,4 +29,11 @@ public class InstantWriter extends Writers.TemporalWriter<Instant> {
     public InstantWriter() {
         setFormatter(DateTimeFormatter.ISO_INSTANT);
     }
+
+    @Override
+    protected void writePrimitiveForm(Instant instant, Writer output) throws IOException {
+        if (formatter != DateTimeFormatter.ISO_INSTANT || !Iso8601.write(output, instant)) {
+            super.writePrimitiveForm(instant, output);
+        }
+    }
 }
@@ -3,6 +3,7 @@ package com.cedarsoftware.io.writers;
 import java.io.IOException;
 import java.io.Writer;
 
+import com.cedarsoftware.io.JsonWriter;
 import com.cedarsoftware.io.WriterContext;
 import com.cedarsoftware.io.Writers;
 
@@ -27,9 +28,11 @@ import com.cedarsoftware.io.Writers;
 public class LongWriter extends Writers.PrimitiveTypeWriter {
     public void writePrimitiveForm(Object o, Writer output, WriterContext context) throws IOException {
         if (context.getWriteOptions().isWriteLongsAsStrings()) {
-            output.write(String.format("\"%d\"", (long)o));
+            output.write('"');
+            JsonWriter.writeLong(output, (long) o);
+            output.write('"');
         } else {
-            output.write(o.toString());
+            JsonWriter.writeLong(output, (long) o);
         }
     }
 }
@@ -0,0 +1,191 @@
+package com.cedarsoftware.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+class CodecProviderTest
+{
+    static class Point
+    {
+        private final int x;
+        private final int y;
+
+        Point(int x, int y)
+        {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    /**
+     * Registered in src/test/resources/META-INF/services/com.cedarsoftware.io.CodecProvider
+     */
+    public static class PointCodecs implements CodecProvider
+    {
+        public Map<Class<?>, JsonWriter.JsonClassWriter> getWriters()
+        {
+            Map<Class<?>, JsonWriter.JsonClassWriter> writers = new HashMap<>();
+            writers.put(Point.class, new PointWriter());
+            return writers;
+        }
+
+        public Map<Class<?>, JsonReader.ClassFactory> getClassFactories()
+        {
+            Map<Class<?>, JsonReader.ClassFactory> factories = new HashMap<>();
+            factories.put(Point.class, new PointFactory());
+            return factories;
+        }
+    }
+
+    static class Label
+    {
+        private final String text;
+
+        Label(String text)
+        {
+            this.text = text;
+        }
+    }
+
+    /**
+     * Not registered in META-INF/services - only visible through the ClassLoader built in the test below.
+     */
+    public static class LabelCodecs implements CodecProvider
+    {
+        public Map<Class<?>, JsonWriter.JsonClassWriter> getWriters()
+        {
+            Map<Class<?>, JsonWriter.JsonClassWriter> writers = new HashMap<>();
+            writers.put(Label.class, new LabelWriter());
+            return writers;
+        }
+    }
+
+    static class LabelWriter implements JsonWriter.JsonClassWriter
+    {
+        public void write(Object o, boolean showType, Writer output, WriterContext context) throws IOException
+        {
+            output.write("\"label\":\"");
+            output.write(((Label) o).text);
+            output.write('"');
+        }
+    }
+
+    static class PointWriter implements JsonWriter.JsonClassWriter
+    {
+        public void write(Object o, boolean showType, Writer output, WriterContext context) throws IOException
+        {
+            Point p = (Point) o;
+            output.write("\"xy\":[");
+            output.write(Integer.toString(p.x));
+            output.write(',');
+            output.write(Integer.toString(p.y));
+            output.write(']');
+        }
+    }
+
+    static class PointFactory implements JsonReader.ClassFactory
+    {
+        public Object newInstance(Class<?> c, JsonObject jObj, Resolver resolver)
+        {
+            Object[] xy = (Object[]) jObj.get("xy");
+            return new Point(((Number) xy[0]).intValue(), ((Number) xy[1]).intValue());
+        }
+
+        public boolean isObjectFinal()
+        {
+            return true;
+        }
+    }
+
+    @Test
+    void testProviderCodecsArePermanent()
+    {
+        assertThat(WriteOptionsBuilder.getDefaultWriteOptions().getCustomWriter(Point.class)).isInstanceOf(PointWriter.class);
+        assertThat(ReadOptionsBuilder.getDefaultReadOptions().getClassFactory(Point.class)).isInstanceOf(PointFactory.class);
+    }
+
+    @Test
+    void testRoundTripThroughProviderCodecs()
+    {
+        String json = TestUtil.toJson(new Point(3, -4));
+        assertThat(json).contains("\"xy\":[3,-4]");
+
+        Point point = TestUtil.toObjects(json, null);
+        assertThat(point.x).isEqualTo(3);
+        assertThat(point.y).isEqualTo(-4);
+    }
+
+    @Test
+    void testProvidersFoundRegardlessOfContextClassLoader() throws Exception
+    {
+        AtomicReference<List<CodecProvider>> found = new AtomicReference<>();
+        try (URLClassLoader bootOnly = new URLClassLoader(new URL[0], null))
+        {
+            Thread thread = new Thread(() -> found.set(MetaUtils.loadCodecProviders()));
+            thread.setContextClassLoader(bootOnly);
+            thread.start();
+            thread.join();
+        }
+
+        List<Class<?>> classes = new ArrayList<>();
+        found.get().forEach(provider -> classes.add(provider.getClass()));
+        assertThat(classes).contains(PointCodecs.class);
+    }
+
+    @Test
+    void testLoadProvidersFromClassLoader(@TempDir Path dir) throws Exception
+    {
+        Path services = dir.resolve("META-INF/services");
+        Files.createDirectories(services);
+        Files.write(services.resolve(CodecProvider.class.getName()), LabelCodecs.class.getName().getBytes(StandardCharsets.UTF_8));
+
+        assertThat(new WriteOptionsBuilder().build().getCustomWriter(Label.class)).isNull();
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {dir.toUri().toURL()}, getClass().getClassLoader()))
+        {
+            WriteOptionsBuilder.loadPermanentCodecProviders(loader);
+        }
+
+        assertThat(new WriteOptionsBuilder().build().getCustomWriter(Label.class)).isInstanceOf(LabelWriter.class);
+        assertThat(TestUtil.toJson(new Label("hi"))).contains("\"label\":\"hi\"");
+    }
+
+    @Test
+    void testAddProvider()
+    {
+        ReadOptionsBuilder.addPermanentCodecProvider(new PointCodecs());
+        assertThat(new ReadOptionsBuilder().build().getClassFactory(Point.class)).isInstanceOf(PointFactory.class);
+    }
+}
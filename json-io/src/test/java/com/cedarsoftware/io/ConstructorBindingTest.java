@@ -0,0 +1,143 @@
+package com.cedarsoftware.io;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+class ConstructorBindingTest
+{
+    static final AtomicInteger moneyConstructed = new AtomicInteger();
+
+    static class Money
+    {
+        private final String currency;
+        private final BigDecimal amount;
+        private final long cents;
+
+        Money(String currency, BigDecimal amount, long cents)
+        {
+            if (currency == null || amount == null)
+            {
+                throw new IllegalArgumentException("currency and amount are required");
+            }
+            this.currency = currency;
+            this.amount = amount;
+            this.cents = cents;
+            moneyConstructed.incrementAndGet();
+        }
+    }
+
+    static class Shouting
+    {
+        private final String word;
+
+        Shouting(String word)
+        {
+            this.word = word == null ? null : word.toUpperCase();
+        }
+    }
+
+    static class Swapped
+    {
+        private final int x;
+        private final int y;
+
+        Swapped(int y, int x)
+        {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    static class Holder
+    {
+        private final String name;
+        private final Money money;
+
+        Holder(String name, Money money)
+        {
+            this.name = name;
+            this.money = money;
+        }
+    }
+
+    static class Mutable
+    {
+        private String name;
+
+        Mutable()
+        {
+        }
+
+        Mutable(String name)
+        {
+            this.name = name;
+        }
+    }
+
+    @Test
+    void testValuesBoundToConstructor()
+    {
+        moneyConstructed.set(0);
+        Money money = TestUtil.toObjects("{\"@type\":\"" + Money.class.getName() + "\",\"currency\":\"USD\",\"amount\":\"12.50\",\"cents\":1250}", null);
+
+        assertThat(money.currency).isEqualTo("USD");
+        assertThat(money.amount).isEqualTo(new BigDecimal("12.50"));
+        assertThat(money.cents).isEqualTo(1250L);
+        assertThat(moneyConstructed.get()).isEqualTo(1);
+        assertThat(MetaUtils.getConstructorBinding(Money.class)).isNotNull();
+    }
+
+    @Test
+    void testFieldValuesWinOverConstructorChanges()
+    {
+        Shouting shouting = TestUtil.toObjects("{\"@type\":\"" + Shouting.class.getName() + "\",\"word\":\"quiet\"}", null);
+        assertThat(shouting.word).isEqualTo("quiet");
+    }
+
+    @Test
+    void testParametersInDifferentOrderThanFields()
+    {
+        Swapped swapped = TestUtil.toObjects("{\"@type\":\"" + Swapped.class.getName() + "\",\"x\":1,\"y\":2}", null);
+        assertThat(swapped.x).isEqualTo(1);
+        assertThat(swapped.y).isEqualTo(2);
+    }
+
+    @Test
+    void testSubObjectsStillResolved()
+    {
+        Holder holder = new Holder("wallet", new Money("EUR", new BigDecimal("3.14"), 314));
+        Holder copy = TestUtil.toObjects(TestUtil.toJson(holder), null);
+
+        assertThat(copy.name).isEqualTo("wallet");
+        assertThat(copy.money.currency).isEqualTo("EUR");
+        assertThat(copy.money.amount).isEqualTo(new BigDecimal("3.14"));
+        assertThat(copy.money.cents).isEqualTo(314L);
+    }
+
+    @Test
+    void testNoBindingWithNoArgConstructor()
+    {
+        assertThat(MetaUtils.getConstructorBinding(Mutable.class)).isNull();
+    }
+}
@@ -0,0 +1,67 @@
+package com.cedarsoftware.io;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdentityIdMapTest {
+    @Test
+    void testMatchesIdentityHashMap() {
+        Random random = new Random(13);
+        List<Object> objects = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            objects.add(i % 10 == 0 ? "same" : new String("key" + (i % 100)));   // equal, but not identical, keys
+        }
+        objects.add(null);
+
+        IdentityIdMap map = new IdentityIdMap();
+        Map<Object, Long> expected = new IdentityHashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            Object key = objects.get(random.nextInt(objects.size()));
+            switch (random.nextInt(4)) {
+                case 0:
+                case 1:
+                    long id = random.nextInt(1000);
+                    map.putId(key, id);
+                    expected.put(key, id);
+                    break;
+                case 2:
+                    assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+                    break;
+                default:
+                    assertThat(map.getId(key, -1)).isEqualTo(expected.getOrDefault(key, -1L));
+                    assertThat(map.containsKey(key)).isEqualTo(expected.containsKey(key));
+                    break;
+            }
+            assertThat(map.size()).isEqualTo(expected.size());
+        }
+        for (Object key : objects) {
+            assertThat(map.get(key)).isEqualTo(expected.get(key));
+        }
+        assertThat(map.entrySet()).hasSize(expected.size());
+        for (Map.Entry<Object, Long> entry : map.entrySet()) {
+            assertThat(expected.get(entry.getKey())).isEqualTo(entry.getValue());
+        }
+
+        map.clear();
+        assertThat(map).isEmpty();
+        assertThat(map.getId(objects.get(1), -1)).isEqualTo(-1);
+    }
+
+    @Test
+    void testMapApiNullValue() {
+        IdentityIdMap map = new IdentityIdMap(1);
+        Object key = new Object();
+        assertThat(map.put(key, null)).isNull();
+        assertThat(map.containsKey(key)).isTrue();
+        assertThat(map.get(key)).isNull();
+        assertThat(map.put(key, 5L)).isNull();
+        assertThat(map.get(key)).isEqualTo(5L);
+    }
+}
@@ -0,0 +1,188 @@
+package com.cedarsoftware.io;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Random;
+
+import com.cedarsoftware.util.convert.Converter;
+import com.cedarsoftware.util.convert.DefaultConverterOptions;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Iso8601Test {
+    private static final ZoneId[] ZONES = {ZoneOffset.UTC, ZoneOffset.ofHoursMinutes(5, 30), ZoneOffset.ofHoursMinutesSeconds(-3, -15, -20),
+            ZoneId.of("America/New_York"), ZoneId.of("Europe/Paris"), ZoneId.of("Asia/Kolkata"), ZoneId.of("UTC")};
+
+    private final Random random = new Random(8601);
+    private final Converter converter = new Converter(new DefaultConverterOptions());
+
+    private Instant randomInstant() {
+        long seconds = -62167219200L + (long) (random.nextDouble() * (253402300799L + 62167219200L));
+        int nano;
+        switch (random.nextInt(5)) {
+            case 0: nano = 0; break;
+            case 1: nano = random.nextInt(1000) * 1000_000; break;
+            case 2: nano = random.nextInt(1000_000) * 1000; break;
+            case 3: nano = random.nextInt(10) * 100_000_000; break;
+            default: nano = random.nextInt(1000_000_000); break;
+        }
+        return Instant.ofEpochSecond(seconds, nano);
+    }
+
+    private static String write(Object value) throws IOException {
+        StringWriter out = new StringWriter();
+        boolean written;
+        if (value instanceof Instant) {
+            written = Iso8601.write(out, (Instant) value);
+        } else if (value instanceof LocalDate) {
+            written = Iso8601.write(out, (LocalDate) value);
+        } else if (value instanceof LocalDateTime) {
+            written = Iso8601.write(out, (LocalDateTime) value);
+        } else if (value instanceof OffsetDateTime) {
+            written = Iso8601.write(out, (OffsetDateTime) value);
+        } else {
+            written = Iso8601.write(out, (ZonedDateTime) value);
+        }
+        assertThat(written).isTrue();
+        return out.toString();
+    }
+
+    @Test
+    void testWriteMatchesDateTimeFormatter() throws IOException {
+        for (int i = 0; i < 5000; i++) {
+            Instant instant = randomInstant();
+            ZonedDateTime zoned = instant.atZone(ZONES[i % ZONES.length]);
+            assertThat(write(instant)).isEqualTo('"' + DateTimeFormatter.ISO_INSTANT.format(instant) + '"');
+            assertThat(write(zoned)).isEqualTo('"' + DateTimeFormatter.ISO_ZONED_DATE_TIME.format(zoned) + '"');
+            assertThat(write(zoned.toOffsetDateTime())).isEqualTo('"' + DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(zoned) + '"');
+            assertThat(write(zoned.toLocalDateTime())).isEqualTo('"' + DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(zoned) + '"');
+            assertThat(write(zoned.toLocalDate())).isEqualTo('"' + DateTimeFormatter.ISO_LOCAL_DATE.format(zoned) + '"');
+        }
+    }
+
+    @Test
+    void testWriteBoundaries() throws IOException {
+        assertThat(write(Instant.parse("0000-01-01T00:00:00Z"))).isEqualTo("\"0000-01-01T00:00:00Z\"");
+        assertThat(write(Instant.parse("9999-12-31T23:59:59.999999999Z"))).isEqualTo("\"9999-12-31T23:59:59.999999999Z\"");
+        assertThat(write(Instant.EPOCH)).isEqualTo("\"1970-01-01T00:00:00Z\"");
+        assertThat(write(LocalDateTime.of(2024, 2, 29, 23, 5))).isEqualTo("\"2024-02-29T23:05:00\"");
+
+        StringWriter out = new StringWriter();
+        assertThat(Iso8601.write(out, Instant.parse("+10000-01-01T00:00:00Z"))).isFalse();
+        assertThat(Iso8601.write(out, LocalDate.of(-1, 1, 1))).isFalse();
+        assertThat(Iso8601.write(out, LocalDateTime.of(10000, 1, 1, 0, 0))).isFalse();
+        assertThat(out.toString()).isEmpty();
+    }
+
+    @Test
+    void testWriteDateMatchesSimpleDateFormat() throws IOException {
+        SimpleDateFormat dateFormat = new SimpleDateFormat(WriteOptionsBuilder.ISO_DATE_FORMAT);
+        SimpleDateFormat dateTimeFormat = new SimpleDateFormat(WriteOptionsBuilder.ISO_DATE_TIME_FORMAT);
+        for (int i = 0; i < 2000; i++) {
+            Date date = new Date(-12219292800000L + (long) (random.nextDouble() * (253402300799000L + 12219292800000L - 86400000L)));
+            StringWriter out = new StringWriter();
+            assertThat(Iso8601.write(out, date, false)).isTrue();
+            assertThat(out.toString()).isEqualTo('"' + dateFormat.format(date) + '"');
+            out = new StringWriter();
+            assertThat(Iso8601.write(out, date, true)).isTrue();
+            assertThat(out.toString()).isEqualTo('"' + dateTimeFormat.format(date) + '"');
+        }
+        assertThat(Iso8601.write(new StringWriter(), new Date(-12219292800000L - 86400000L * 2), true)).isFalse();
+    }
+
+    @Test
+    void testParseRoundTrips() {
+        for (int i = 0; i < 2000; i++) {
+            Instant instant = randomInstant();
+            ZonedDateTime zoned = instant.atZone(ZONES[i % ZONES.length]);
+            String iso = DateTimeFormatter.ISO_INSTANT.format(instant);
+            String offset = DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(zoned);
+
+            assertThat(Iso8601.parseInstant(iso)).isEqualTo(instant);
+            assertThat(Iso8601.parseInstant(offset)).isEqualTo(instant);
+            assertThat(Iso8601.parseDate(iso)).isEqualTo(new Date(instant.toEpochMilli()));
+            assertThat(Iso8601.parseOffsetDateTime(offset)).isEqualTo(zoned.toOffsetDateTime());
+            assertThat(Iso8601.parseLocalDateTime(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(zoned))).isEqualTo(zoned.toLocalDateTime());
+            assertThat(Iso8601.parseLocalDate(DateTimeFormatter.ISO_LOCAL_DATE.format(zoned))).isEqualTo(zoned.toLocalDate());
+
+            // Offsets other than Z without a region, and DST transition times, are left to the Converter (null).
+            assertThat(Iso8601.parseZonedDateTime(DateTimeFormatter.ISO_ZONED_DATE_TIME.format(zoned))).isIn(zoned, null);
+        }
+    }
+
+    @Test
+    void testParseMatchesConverter() {
+        // The Converter carries fractions through floating point (off by a nanosecond at full precision), so
+        // compare at millisecond precision.
+        for (int i = 0; i < 2000; i++) {
+            Instant instant = randomInstant().truncatedTo(ChronoUnit.MILLIS);
+            ZonedDateTime zoned = instant.atZone(ZONES[i % ZONES.length]);
+            String[] strings = {DateTimeFormatter.ISO_INSTANT.format(instant), DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(zoned),
+                    DateTimeFormatter.ISO_ZONED_DATE_TIME.format(zoned), DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(zoned),
+                    DateTimeFormatter.ISO_LOCAL_DATE.format(zoned)};
+
+            for (String s : strings) {
+                assertParse(Iso8601.parseInstant(s), s, Instant.class);
+                assertParse(Iso8601.parseLocalDate(s), s, LocalDate.class);
+                assertParse(Iso8601.parseLocalDateTime(s), s, LocalDateTime.class);
+                assertParse(Iso8601.parseOffsetDateTime(s), s, OffsetDateTime.class);
+                assertParse(Iso8601.parseZonedDateTime(s), s, ZonedDateTime.class);
+                assertParse(Iso8601.parseDate(s), s, Date.class);
+            }
+        }
+    }
+
+    private void assertParse(Object parsed, String s, Class<?> type) {
+        if (parsed != null) {
+            assertThat(parsed).as(s + " as " + type.getSimpleName()).isEqualTo(converter.convert(s, type));
+        }
+    }
+
+    @Test
+    void testParseFixedLayouts() {
+        assertThat(Iso8601.parseLocalDate("2024-01-02")).isEqualTo(LocalDate.of(2024, 1, 2));
+        assertThat(Iso8601.parseLocalDateTime("2024-01-02T03:04")).isEqualTo(LocalDateTime.of(2024, 1, 2, 3, 4));
+        assertThat(Iso8601.parseLocalDateTime("2024-01-02T03:04:05.12")).isEqualTo(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 120_000_000));
+        assertThat(Iso8601.parseInstant("2024-01-02T03:04:05+01:00")).isEqualTo(Instant.parse("2024-01-02T02:04:05Z"));
+        assertThat(Iso8601.parseOffsetDateTime("2024-01-02T03:04:05Z").getOffset()).isEqualTo(ZoneOffset.UTC);
+        assertThat(Iso8601.parseZonedDateTime("2024-01-02T03:04:05+01:00[Europe/Paris]"))
+                .isEqualTo(ZonedDateTime.of(2024, 1, 2, 3, 4, 5, 0, ZoneId.of("Europe/Paris")));
+
+        // Not in a fixed layout (or ambiguous), left to the Converter.
+        assertThat(Iso8601.parseLocalDate("2024-1-02")).isNull();
+        assertThat(Iso8601.parseLocalDate("2023-02-30")).isNull();
+        assertThat(Iso8601.parseLocalDateTime("2024-01-02 03:04:05")).isNull();
+        assertThat(Iso8601.parseLocalDateTime("2024-01-02T03:04:05Z")).isNull();
+        assertThat(Iso8601.parseInstant("2024-01-02T03:04:05")).isNull();
+        assertThat(Iso8601.parseInstant("2024-01-02T03:04:05.1234567890Z")).isNull();
+        assertThat(Iso8601.parseOffsetDateTime("2024-01-02T03:04:05+0100")).isNull();
+        assertThat(Iso8601.parseZonedDateTime("2024-01-02T03:04:05+01:00")).isNull();
+        assertThat(Iso8601.parseZonedDateTime("2024-11-03T01:30:00-05:00[America/New_York]")).isNull();
+        assertThat(Iso8601.parseZonedDateTime("2024-01-02T03:04:05+01:00[Mars/Olympus]")).isNull();
+    }
+
+    @Test
+    void testRoundTripThroughJsonIo() {
+        ZonedDateTime zoned = ZonedDateTime.of(2024, 7, 14, 10, 15, 30, 123_400_000, ZoneId.of("Europe/Paris"));
+        Object[] values = {zoned, zoned.toOffsetDateTime(), zoned.toLocalDateTime(), zoned.toLocalDate(), zoned.toInstant()};
+        for (Object value : values) {
+            String json = TestUtil.toJson(value);
+            assertThat((Object) TestUtil.toObjects(json, null)).isEqualTo(value);
+        }
+
+        String json = TestUtil.toJson(new Date(1720944930000L), new WriteOptionsBuilder().isoDateTimeFormat().build());
+        assertThat(json).contains(new SimpleDateFormat(WriteOptionsBuilder.ISO_DATE_TIME_FORMAT).format(new Date(1720944930000L)));
+    }
+}
@@ -0,0 +1,148 @@
+package com.cedarsoftware.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonFormatterTest {
+    private static Map<String, Object> graph() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", "quote \" brace { bracket ] backslash \\ café 😀");
+        map.put("empty list", new ArrayList<>());
+        map.put("empty map", new LinkedHashMap<>());
+        map.put("decimal", new BigDecimal("3.141592653589793238462643383"));
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            list.add(i % 3 == 0 ? null : i % 3 == 1 ? (Object) ("item\t" + i) : (Object) (i * 1.5));
+        }
+        map.put("list", list);
+        map.put("same", list);
+        map.put("array", new Object[] {1L, -2L, Long.MAX_VALUE});
+        return map;
+    }
+
+    @Test
+    void testMatchesJsonWriter() {
+        Map<String, Object> map = graph();
+        String compact = JsonIo.toJson(map, null);
+        String pretty = JsonIo.toJson(map, new WriteOptionsBuilder().prettyPrint(true).build());
+        assertThat(JsonIo.formatJson(compact)).isEqualTo(pretty);
+        assertThat(JsonIo.formatJson(pretty)).isEqualTo(pretty);
+        assertThat(JsonIo.minifyJson(pretty)).isEqualTo(compact);
+    }
+
+    @Test
+    void testContentKeptVerbatim() {
+        String json = "{ \"a\" : 1.10 , \"b\":[ 1E+3, -0.0, 12345678901234567890123 ],\"c\" : \"\\u00e9\\\"\\\\\" , \"d\":{ } ,\"e\":[ ],"
+                + "\"f\":true,\"g\":null,\"h\":NaN}";
+        assertThat(JsonIo.minifyJson(json)).isEqualTo(
+                "{\"a\":1.10,\"b\":[1E+3,-0.0,12345678901234567890123],\"c\":\"\\u00e9\\\"\\\\\",\"d\":{},\"e\":[],\"f\":true,\"g\":null,\"h\":NaN}");
+        assertThat(JsonIo.formatJson("[1,{\"x\":[]}]").replace(System.lineSeparator(), "\n")).isEqualTo(
+                "[\n  1,\n  {\n    \"x\":[]\n  }\n]");
+        assertThat(JsonIo.minifyJson(" 7 ")).isEqualTo("7");
+    }
+
+    @Test
+    void testStreams() {
+        Map<String, Object> map = graph();
+        String compact = JsonIo.toJson(map, null);
+        String ndjson = compact + "\n\n" + compact + "\n";
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonIo.formatJson(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), out);
+        String pretty = JsonIo.formatJson(compact);
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(pretty + System.lineSeparator() + pretty);
+
+        out.reset();
+        JsonIo.minifyJson(new ByteArrayInputStream(pretty.getBytes(StandardCharsets.UTF_8)), out);
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(compact);
+    }
+
+    @Test
+    void testDeepNesting() {
+        StringBuilder json = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            json.append("[{\"a\":");
+        }
+        json.append('0');
+        for (int i = 0; i < 100_000; i++) {
+            json.append("}]");
+        }
+        assertThat(JsonIo.minifyJson(json.toString())).isEqualTo(json.toString());   // no recursion per level
+        String shallower = json.substring(100_000 * 6 - 500 * 6, 100_000 * 6 + 1 + 500 * 2);
+        assertThat(JsonIo.minifyJson(JsonIo.formatJson(shallower))).isEqualTo(shallower);
+    }
+
+    @Test
+    void testOneRootValueInStrings() {
+        // Only the stream APIs accept several root values (NDJSON)
+        assertThatThrownBy(() -> JsonIo.formatJson("{\"a\":1} {\"a\":2}")).isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Unexpected '{' after the end of the JSON");
+        assertThatThrownBy(() -> JsonIo.minifyJson("[1] x")).isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Unexpected 'x' after the end of the JSON");
+        assertThat(JsonIo.minifyJson(" [1] \n")).isEqualTo("[1]");
+    }
+
+    @Test
+    void testFormatJsonWithOptions() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("ints", new int[] {1, 2, 3});
+        String compact = JsonIo.toJson(map, null);
+
+        // With options, the JSON is read and written with them, so JsonWriter's layout and settings apply
+        WriteOptions writeOptions = new WriteOptionsBuilder().showTypeInfoNever().build();
+        String formatted = JsonIo.formatJson(compact, new ReadOptionsBuilder().build(), writeOptions);
+        assertThat(formatted).isEqualTo(JsonIo.toJson(JsonIo.toObjects(compact, null, null),
+                new WriteOptionsBuilder(writeOptions).prettyPrint(true).build()));
+        assertThat(formatted).contains("1,2,3").doesNotContain("@type");
+
+        assertThat(JsonIo.formatJson(compact, null, null)).isEqualTo(JsonIo.formatJson(compact));
+    }
+
+    @Test
+    void testMalformed() {
+        assertThatThrownBy(() -> JsonIo.formatJson("")).isInstanceOf(JsonIoException.class).hasMessageContaining("No JSON");
+        assertThatThrownBy(() -> JsonIo.formatJson("[1,]")).isInstanceOf(JsonIoException.class).hasMessageContaining("Expected a value");
+        assertThatThrownBy(() -> JsonIo.formatJson("[1 2]")).isInstanceOf(JsonIoException.class).hasMessageContaining("Expected ','");
+        assertThatThrownBy(() -> JsonIo.formatJson("{\"a\" 1}")).isInstanceOf(JsonIoException.class).hasMessageContaining("Expected ':'");
+        assertThatThrownBy(() -> JsonIo.formatJson("{1:2}")).isInstanceOf(JsonIoException.class).hasMessageContaining("field name");
+        assertThatThrownBy(() -> JsonIo.formatJson("[1}")).isInstanceOf(JsonIoException.class).hasMessageContaining("offset 3");
+        assertThatThrownBy(() -> JsonIo.formatJson("{\"a\":[1")).isInstanceOf(JsonIoException.class).hasMessageContaining("EOF");
+        assertThatThrownBy(() -> JsonIo.formatJson("\"abc")).isInstanceOf(JsonIoException.class).hasMessageContaining("string");
+    }
+
+    @Test
+    void testInvalidTokens() {
+        assertThatThrownBy(() -> JsonIo.formatJson("{\"a\":tru}")).isInstanceOf(JsonIoException.class).hasMessageContaining("Invalid literal 'tru'");
+        assertThatThrownBy(() -> JsonIo.formatJson("{\"a\":hello}")).isInstanceOf(JsonIoException.class).hasMessageContaining("Invalid literal 'hello'");
+        assertThatThrownBy(() -> JsonIo.minifyJson(new ByteArrayInputStream("{\"a\":1} x".getBytes(StandardCharsets.UTF_8)), new ByteArrayOutputStream()))
+                .isInstanceOf(JsonIoException.class).hasMessageContaining("Invalid literal 'x'");
+        assertThatThrownBy(() -> JsonIo.minifyJson("[True]")).isInstanceOf(JsonIoException.class).hasMessageContaining("Invalid literal");
+        for (String number : new String[] {"1.2.3", "01", "-", "1.", "1e", "1e+", "--1", "1-2", "0x1F", "1f", "-NaN"}) {
+            assertThatThrownBy(() -> JsonIo.minifyJson("[" + number + "]")).isInstanceOf(JsonIoException.class)
+                    .hasMessageContaining("Invalid number '" + number + "'");
+        }
+        assertThat(JsonIo.minifyJson("[0,-0,10,-1.5e-7,2E+10,1e3,NaN,Infinity,-Infinity]")).isEqualTo("[0,-0,10,-1.5e-7,2E+10,1e3,NaN,Infinity,-Infinity]");
+    }
+
+    @Test
+    void testInvalidStrings() {
+        assertThatThrownBy(() -> JsonIo.minifyJson("[\"a\tb\"]")).isInstanceOf(JsonIoException.class).hasMessageContaining("Control character 0x9");
+        assertThatThrownBy(() -> JsonIo.minifyJson("[\"a\nb\"]")).isInstanceOf(JsonIoException.class).hasMessageContaining("must be escaped in a string");
+        assertThatThrownBy(() -> JsonIo.minifyJson("{\"a\u0001\":1}")).isInstanceOf(JsonIoException.class).hasMessageContaining("must be escaped in a field name");
+        assertThatThrownBy(() -> JsonIo.minifyJson("[\"\\x\"]")).isInstanceOf(JsonIoException.class).hasMessageContaining("Invalid escape '\\x'");
+        assertThatThrownBy(() -> JsonIo.minifyJson("{\"\\q\":1}")).isInstanceOf(JsonIoException.class).hasMessageContaining("in a field name");
+        assertThatThrownBy(() -> JsonIo.minifyJson("[\"\\u12G4\"]")).isInstanceOf(JsonIoException.class).hasMessageContaining("not a hex digit");
+        assertThat(JsonIo.minifyJson("[\"\\\"\\\\\\/\\b\\f\\n\\r\\t\\u00E9\"]")).isEqualTo("[\"\\\"\\\\\\/\\b\\f\\n\\r\\t\\u00E9\"]");
+    }
+}
@@ -0,0 +1,80 @@
+package com.cedarsoftware.io;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonReaderReuseTest {
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testResetReadsNextDocument() {
+        JsonReader reader = new JsonReader(stream("{\"name\":\"first\"}"), null);
+        Map<?, ?> first = reader.readObject(Map.class);
+        assertThat(first.get("name")).isEqualTo("first");
+
+        for (int i = 0; i < 5; i++) {
+            reader.reset(stream("[{\"@id\":1,\"v\":" + i + "},{\"@ref\":1},\"ü\"]"));
+            Object[] items = reader.readObject(Object[].class);
+            assertThat(items).hasSize(3);
+            assertThat(items[1]).isSameAs(items[0]);
+            assertThat(((Map<?, ?>) items[0]).get("v")).isEqualTo((long) i);
+            assertThat(items[2]).isEqualTo("ü");
+        }
+    }
+
+    @Test
+    void testResetAfterFailedRead() {
+        JsonReader reader = new JsonReader(stream("[{\"@id\":1,\"v\":1}, {\"a\": ]"), null);
+        assertThatThrownBy(() -> reader.readObject(Object[].class)).isInstanceOf(JsonIoException.class);
+
+        // Nothing from the failed document (such as @id 1) leaks into the next one.
+        reader.reset(stream("[{\"@ref\":1}]"));
+        assertThatThrownBy(() -> reader.readObject(Object[].class)).isInstanceOf(JsonIoException.class);
+
+        reader.reset(stream("{\"x\":[1,2,3]}"));
+        Map<?, ?> map = reader.readObject(Map.class);
+        assertThat((Object[]) map.get("x")).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void testPooledReadersAcrossThreads() throws Exception {
+        ReadOptions readOptions = new ReadOptionsBuilder().build();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int offset = t * 1000;
+                results.add(executor.submit(() -> {
+                    for (int i = offset; i < offset + 500; i++) {
+                        TestObject obj = new TestObject("name" + i);
+                        String json = JsonIo.toJson(obj, null);
+                        TestObject copy = JsonIo.toObjects(json, readOptions, TestObject.class);
+                        if (!copy.getName().equals("name" + i)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(((ReadOptionsBuilder.DefaultReadOptions) readOptions).getReaderPool()).isNotEmpty();
+    }
+}
@@ -0,0 +1,113 @@
+package com.cedarsoftware.io;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonWriterReuseTest {
+    private static Object sample(int i) {
+        Map<String, Object> shared = new LinkedHashMap<>();
+        shared.put("id", i);
+        shared.put("name", "item " + i + " – ü");
+        List<Object> list = new ArrayList<>();
+        list.add(shared);
+        list.add(shared);
+        list.add(new int[] {i, i * 2});
+        return list;
+    }
+
+    private static String fresh(Object obj, WriteOptions writeOptions) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        JsonWriter writer = new JsonWriter(bytes, writeOptions);
+        writer.write(obj);
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testResetMatchesNewWriter() {
+        WriteOptions pretty = new WriteOptionsBuilder().prettyPrint(true).build();
+        JsonWriter writer = new JsonWriter(new ByteArrayOutputStream());
+        for (int i = 0; i < 5; i++) {
+            WriteOptions options = i % 2 == 0 ? null : pretty;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            writer.reset(bytes, options);
+            writer.write(sample(i));
+            assertThat(new String(bytes.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(fresh(sample(i), options));
+        }
+        assertThat(writer.getObjsReferenced()).isEmpty();
+    }
+
+    @Test
+    void testResetDiscardsFailedWrite() {
+        JsonWriter writer = new JsonWriter(new ByteArrayOutputStream(), new WriteOptionsBuilder().treeMode(true).build());
+        List<Object> cycle = new ArrayList<>();
+        cycle.add(cycle);
+        try {
+            writer.write(cycle);
+        } catch (JsonIoException expected) {
+            // objVisited is left holding the path, reset() must clear it
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writer.reset(bytes);
+        writer.write(sample(1));
+        assertThat(new String(bytes.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(fresh(sample(1), writer.getWriteOptions()));
+    }
+
+    @Test
+    void testRecycleShrinksMapsButResetKeepsThem() {
+        List<Object> many = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            many.add(sample(i));
+        }
+        JsonWriter writer = new JsonWriter(new ByteArrayOutputStream());
+        writer.write(many);
+        int grown = ((IdentityIdMap) writer.getObjVisited()).capacity();
+        assertThat(grown).isGreaterThan(1 << 10);
+
+        writer.reset(new ByteArrayOutputStream());
+        assertThat(((IdentityIdMap) writer.getObjVisited()).capacity()).isEqualTo(grown);
+
+        writer.write(many);
+        writer.recycle();       // what JsonIo does before putting a writer back in its pool
+        assertThat(((IdentityIdMap) writer.getObjVisited()).capacity()).isLessThanOrEqualTo(1 << 10);
+        assertThat(((IdentityIdMap) writer.getObjsReferenced()).capacity()).isLessThanOrEqualTo(1 << 10);
+
+        writer.resetInMemory(null);
+        writer.write(sample(3));
+        assertThat(writer.getBufferedString()).isEqualTo(fresh(sample(3), null));
+    }
+
+    @Test
+    void testPooledWritersAcrossThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int offset = t * 1000;
+                results.add(executor.submit(() -> {
+                    for (int i = offset; i < offset + 500; i++) {
+                        if (!JsonIo.toJson(sample(i), null).equals(fresh(sample(i), null))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -345,7 +345,8 @@ class MapOfMapsTest
         map1.put("name", "chris");
         Map map = map1;
 
-        //in formatJson, the json will be parsed into a map, which checks both jsonReader and writeJsonObjectMap
+        // formatJson only re-indents the JSON written for the map (it is not parsed), so the read below is what
+        // checks JsonReader against the written map.
         String jsonGenerated = JsonIo.formatJson(TestUtil.toJson(map));
         jsonGenerated = jsonGenerated.replaceAll("[\\r]", "");
         assert json.equals(jsonGenerated);
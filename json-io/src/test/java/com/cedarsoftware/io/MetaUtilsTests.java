@@ -16,8 +16,10 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
@@ -31,6 +33,7 @@ import java.util.stream.Stream;
 
 import com.cedarsoftware.util.ClassUtilities;
 import com.cedarsoftware.util.Converter;
+import com.cedarsoftware.util.convert.DefaultConverterOptions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -190,4 +193,103 @@ public class MetaUtilsTests {
                 Arguments.of("foo", "getFoo"),
                 Arguments.of("treeMap", "getTreeMap"));
     }
+
+    @Test
+    void testNewInstanceReusesConstructorSearch() {
+        com.cedarsoftware.util.convert.Converter converter = new com.cedarsoftware.util.convert.Converter(new DefaultConverterOptions());
+        NeedsArgs first = (NeedsArgs) MetaUtils.newInstance(converter, NeedsArgs.class, listOf("alpha", 7L));
+        NeedsArgs second = (NeedsArgs) MetaUtils.newInstance(converter, NeedsArgs.class, listOf("beta", 9L));
+        assertThat(first).isNotSameAs(second);
+        assertThat(first.name).isEqualTo("alpha");
+        assertThat(first.count).isEqualTo(7L);
+        assertThat(first.tags).isEmpty();
+        assertThat(second.name).isEqualTo("beta");
+        assertThat(second.count).isEqualTo(9L);
+        assertThat(second.tags).isEmpty();
+        assertThat(second.tags).isNotSameAs(first.tags);
+
+        // Argument values listed in a different order still land on the matching parameters
+        NeedsArgs third = (NeedsArgs) MetaUtils.newInstance(converter, NeedsArgs.class, listOf(3L, "gamma"));
+        assertThat(third.name).isEqualTo("gamma");
+        assertThat(third.count).isEqualTo(3L);
+    }
+
+    @Test
+    void testNewInstanceFailureNotRetried() {
+        com.cedarsoftware.util.convert.Converter converter = new com.cedarsoftware.util.convert.Converter(new DefaultConverterOptions());
+        AlwaysFails.attempts = 0;
+        assertThatExceptionOfType(JsonIoException.class).isThrownBy(() -> MetaUtils.newInstance(converter, AlwaysFails.class, null));
+        int attempts = AlwaysFails.attempts;
+        assertThat(attempts).isGreaterThan(0);
+        assertThatExceptionOfType(JsonIoException.class).isThrownBy(() -> MetaUtils.newInstance(converter, AlwaysFails.class, null));
+        assertThat(AlwaysFails.attempts).isEqualTo(attempts);
+    }
+
+    @Test
+    void testNewInstanceOfVarargsClassIsRepeatable() {
+        com.cedarsoftware.util.convert.Converter converter = new com.cedarsoftware.util.convert.Converter(new DefaultConverterOptions());
+        HasVarargs first = (HasVarargs) MetaUtils.newInstance(converter, HasVarargs.class, listOf("alpha"));
+        HasVarargs second = (HasVarargs) MetaUtils.newInstance(converter, HasVarargs.class, listOf("alpha"));
+        assertThat(second.name).isEqualTo(first.name).isEqualTo("alpha");
+        assertThat(second.rest).isEqualTo(first.rest);
+    }
+
+    @Test
+    void testNewInstanceDefaultsComeFromEachConverter() {
+        com.cedarsoftware.util.convert.Converter fives = new com.cedarsoftware.util.convert.Converter(new DefaultConverterOptions());
+        fives.addConversion(Void.class, Integer.class, (from, converter) -> 5);
+        com.cedarsoftware.util.convert.Converter sevens = new com.cedarsoftware.util.convert.Converter(new DefaultConverterOptions());
+        sevens.addConversion(Void.class, Integer.class, (from, converter) -> 7);
+
+        // The unmatched Integer parameter gets the Converter's value for null, from the Converter of each call,
+        // although the constructor choice is cached by the first call.
+        NeedsSize first = (NeedsSize) MetaUtils.newInstance(fives, NeedsSize.class, listOf("alpha"));
+        NeedsSize second = (NeedsSize) MetaUtils.newInstance(sevens, NeedsSize.class, listOf("beta"));
+        NeedsSize third = (NeedsSize) MetaUtils.newInstance(fives, NeedsSize.class, listOf("gamma"));
+        assertThat(first.size).isEqualTo(5);
+        assertThat(second.size).isEqualTo(7);
+        assertThat(second.name).isEqualTo("beta");
+        assertThat(third.size).isEqualTo(5);
+    }
+
+    private static class NeedsSize {
+        private final String name;
+        private final int size;
+
+        NeedsSize(String name, Integer size) {
+            this.name = name;
+            this.size = size;   // NPE for null, so the non-null defaults are used
+        }
+    }
+
+    private static class HasVarargs {
+        private final String name;
+        private final String[] rest;
+
+        HasVarargs(String name, String... rest) {
+            this.name = name;
+            this.rest = rest;
+        }
+    }
+
+    private static class NeedsArgs {
+        private final String name;
+        private final long count;
+        private final List<String> tags;
+
+        NeedsArgs(String name, long count, List<String> tags) {
+            this.name = name;
+            this.count = count;
+            this.tags = Objects.requireNonNull(tags);
+        }
+    }
+
+    private static class AlwaysFails {
+        static int attempts;
+
+        AlwaysFails(String name) {
+            attempts++;
+            throw new IllegalStateException("never");
+        }
+    }
 }
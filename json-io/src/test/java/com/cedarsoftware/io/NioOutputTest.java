@@ -0,0 +1,82 @@
+package com.cedarsoftware.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NioOutputTest {
+    private static Map<String, Object> sample() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("text", "café, €100, 日本語 😀");
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            list.add("item " + i);
+        }
+        map.put("list", list);
+        map.put("same", list);
+        return map;
+    }
+
+    @Test
+    void testChannel() {
+        Map<String, Object> map = sample();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WritableByteChannel channel = Channels.newChannel(bytes);
+        JsonIo.toJson(channel, map, new WriteOptionsBuilder().closeStream(false).build());
+        assertThat(channel.isOpen()).isTrue();
+        assertThat(new String(bytes.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(JsonIo.toJson(map, null));
+
+        JsonIo.toJson(channel, map, null);
+        assertThat(channel.isOpen()).isFalse();
+    }
+
+    @Test
+    void testDirectByteBuffers() {
+        Map<String, Object> map = sample();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int[] calls = new int[1];
+        ByteBuffer first = ByteBuffer.allocateDirect(1000);
+        JsonIo.toJson(first, map, null, buffer -> {
+            assertThat(buffer).isSameAs(first);
+            calls[0]++;
+            byte[] chunk = new byte[buffer.remaining()];
+            buffer.get(chunk);
+            bytes.write(chunk, 0, chunk.length);
+            buffer.clear();
+            return buffer;
+        });
+
+        String json = JsonIo.toJson(map, null);
+        byte[] expected = json.getBytes(StandardCharsets.UTF_8);
+        assertThat(bytes.toByteArray()).isEqualTo(expected);
+        assertThat(calls[0]).isEqualTo((expected.length + 999) / 1000);
+    }
+
+    @Test
+    void testSinkFailure() {
+        assertThatThrownBy(() -> JsonIo.toJson(ByteBuffer.allocate(16), sample(), null, buffer -> {
+            throw new IOException("connection reset");
+        }))
+                .isInstanceOf(JsonIoException.class)
+                .hasRootCauseMessage("connection reset");
+
+        // Only the final, partly filled, buffer is handed over, at the end of the write.
+        assertThatThrownBy(() -> JsonIo.toJson(ByteBuffer.allocate(1 << 20), sample(), null, buffer -> {
+            throw new IOException("disk full");
+        }))
+                .isInstanceOf(JsonIoException.class)
+                .hasRootCauseMessage("disk full");
+    }
+}
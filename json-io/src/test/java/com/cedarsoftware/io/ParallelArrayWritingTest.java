@@ -0,0 +1,120 @@
+package com.cedarsoftware.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelArrayWritingTest {
+    static class Item {
+        long id;
+        String name;
+        double[] values;
+        List<Object> tags;
+    }
+
+    static class Tag {
+        final String text;
+
+        Tag(String text) {
+            this.text = text;
+        }
+    }
+
+    /**
+     * Records the threads it is called on.
+     */
+    static class TagWriter implements JsonWriter.JsonClassWriter {
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        public void write(Object o, boolean showType, Writer output, WriterContext context) throws IOException {
+            threads.add(Thread.currentThread());
+            output.write("\"text\":\"");
+            output.write(((Tag) o).text);
+            output.write('"');
+        }
+    }
+
+    static class ThreadSafeTagWriter extends TagWriter implements JsonWriter.ThreadSafeClassWriter {
+    }
+
+    private static List<Object> items(int count) {
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (i % 7 == 0) {
+                list.add(i % 14 == 0 ? null : "élément " + i);
+                continue;
+            }
+            Item item = new Item();
+            item.id = i;
+            item.name = "item " + i;
+            item.values = new double[] {i, i / 2.0};
+            item.tags = new ArrayList<>();
+            item.tags.add("tag" + (i % 10));
+            list.add(item);
+        }
+        return list;
+    }
+
+    private static void assertSameOutput(Object root, WriteOptionsBuilder builder) {
+        String serial = JsonIo.toJson(root, builder.parallelArrayWriting(false).build());
+        String parallel = JsonIo.toJson(root, builder.parallelArrayWriting(true).build());
+        assertThat(parallel).isEqualTo(serial);
+    }
+
+    @Test
+    void testCollection() {
+        List<Object> list = items(50_000);
+        assertSameOutput(list, new WriteOptionsBuilder());
+        assertSameOutput(list, new WriteOptionsBuilder().prettyPrint(true));
+        assertSameOutput(list, new WriteOptionsBuilder().shortMetaKeys(true).treeMode(true));
+    }
+
+    @Test
+    void testArray() {
+        Object[] array = items(30_000).toArray();
+        assertSameOutput(array, new WriteOptionsBuilder());
+        assertSameOutput(array, new WriteOptionsBuilder().prettyPrint(true).showTypeInfoNever());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        JsonIo.toJson(bytes, array, new WriteOptionsBuilder().parallelArrayWriting(true).build());
+        assertThat(new String(bytes.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(JsonIo.toJson(array, null));
+    }
+
+    @Test
+    void testSharedReferencesWrittenSerially() {
+        List<Object> list = items(20_000);
+        list.add(list.get(1));      // shared: @id / @ref must come out exactly as in a serial write
+        assertSameOutput(list, new WriteOptionsBuilder());
+        List<?> read = JsonIo.toObjects(JsonIo.toJson(list, new WriteOptionsBuilder().parallelArrayWriting(true).build()), null, List.class);
+        assertThat(read.get(read.size() - 1)).isSameAs(read.get(1));
+    }
+
+    @Test
+    void testThreadUnsafeWriterWrittenSerially() {
+        List<Object> list = items(20_000);
+        ((Item) list.get(1)).tags.add(new Tag("nested"));     // reached from one element only
+        TagWriter writer = new TagWriter();
+        assertSameOutput(list, new WriteOptionsBuilder().addCustomWrittenClass(Tag.class, writer));
+        assertThat(writer.threads).containsExactly(Thread.currentThread());
+    }
+
+    @Test
+    void testThreadSafeWriterWrittenInParallel() {
+        List<Object> list = items(20_000);
+        for (int i = 1; i < list.size(); i += 7) {
+            ((Item) list.get(i)).tags.add(new Tag("t" + i));
+        }
+        ThreadSafeTagWriter writer = new ThreadSafeTagWriter();
+        assertSameOutput(list, new WriteOptionsBuilder().addCustomWrittenClass(Tag.class, writer));
+        assertThat(writer.threads).anyMatch(thread -> thread != Thread.currentThread());
+    }
+}
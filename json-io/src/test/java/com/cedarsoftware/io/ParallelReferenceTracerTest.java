@@ -0,0 +1,96 @@
+package com.cedarsoftware.io;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import com.cedarsoftware.util.DeepEquals;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelReferenceTracerTest {
+    private static final WriteOptions PARALLEL = new WriteOptionsBuilder().parallelReferenceTracing(true).build();
+
+    static class Node {
+        String name;
+        Node left;
+        Node right;
+        Object payload;
+        List<Node> links = new ArrayList<>();
+        Map<String, Object> props = new HashMap<>();
+    }
+
+    /**
+     * Random graph with shared nodes, cycles, arrays, lists and maps.
+     */
+    private static Node graph(int size) {
+        Random random = new Random(41);
+        Node[] nodes = new Node[size];
+        for (int i = 0; i < size; i++) {
+            nodes[i] = new Node();
+            nodes[i].name = "n" + i;
+        }
+        for (int i = 0; i < size; i++) {
+            Node node = nodes[i];
+            node.left = 2 * i + 1 < size ? nodes[2 * i + 1] : null;
+            node.right = 2 * i + 2 < size ? nodes[2 * i + 2] : null;
+            switch (random.nextInt(5)) {
+                case 0: node.links.add(nodes[random.nextInt(size)]); break;
+                case 1: node.payload = new Object[] {nodes[random.nextInt(size)], "text", (long) i}; break;
+                case 2: node.props.put("ref", nodes[random.nextInt(size)]); break;
+                case 3: node.payload = new int[] {i, i + 1}; break;
+                default: break;
+            }
+        }
+        return nodes[0];
+    }
+
+    private static Set<Object> referenced(Object root, boolean parallel) {
+        JsonWriter writer = new JsonWriter(new ByteArrayOutputStream(), PARALLEL);
+        Set<Object> referenced = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (parallel) {
+            ParallelReferenceTracer tracer = new ParallelReferenceTracer(writer, PARALLEL);
+            tracer.trace(root);
+            IdentityIdMap map = new IdentityIdMap();
+            tracer.collectReferenced(map, 1);
+            referenced.addAll(map.keySet());
+        } else {
+            writer.traceReferences(root);
+            referenced.addAll(writer.getObjsReferenced().keySet());
+        }
+        return referenced;
+    }
+
+    @Test
+    void testSameClassificationAsSerialTrace() {
+        Node root = graph(200_000);
+        Set<Object> serial = referenced(root, false);
+        Set<Object> parallel = referenced(root, true);
+        assertThat(serial).isNotEmpty();
+        assertThat(parallel).hasSameSizeAs(serial);
+        assertThat(serial.containsAll(parallel)).isTrue();
+    }
+
+    @Test
+    void testOutputIsStableAndRoundTrips() {
+        Node root = graph(1_000);
+        String json = TestUtil.toJson(root, PARALLEL);
+        for (int i = 0; i < 3; i++) {
+            assertThat(TestUtil.toJson(root, PARALLEL)).isEqualTo(json);
+        }
+        assertThat(json).contains("@ref");
+
+        Node copy = TestUtil.toObjects(json, null);
+        assertThat(DeepEquals.deepEquals(root, copy)).isTrue();
+        // Same number of @id's as the serial trace produces.
+        String serial = TestUtil.toJson(root);
+        assertThat(json.split("\"@id\"").length).isEqualTo(serial.split("\"@id\"").length);
+    }
+}
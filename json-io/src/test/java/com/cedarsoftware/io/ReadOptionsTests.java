@@ -0,0 +1,131 @@
+package com.cedarsoftware.io;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import com.cedarsoftware.util.convert.Convert;
+import com.cedarsoftware.util.convert.Converter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static com.cedarsoftware.util.CollectionUtilities.setOf;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ReadOptionsTests {
+
+    private static Stream<Arguments> filteredFields() {
+        return Stream.of(
+                Arguments.of(Throwable.class, new String[]{"backtrace", "depth", "suppressedExceptions", "stackTrace"}),
+                Arguments.of(StackTraceElement.class, new String[]{"declaringClassObject", "format"})
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("filteredFields")
+    void testContains_fieldsThatShouldBeFiltered(Class c, String... fieldNames) {
+
+        ReadOptions options = new ReadOptionsBuilder().build();
+        Set set = setOf(fieldNames);
+//        List<Field> fields = getFields(c, set);
+//
+//        KnownFilteredFields knownFilteredFields = KnownFilteredFields.instance();
+//
+//        for (Field f : fields) {
+//            assertThat(knownFilteredFields.isFieldFiltered(f)).isTrue();
+//        }
+    }
+
+    @Test
+    void testAddMapping() {
+//        KnownFilteredFields knownFilteredFields = KnownFilteredFields.instance();
+//        List<Field> fields = getFields(Throwable.class, CollectionUtilities.setOf("detailMessage"));
+//        assertThat(knownFilteredFields.isFieldFiltered(fields.get(0))).isFalse();
+//
+//        knownFilteredFields.addFieldFilter(Throwable.class, "detailMessage");
+//        assertThat(knownFilteredFields.isFieldFiltered(fields.get(0))).isTrue();
+    }
+
+    @Test
+    void testAddMappings() {
+//        KnownFilteredFields knownFilteredFields = KnownFilteredFields.instance();
+//        List<Field> fields = getFields(Throwable.class, CollectionUtilities.setOf("detailMessage", "cause"));
+//        assertThat(knownFilteredFields.isFieldFiltered(fields.get(0))).isFalse();
+//        assertThat(knownFilteredFields.isFieldFiltered(fields.get(1))).isFalse();
+//
+//        knownFilteredFields.addFieldFilters(Throwable.class, CollectionUtilities.listOf("detailMessage", "cause"));
+//        assertThat(knownFilteredFields.isFieldFiltered(fields.get(0))).isTrue();
+//        assertThat(knownFilteredFields.isFieldFiltered(fields.get(1))).isTrue();
+    }
+
+    @Test
+    void testRemoveMapping() {
+//        KnownFilteredFields knownFilteredFields = KnownFilteredFields.instance();
+//        List<Field> fields = getFields(Throwable.class, CollectionUtilities.setOf("stackTrace"));
+//        assertThat(knownFilteredFields.isFieldFiltered(fields.get(0))).isTrue();
+//
+//        knownFilteredFields.removeFieldFilters(Throwable.class, "stackTrace");
+//        assertThat(knownFilteredFields.isFieldFiltered(fields.get(0))).isFalse();
+    }
+
+    @Test
+    void testConversionCachedPerTypePair() {
+        ReadOptions options = new ReadOptionsBuilder().build();
+        Convert<?> longToInt = options.getConversion(Long.class, int.class);
+        assertThat(longToInt).isNotNull();
+        assertThat(options.getConversion(Long.class, int.class)).isSameAs(longToInt);
+
+        Converter converter = new Converter(options.getConverterOptions());
+        assertThat(longToInt.convert(70000L, converter)).isEqualTo(converter.convert(70000L, int.class));
+        assertThat(options.getConversion(Double.class, short.class).convert(-3.99, converter)).isEqualTo(converter.convert(-3.99, short.class));
+        assertThat(options.getConversion(String.class, LocalDate.class).convert("2024-02-29", converter)).isEqualTo(LocalDate.of(2024, 2, 29));
+    }
+
+    @Test
+    void testDirectConversionsMatchConverter() {
+        ReadOptions options = new ReadOptionsBuilder().build();
+        Converter converter = new Converter(options.getConverterOptions());
+        Object[][] cases = {
+                {"1.50", BigDecimal.class}, {"1e3", BigDecimal.class}, {"", BigDecimal.class},
+                {5L, BigDecimal.class}, {0.1d, BigDecimal.class}, {1e20d, BigDecimal.class},
+                {"12", BigInteger.class}, {"1.9", BigInteger.class}, {"1e3", BigInteger.class}, {5L, BigInteger.class},
+                {"F81D4FAE-7DEC-11D0-A765-00A0C91E6BF6", UUID.class}, {"1-1-1-1-1", UUID.class},
+                {1700000000123L, Instant.class}, {1700000000123L, Date.class}};
+        for (Object[] c : cases) {
+            Class<?> target = (Class<?>) c[1];
+            Object converted = options.getConversion(c[0].getClass(), target).convert(c[0], converter);
+            assertThat(converted).as(c[0] + " -> " + target.getSimpleName()).isEqualTo(converter.convert(c[0], target));
+        }
+
+        // Input the direct path does not parse is reported by the Converter, as before
+        assertThatThrownBy(() -> options.getConversion(String.class, BigDecimal.class).convert("0x10", converter))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not parseable as a BigDecimal");
+        assertThatThrownBy(() -> options.getConversion(Double.class, BigDecimal.class).convert(Double.NaN, converter))
+                .isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void testConversionNotSupported() {
+        ReadOptions options = new ReadOptionsBuilder().build();
+        assertThat(options.getConversion(Thread.class, LocalDate.class)).isNull();
+        assertThat(options.getConversion(Thread.class, LocalDate.class)).isNull();
+    }
+
+    @Test
+    void testConversionHonorsConverterOverride() {
+        ReadOptions options = new ReadOptionsBuilder()
+                .addConverterOverride(Long.class, int.class, (from, converter) -> 42)
+                .build();
+        Converter converter = new Converter(options.getConverterOptions());
+        assertThat(options.getConversion(Long.class, int.class).convert(7L, converter)).isEqualTo(42);
+    }
+}
@@ -11,10 +11,12 @@ import java.util.Map;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * @author John DeRegnaucourt (jdereg@gmail.com)
@@ -277,4 +279,86 @@ class RefsTest
         assertEquals(zdt1, zdt2);
         assertNotSame(zdt1, zdt2);
     }
+
+    @Test
+    void testManyForwardFieldReferences()
+    {
+        // Every element refers forward to the element after it, so each _other field is patched after resolution.
+        int count = 40;
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"@id\":").append(i + 1).append(",\"@type\":\"com.cedarsoftware.io.TestObject\",\"_name\":\"").append(i).append('"');
+            if (i < count - 1) {
+                json.append(",\"_other\":{\"@ref\":").append(i + 2).append('}');
+            }
+            json.append('}');
+        }
+        json.append(']');
+
+        Object[] items = TestUtil.toObjects(json.toString(), null);
+        assertEquals(count, items.length);
+        for (int i = 0; i < count - 1; i++) {
+            TestObject item = (TestObject) items[i];
+            assertEquals(String.valueOf(i), item._name);
+            assertSame(items[i + 1], item._other);
+        }
+        assertNull(((TestObject) items[count - 1])._other);
+    }
+    private static final class Leaf
+    {
+        private int x;
+        private String name;
+        private Long count;
+
+        private Leaf(int x, String name)
+        {
+            this.x = x;
+            this.name = name;
+        }
+    }
+
+    private static class LeafHolder
+    {
+        private Leaf first;
+        private Leaf second;
+        private Object other;
+        private int size;
+        private String label;
+        private Number number;
+    }
+
+    @Test
+    void testSharedLeafReferences()
+    {
+        ClassWritePlan leafPlan = ((WriteOptionsBuilder.DefaultWriteOptions) new WriteOptionsBuilder().build()).getWritePlan(Leaf.class);
+        ClassWritePlan holderPlan = ((WriteOptionsBuilder.DefaultWriteOptions) new WriteOptionsBuilder().build()).getWritePlan(LeafHolder.class);
+        assertTrue(leafPlan.isTraceLeaf());
+        assertEquals(0, leafPlan.getTraceAccessors().length);
+        assertFalse(holderPlan.isTraceLeaf());
+        assertEquals(3, holderPlan.getTraceAccessors().length);     // first, second, other
+
+        // Leaf objects are visited without being pushed, but still get @id / @ref when shared.
+        Leaf leaf = new Leaf(7, "seven");
+        LeafHolder holder = new LeafHolder();
+        holder.first = leaf;
+        holder.second = leaf;
+        holder.other = leaf;
+        holder.size = 3;
+        LeafHolder[] holders = {holder, new LeafHolder()};
+        holders[1].first = new Leaf(8, "eight");
+        holders[1].other = holders[1].first;
+
+        String json = TestUtil.toJson(holders);
+        assertEquals(2, json.split("\"@id\"").length - 1);
+        LeafHolder[] copies = TestUtil.toObjects(json, null);
+        assertSame(copies[0].first, copies[0].second);
+        assertSame(copies[0].first, copies[0].other);
+        assertEquals(7, copies[0].first.x);
+        assertEquals("seven", copies[0].first.name);
+        assertSame(copies[1].first, copies[1].other);
+        assertNull(copies[1].second);
+    }
 }
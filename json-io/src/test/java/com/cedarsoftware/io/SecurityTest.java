@@ -55,6 +55,18 @@ public class SecurityTest
         attemptToWriteDisallowedClass(constructor);
     }
 
+    @Test
+    public void testSecureWrites_subclassesAndRepeatedWrites()
+    {
+        // The blocked check is resolved once per class, make sure it holds for later writes and for subclasses.
+        for (int i = 0; i < 3; i++)
+        {
+            attemptToWriteDisallowedClass(new ProcessBuilder("echo"));
+            attemptToWriteDisallowedClass(new ClassLoader(SecurityTest.class.getClassLoader()) { });
+            attemptToWriteDisallowedClass(ReflectionUtils.getMethod(SecurityTest.class, "testSecureWrites", (Class<?>[])null));
+        }
+    }
+
     private void attemptToWriteDisallowedClass(Object obj)
     {
         // attempt to write as root
@@ -0,0 +1,130 @@
+package com.cedarsoftware.io;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamingWriterTest {
+    static class Row {
+        String name;
+        Row shared;
+        Row other;
+    }
+
+    private static Row row(String name, Row shared) {
+        Row row = new Row();
+        row.name = name;
+        row.shared = shared;
+        row.other = shared;
+        return row;
+    }
+
+    private static String write(JsonWriter.ReferenceScope scope, Object... elements) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        JsonWriter writer = new JsonWriter(bytes);
+        writer.beginArray(scope);
+        writer.writeElements(Arrays.asList(elements).iterator());
+        writer.endArray();
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testStreamOfElements() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        JsonIo.toJsonArray(bytes, IntStream.range(0, 10000).mapToObj(i -> row("row" + i, null)), null);
+        Object[] rows = JsonIo.toObjects(new String(bytes.toByteArray(), StandardCharsets.UTF_8), null, Object[].class);
+        assertThat(rows).hasSize(10000);
+        assertThat(((Row) rows[9999]).name).isEqualTo("row9999");
+
+        bytes.reset();
+        JsonIo.toJsonArray(bytes, IntStream.range(0, 0).boxed(), null);
+        assertThat(new String(bytes.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("[]");
+    }
+
+    @Test
+    void testMixedElements() {
+        String json = write(JsonWriter.ReferenceScope.ELEMENT, "text", 5L, null, true, row("a", null));
+        Object[] elements = JsonIo.toObjects(json, null, Object[].class);
+        assertThat(Arrays.asList(elements).subList(0, 4)).containsExactly("text", 5L, null, true);
+        assertThat(elements[4]).isInstanceOf(Row.class);
+    }
+
+    @Test
+    void testElementScope() {
+        Row shared = row("shared", null);
+        String json = write(JsonWriter.ReferenceScope.ELEMENT, row("a", shared), row("b", shared));
+        Object[] rows = JsonIo.toObjects(json, null, Object[].class);
+        Row a = (Row) rows[0];
+        Row b = (Row) rows[1];
+        assertThat(a.shared).isSameAs(a.other);       // references within an element are kept
+        assertThat(b.shared).isSameAs(b.other);
+        assertThat(a.shared).isNotSameAs(b.shared);    // but not across elements
+        assertThat(b.shared.name).isEqualTo("shared");
+    }
+
+    @Test
+    void testStreamScope() {
+        Row shared = row("shared", null);
+        Row c = new Row();
+        c.shared = shared;
+        String json = write(JsonWriter.ReferenceScope.STREAM, row("a", shared), row("b", shared), c);
+        assertThat(json).containsOnlyOnce(":\"shared\"");
+        Object[] rows = JsonIo.toObjects(json, null, Object[].class);
+        assertThat(((Row) rows[1]).shared).isSameAs(((Row) rows[0]).shared);
+        assertThat(((Row) rows[2]).shared).isSameAs(((Row) rows[0]).shared);
+    }
+
+    @Test
+    void testStreamScopeObjectOnceInEachElement() {
+        Row shared = row("shared", null);
+        Row a = new Row();
+        a.name = "a";
+        a.shared = shared;
+        Row b = new Row();
+        b.name = "b";
+        b.other = shared;
+        String json = write(JsonWriter.ReferenceScope.STREAM, a, b, shared, a);
+        assertThat(json).containsOnlyOnce(":\"shared\"").containsOnlyOnce(":\"a\"");
+        Object[] rows = JsonIo.toObjects(json, null, Object[].class);
+        assertThat(((Row) rows[1]).other).isSameAs(((Row) rows[0]).shared);
+        assertThat(rows[2]).isSameAs(((Row) rows[0]).shared);
+        assertThat(rows[3]).isSameAs(rows[0]);
+    }
+
+    @Test
+    void testRootObject() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        JsonWriter writer = new JsonWriter(bytes, new WriteOptionsBuilder().prettyPrint(true).build());
+        writer.beginObject();
+        writer.writeField("count", 2L);
+        writer.writeField("rows", new Row[] {row("a", null), row("b", null)});
+        writer.endObject();
+        Map<?, ?> map = JsonIo.toObjects(new String(bytes.toByteArray(), StandardCharsets.UTF_8), null, Map.class);
+        assertThat(map.get("count")).isEqualTo(2L);
+        assertThat((Object[]) map.get("rows")).hasSize(2);
+    }
+
+    @Test
+    void testMisuse() {
+        JsonWriter writer = new JsonWriter(new ByteArrayOutputStream());
+        assertThatThrownBy(() -> writer.writeElement(1)).isInstanceOf(JsonIoException.class).hasMessageContaining("beginArray()");
+        writer.beginObject();
+        assertThatThrownBy(() -> writer.writeElement(1)).isInstanceOf(JsonIoException.class);
+        assertThatThrownBy(writer::endArray).isInstanceOf(JsonIoException.class);
+        assertThatThrownBy(writer::beginArray).isInstanceOf(JsonIoException.class).hasMessageContaining("already open");
+        writer.endObject();
+        assertThatThrownBy(() -> writer.writeField("x", 1)).isInstanceOf(JsonIoException.class);
+        List<String> none = Arrays.asList();
+        writer.beginArray();
+        writer.writeElements(none.stream());
+        writer.endArray();
+    }
+}
@@ -95,6 +95,29 @@ public class StringTest
         assert x.equals("Réunion");
     }
 
+    @Test
+    public void testEscapes()
+    {
+        String s = "tab\there \"quoted\" back\\slash \u0001\u001f <a href='x'>&amp;</a> Réunion 😀";
+        String json = TestUtil.toJson(s);
+        assertEquals("\"tab\\there \\\"quoted\\\" back\\\\slash \\u0001\\u001F <a href='x'>&amp;</a> Réunion 😀\"", json);
+        assertEquals(s, TestUtil.toObjects(json, null));
+
+        json = TestUtil.toJson(s, new WriteOptionsBuilder().escapeHtml(true).build());
+        assertEquals("\"tab\\there \\\"quoted\\\" back\\\\slash \\u0001\\u001F \\u003Ca href=\\u0027x\\u0027\\u003E\\u0026amp;\\u003C/a\\u003E Réunion 😀\"", json);
+        assertEquals(s, TestUtil.toObjects(json, null));
+
+        json = TestUtil.toJson(s, new WriteOptionsBuilder().escapeNonAscii(true).build());
+        assertEquals("\"tab\\there \\\"quoted\\\" back\\\\slash \\u0001\\u001F <a href='x'>&amp;</a> R\\u00E9union \\uD83D\\uDE00\"", json);
+        assertEquals(s, TestUtil.toObjects(json, null));
+
+        ManyStrings test = new ManyStrings();
+        WriteOptions writeOptions = new WriteOptionsBuilder().escapeHtml(true).escapeNonAscii(true).build();
+        ManyStrings that = TestUtil.toObjects(TestUtil.toJson(test, writeOptions), null);
+        assertEquals(test._range, that._range);
+        assertEquals(test._utf8HandBuilt, that._utf8HandBuilt);
+    }
+
     @Test
     public void testEmptyString()
     {
@@ -0,0 +1,123 @@
+package com.cedarsoftware.io;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License")
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+class TreeModeTest
+{
+    private static final WriteOptions TREE_WRITE = new WriteOptionsBuilder().treeMode(true).build();
+    private static final ReadOptions TREE_READ = new ReadOptionsBuilder().treeMode(true).build();
+
+    private static class Node
+    {
+        private String name;
+        private Node next;
+        private List<Object> children = new ArrayList<>();
+        private Map<String, Object> attributes = new LinkedHashMap<>();
+    }
+
+    private static Node tree()
+    {
+        Node root = new Node();
+        root.name = "root";
+        for (int i = 0; i < 3; i++)
+        {
+            Node child = new Node();
+            child.name = "child" + i;
+            child.attributes.put("index", i);
+            child.next = new Node();
+            child.next.name = "leaf" + i;
+            root.children.add(child);
+        }
+        root.children.add(new int[] {1, 2, 3});
+        return root;
+    }
+
+    @Test
+    void testTreeWritesSameJson()
+    {
+        Node root = tree();
+        String json = TestUtil.toJson(root, TREE_WRITE);
+        assertThat(json).isEqualTo(TestUtil.toJson(root));
+        assertThat(json).doesNotContain("@id", "@ref");
+
+        Node copy = TestUtil.toObjects(json, TREE_READ, null);
+        assertThat(copy.name).isEqualTo("root");
+        assertThat(copy.children).hasSize(4);
+        assertThat(((Node) copy.children.get(2)).next.name).isEqualTo("leaf2");
+        assertThat(((Node) copy.children.get(1)).attributes).containsEntry("index", 1);
+    }
+
+    @Test
+    void testSharedObjectWrittenTwice()
+    {
+        Node shared = new Node();
+        shared.name = "shared";
+        Node root = new Node();
+        root.children.add(shared);
+        root.children.add(shared);
+        root.next = shared;
+
+        String json = TestUtil.toJson(root, TREE_WRITE);
+        assertThat(json).doesNotContain("@id", "@ref");
+        Node copy = TestUtil.toObjects(json, TREE_READ, null);
+        assertThat(copy.children).hasSize(2);
+        assertThat(((Node) copy.children.get(0)).name).isEqualTo("shared");
+        assertThat(copy.children.get(0)).isNotSameAs(copy.children.get(1));
+        assertThat(copy.next.name).isEqualTo("shared");
+    }
+
+    @Test
+    void testCycleDetected()
+    {
+        Node a = new Node();
+        Node b = new Node();
+        a.next = b;
+        b.children.add(a);
+        assertThatThrownBy(() -> TestUtil.toJson(a, TREE_WRITE))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Cycle detected")
+                .hasMessageContaining(Node.class.getName());
+
+        List<Object> list = new ArrayList<>();
+        list.add(list);
+        assertThatThrownBy(() -> TestUtil.toJson(list, TREE_WRITE)).isInstanceOf(JsonIoException.class);
+    }
+
+    @Test
+    void testReadRejectsReferences()
+    {
+        String json = "[{\"@id\":1,\"name\":\"x\"},{\"@ref\":1}]";
+        assertThatThrownBy(() -> TestUtil.toObjects(json, TREE_READ, null))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("tree mode");
+
+        // @id alone is accepted (and ignored).
+        Object[] items = TestUtil.toObjects("[{\"@id\":1,\"name\":\"x\"}]", TREE_READ, null);
+        assertThat(items).hasSize(1);
+    }
+}
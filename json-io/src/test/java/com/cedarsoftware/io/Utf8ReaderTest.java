@@ -0,0 +1,92 @@
+package com.cedarsoftware.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import com.cedarsoftware.util.FastReader;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Utf8ReaderTest {
+    private static String readAll(Reader reader, int chunk) throws IOException {
+        StringBuilder s = new StringBuilder();
+        char[] chars = new char[chunk];
+        int i = 0;
+        while (true) {
+            if (i++ % 2 == 0) {
+                int c = reader.read();
+                if (c == -1) {
+                    break;
+                }
+                s.append((char) c);
+            } else {
+                int n = reader.read(chars, 0, chunk);
+                if (n == -1) {
+                    break;
+                }
+                s.append(chars, 0, n);
+            }
+        }
+        return s.toString();
+    }
+
+    private static String viaInputStreamReader(byte[] bytes) throws IOException {
+        return readAll(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8), 100);
+    }
+
+    @Test
+    void testMatchesInputStreamReader() throws IOException {
+        Random random = new Random(7);
+        Utf8Reader reader = new Utf8Reader(new ByteArrayInputStream(new byte[0]));
+        for (int round = 0; round < 20; round++) {
+            StringBuilder s = new StringBuilder();
+            for (int i = 0; i < 30000; i++) {
+                s.appendCodePoint(random.nextInt(3) == 0 ? random.nextInt(0x10FFFF) & ~0xF800 | 0x80 : random.nextInt(0x80));
+            }
+            byte[] bytes = s.toString().getBytes(StandardCharsets.UTF_8);
+            if (round % 2 == 1) {
+                for (int i = 0; i < 50; i++) {
+                    bytes[random.nextInt(bytes.length)] = (byte) random.nextInt(256);     // malformed sequences
+                }
+            }
+            reader.reset(new ByteArrayInputStream(bytes));
+            assertThat(readAll(reader, 1 + round * 37)).isEqualTo(viaInputStreamReader(bytes));
+        }
+    }
+
+    @Test
+    void testTruncatedSequenceAtEnd() throws IOException {
+        byte[] bytes = {'a', (byte) 0xE2, (byte) 0x82};
+        assertThat(readAll(new Utf8Reader(new ByteArrayInputStream(bytes)), 4)).isEqualTo(viaInputStreamReader(bytes));
+    }
+
+    @Test
+    void testLineColumnAndPushbackLikeFastReader() throws IOException {
+        String text = "{\n  \"a\": 1,\n  \"b\": [true]\n}";
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        FastReader expected = new FastReader(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8), 8192, 10);
+        FastReader actual = new Utf8Reader(new ByteArrayInputStream(bytes));
+        for (int i = 0; i < text.length(); i++) {
+            int c = expected.read();
+            assertThat(actual.read()).isEqualTo(c);
+            if (i % 5 == 0) {
+                expected.pushback((char) c);
+                actual.pushback((char) c);
+                assertThat(actual.read()).isEqualTo(expected.read());
+            }
+            assertThat(actual.getLine()).isEqualTo(expected.getLine());
+            assertThat(actual.getCol()).isEqualTo(expected.getCol());
+        }
+        assertThat(actual.getLastSnippet()).isEqualTo(expected.getLastSnippet());
+        assertThat(actual.read()).isEqualTo(-1);
+
+        actual.close();
+        assertThatThrownBy(actual::read).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,112 @@
+package com.cedarsoftware.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Utf8WriterTest {
+    private static final String SAMPLE = "plain ASCII, café, €100, 日本語, emoji 😀 and 𝄞.";
+
+    private static byte[] encode(String s, boolean viaUtf8Writer, int chunk) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Writer writer = viaUtf8Writer ? new Utf8Writer(bytes, 16) : new OutputStreamWriter(bytes, StandardCharsets.UTF_8);
+        for (int i = 0; i < s.length(); i += chunk) {
+            int end = Math.min(s.length(), i + chunk);
+            switch (i % 3) {
+                case 0: writer.write(s, i, end - i); break;
+                case 1: writer.write(s.substring(i, end).toCharArray(), 0, end - i); break;
+                default: for (int j = i; j < end; j++) { writer.write(s.charAt(j)); } break;
+            }
+        }
+        writer.close();
+        return bytes.toByteArray();
+    }
+
+    @Test
+    void testMatchesOutputStreamWriter() throws IOException {
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            s.append(SAMPLE);
+        }
+        // Every chunk size splits some surrogate pairs across write calls and crosses the 16 byte buffer.
+        for (int chunk = 1; chunk < 40; chunk++) {
+            assertThat(encode(s.toString(), true, chunk)).isEqualTo(encode(s.toString(), false, chunk));
+        }
+    }
+
+    @Test
+    void testUnpairedSurrogates() throws IOException {
+        String s = "a\uD83Db\uDE00c\uD83D😀\uD83D";
+        assertThat(encode(s, true, 1)).isEqualTo(encode(s, false, 1));
+        assertThat(new String(encode(s, true, 4), StandardCharsets.UTF_8)).isEqualTo("a?b?c?😀?");
+    }
+
+    @Test
+    void testRandomChars() throws IOException {
+        Random random = new Random(42);
+        char[] chars = new char[20000];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = random.nextInt(4) == 0 ? (char) random.nextInt(0x10000) : (char) random.nextInt(0x80);
+        }
+        String s = new String(chars);
+        assertThat(encode(s, true, 333)).isEqualTo(encode(s, false, 333));
+    }
+
+    @Test
+    void testClosed() throws IOException {
+        Utf8Writer writer = new Utf8Writer(new ByteArrayOutputStream());
+        writer.close();
+        writer.close();
+        writer.flush();
+        assertThatThrownBy(() -> writer.write("x")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> new Utf8Writer(new ByteArrayOutputStream(), 8)).isInstanceOf(JsonIoException.class);
+    }
+
+    @Test
+    void testInMemory() throws IOException {
+        Utf8Writer writer = new Utf8Writer(null, 16);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            writer.write("ascii only ");
+            writer.writeLong(i);
+            expected.append("ascii only ").append(i);
+        }
+        assertThat(writer.getBufferedString()).isEqualTo(expected.toString());
+
+        writer.reset(null);
+        writer.write(SAMPLE);
+        writer.write(SAMPLE.toCharArray(), 0, SAMPLE.length());
+        assertThat(writer.getBufferedString()).isEqualTo(SAMPLE + SAMPLE);
+
+        writer.reset(null);
+        writer.write("after reset");
+        writer.close();
+        assertThat(writer.getBufferedString()).isEqualTo("after reset");
+
+        writer.reset(new ByteArrayOutputStream());
+        assertThatThrownBy(writer::getBufferedString).isInstanceOf(JsonIoException.class);
+    }
+
+    @Test
+    void testToJsonMatchesStreamOutput() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", SAMPLE);
+        map.put("values", new long[] {Long.MIN_VALUE, -1, 0, 42, Long.MAX_VALUE});
+        for (int i = 0; i < 2000; i++) {
+            map.put("key" + i, "value " + i);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        JsonIo.toJson(bytes, map, null);
+        assertThat(JsonIo.toJson(map, null)).isEqualTo(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
@@ -612,4 +612,88 @@ class WriteOptionsTest {
         //  public method for accessing test5 so we use that.
         assertThat(list.get(4).getFieldOrMethodName()).isEqualTo("name");
     }
+
+    @Test
+    void testCompileThreshold_default() {
+        assertThat(new WriteOptionsBuilder().build().getCompileThreshold()).isEqualTo(8);
+    }
+
+    @Test
+    void testCompileThreshold_negative_throwsException() {
+        assertThatExceptionOfType(JsonIoException.class)
+                .isThrownBy(() -> new WriteOptionsBuilder().compileThreshold(-1));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void testCompiledFieldWriters_matchGeneralPath(boolean skipNullFields) {
+        WriteOptions general = new WriteOptionsBuilder().compileThreshold(0).skipNullFields(skipNullFields).prettyPrint(true).build();
+        WriteOptions compiled = new WriteOptionsBuilder().compileThreshold(1).skipNullFields(skipNullFields).prettyPrint(true).build();
+
+        PrimitiveFields fields = new PrimitiveFields();
+        fields.s = "tab\there \"quoted\"";
+        fields.nan = Double.NaN;
+        fields.f = Float.NEGATIVE_INFINITY;
+        String expected = TestUtil.toJson(fields, general);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(TestUtil.toJson(fields, compiled)).isEqualTo(expected);
+        }
+        assertThat(expected).contains("\"b\":-7").contains("\"l\":9007199254740993").contains("\"nan\":null");
+        assertThat(expected.contains("\"none\"")).isEqualTo(!skipNullFields);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void testPlannedFields_matchGeneralPath(boolean prettyPrint) {
+        WriteOptionsBuilder general = new WriteOptionsBuilder().compileThreshold(0).prettyPrint(prettyPrint)
+                .aliasTypeName(TypedFields.class, "Typed").aliasTypeName(Sub.class, "Sub");
+        WriteOptionsBuilder compiled = new WriteOptionsBuilder().compileThreshold(1).prettyPrint(prettyPrint)
+                .aliasTypeName(TypedFields.class, "Typed").aliasTypeName(Sub.class, "Sub");
+
+        TypedFields fields = new TypedFields();
+        String expected = TestUtil.toJson(new Object[] {fields, fields.base}, general.build());
+        for (int i = 0; i < 3; i++) {
+            assertThat(TestUtil.toJson(new Object[] {fields, fields.base}, compiled.build())).isEqualTo(expected);
+        }
+        assertThat(expected).contains("\"@type\":\"Typed\"").contains("\"@type\":\"Sub\"").contains("\"naïve\":");
+        assertThat(expected).doesNotContain("java.lang.Integer").doesNotContain("BigDecimal");
+
+        String alwaysTyped = TestUtil.toJson(fields, general.showTypeInfoAlways().build());
+        assertThat(TestUtil.toJson(fields, compiled.showTypeInfoAlways().build())).isEqualTo(alwaysTyped);
+        assertThat(alwaysTyped).contains("\"amount\":").contains("\"@type\":\"BigDecimal\"");
+    }
+
+    private static class Base {
+        private int n = 1;
+    }
+
+    private static final class Sub extends Base {
+        private String tag = "sub";
+    }
+
+    private static class TypedFields {
+        private final Integer boxed = 5;
+        private final BigDecimal amount = new BigDecimal("1.50");
+        private final ColorEnum color = ColorEnum.RED;
+        private final Base base = new Sub();
+        private final Sub sub = new Sub();
+        private final Object[] array = new String[] {"a"};
+        private final String naïve = "é";
+        private final Long nothing = null;
+    }
+
+    private static class PrimitiveFields {
+        private byte b = -7;
+        private short sh = 300;
+        private int i = Integer.MIN_VALUE;
+        private long l = 9007199254740993L;
+        private double d = 0.1d;
+        private double nan;
+        private float f;
+        private boolean flag = true;
+        private String s;
+        private String none;
+        private Object other = 42L;
+    }
 }
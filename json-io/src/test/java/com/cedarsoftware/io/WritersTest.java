@@ -0,0 +1,88 @@
+package com.cedarsoftware.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+public class WritersTest
+{
+    @Test
+    void testUnusedAPIs() throws Exception
+    {
+        Writers.TimestampWriter tsw = new Writers.TimestampWriter();
+        tsw.writePrimitiveForm(null, new StringWriter(), null);
+
+        Writers.LocaleWriter lw = new Writers.LocaleWriter();
+        lw.writePrimitiveForm(Locale.getDefault(), new StringWriter(), null);
+
+        Writers.JsonStringWriter jsw = new Writers.JsonStringWriter();
+        jsw.write(8, false, new StringWriter(), null);
+    }
+
+    @Test
+    void testNumbersMatchToString() throws IOException
+    {
+        Random random = new Random(37);
+        long[] longs = {0, 1, -1, 9, 10, 99, 100, -100, 101, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, 1000000000000000000L};
+        double[] doubles = {0.0, -0.0, 1.0, -1.0, 9999999.0, 10000000.0, -9999999.0, 0.5, 123.25, 1.0E-5, 1.0E23, Double.MIN_VALUE, Double.MAX_VALUE, 0.1 + 0.2};
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        StringBuilder expected = new StringBuilder();
+        try (Writer output = new Utf8Writer(bytes, 64))
+        {
+            for (long value : longs)
+            {
+                JsonWriter.writeLong(output, value);
+                expected.append(value);
+            }
+            for (double value : doubles)
+            {
+                JsonWriter.writeDouble(output, value);
+                JsonWriter.writeFloat(output, (float) value);
+                expected.append(value).append((float) value);
+            }
+            for (int i = 0; i < 10000; i++)
+            {
+                long value = random.nextLong() >> random.nextInt(64);
+                double d = random.nextInt(3) == 0 ? (double) (random.nextInt(20000001) - 10000000) : random.nextGaussian() * Math.pow(10, random.nextInt(20) - 10);
+                JsonWriter.writeLong(output, value);
+                output.write(i % 2 == 0 ? "é" : ",");
+                JsonWriter.writeDouble(output, d);
+                JsonWriter.writeFloat(output, (float) d);
+                expected.append(value).append(i % 2 == 0 ? "é" : ",").append(d).append((float) d);
+            }
+        }
+        assertThat(new String(bytes.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(expected.toString());
+
+        StringWriter plain = new StringWriter();
+        JsonWriter.writeLong(plain, Long.MIN_VALUE);
+        JsonWriter.writeDouble(plain, 42.0);
+        assertThat(plain.toString()).isEqualTo(Long.MIN_VALUE + "42.0");
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.cedarsoftware.io.factory;
+
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import com.cedarsoftware.io.JsonIo;
+import com.cedarsoftware.io.ReadOptions;
+import com.cedarsoftware.io.ReadOptionsBuilder;
+import com.cedarsoftware.io.WriteOptions;
+import com.cedarsoftware.io.WriteOptionsBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The build compiles at release 8, so the records used here are compiled while the test runs (JDK 16+ only).
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.
+ */
+class RecordFactoryTest
+{
+    private static final String ADDRESS = "package records;\n" +
+            "public record Address(String city, int zip) {}\n";
+    private static final String PERSON = "package records;\n" +
+            "public record Person(int age, boolean active, String name, java.time.LocalDate born, Address home,\n" +
+            "                     long[] scores, Address[] previous) {}\n";
+    private static final String EMPTY = "package records;\n" +
+            "public record Empty() {}\n";
+
+    @TempDir
+    static Path dir;
+    private static ClassLoader loader;
+
+    @BeforeAll
+    static void compileRecords() throws Exception
+    {
+        assumeTrue(Double.parseDouble(System.getProperty("java.specification.version")) >= 16, "records need JDK 16+");
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assumeTrue(compiler != null, "needs a JDK, not a JRE");
+
+        Path src = dir.resolve("records");
+        Files.createDirectories(src);
+        Files.write(src.resolve("Address.java"), ADDRESS.getBytes(StandardCharsets.UTF_8));
+        Files.write(src.resolve("Person.java"), PERSON.getBytes(StandardCharsets.UTF_8));
+        Files.write(src.resolve("Empty.java"), EMPTY.getBytes(StandardCharsets.UTF_8));
+        int status = compiler.run(null, null, null, "-d", dir.toString(),
+                src.resolve("Address.java").toString(), src.resolve("Person.java").toString(),
+                src.resolve("Empty.java").toString());
+        assertThat(status).isZero();
+        loader = new URLClassLoader(new URL[] {dir.toUri().toURL()}, RecordFactoryTest.class.getClassLoader());
+    }
+
+    @Test
+    void testRoundTripRecord() throws Exception
+    {
+        Class<?> addressClass = loader.loadClass("records.Address");
+        Object home = newRecord(addressClass, "Springfield", 12345);
+        Object person = newPerson(home, new long[] {7, 8, 9},
+                newRecord(addressClass, "Shelbyville", 54321), newRecord(addressClass, "Ogdenville", 11111));
+
+        Object copy = roundTrip(person);
+
+        assertThat(copy).isNotSameAs(person);
+        assertThat(accessor(copy, "age")).isEqualTo(42);
+        assertThat(accessor(copy, "active")).isEqualTo(true);
+        assertThat(accessor(copy, "name")).isEqualTo("Marge");
+        assertThat(accessor(copy, "born")).isEqualTo(LocalDate.of(1980, 3, 19));
+        assertThat(accessor(copy, "home")).isEqualTo(home);
+        assertThat((long[]) accessor(copy, "scores")).containsExactly(7, 8, 9);
+        Object[] previous = (Object[]) accessor(copy, "previous");
+        assertThat(previous).hasSize(2);
+        assertThat(previous.getClass().getComponentType()).isEqualTo(addressClass);
+        assertThat(accessor(previous[0], "city")).isEqualTo("Shelbyville");
+        assertThat(accessor(previous[1], "zip")).isEqualTo(11111);
+    }
+
+    @Test
+    void testNullAndEmptyComponents() throws Exception
+    {
+        Object copy = roundTrip(newPerson(null, new long[0]));
+
+        assertThat(accessor(copy, "home")).isNull();
+        assertThat((long[]) accessor(copy, "scores")).isEmpty();
+        assertThat((Object[]) accessor(copy, "previous")).isEmpty();
+        assertThat(roundTrip(loader.loadClass("records.Empty").getDeclaredConstructor().newInstance()))
+                .isInstanceOf(loader.loadClass("records.Empty"));
+    }
+
+    @Test
+    void testComponentsConvertedFromJsonTypes() throws Exception
+    {
+        // Regression: nested records and arrays used to reach the canonical constructor as raw JsonObjects /
+        // Object[] (failing with "argument type mismatch"), and JSON longs were not narrowed to int components.
+        String json = "{\"@type\":\"records.Person\",\"age\":\"42\",\"active\":true,\"name\":\"Marge\"," +
+                "\"born\":\"1980-03-19\",\"home\":{\"city\":\"Springfield\",\"zip\":12345}," +
+                "\"scores\":[1,2],\"previous\":[{\"city\":\"Ogdenville\",\"zip\":11111}]}";
+
+        Object person = JsonIo.toObjects(json, readOptions(), null);
+
+        assertThat(person.getClass().getName()).isEqualTo("records.Person");
+        assertThat(accessor(person, "age")).isEqualTo(42);
+        assertThat(accessor(person, "born")).isEqualTo(LocalDate.of(1980, 3, 19));
+        assertThat(accessor(accessor(person, "home"), "zip")).isEqualTo(12345);
+        assertThat((long[]) accessor(person, "scores")).containsExactly(1, 2);
+        assertThat(accessor(((Object[]) accessor(person, "previous"))[0], "city")).isEqualTo("Ogdenville");
+    }
+
+    private static Object newPerson(Object home, long[] scores, Object... previous) throws Exception
+    {
+        Class<?> addressClass = loader.loadClass("records.Address");
+        Object[] addresses = (Object[]) java.lang.reflect.Array.newInstance(addressClass, previous.length);
+        System.arraycopy(previous, 0, addresses, 0, previous.length);
+        return newRecord(loader.loadClass("records.Person"), 42, true, "Marge", LocalDate.of(1980, 3, 19),
+                home, scores, addresses);
+    }
+
+    private static Object newRecord(Class<?> c, Object... values) throws Exception
+    {
+        return c.getDeclaredConstructors()[0].newInstance(values);
+    }
+
+    private static Object accessor(Object record, String name) throws Exception
+    {
+        Method method = record.getClass().getMethod(name);
+        return method.invoke(record);
+    }
+
+    private static Object roundTrip(Object record)
+    {
+        WriteOptions writeOptions = new WriteOptionsBuilder().build();
+        String json = JsonIo.toJson(record, writeOptions);
+        return JsonIo.toObjects(json, readOptions(), null);
+    }
+
+    private static ReadOptions readOptions()
+    {
+        try {
+            return new ReadOptionsBuilder()
+                    .classLoader(loader)
+                    .addCustomReaderClass(Class.forName("java.lang.Record"), new RecordFactory.RecordReader())
+                    .build();
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.cedarsoftware.io.reflect;
+
+import java.lang.reflect.Field;
+
+import com.cedarsoftware.io.JsonIoException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class AccessorInjectorTests {
+
+    public static class Sample {
+        private int count = 42;
+        private float ratio = 1.5f;
+        private boolean active = true;
+        private String name = "alpha";
+        private int setterCalls;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            setterCalls++;
+            this.count = count;
+        }
+
+        public void setName(String name) {
+            setterCalls++;
+            this.name = name == null ? null : name.toUpperCase();
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    @Test
+    void testMethodAccessor_retrievesBoxedAndPrimitive() throws Exception {
+        Sample sample = new Sample();
+        Accessor count = Accessor.createMethodAccessor(Sample.class.getDeclaredField("count"), "getCount", "count");
+        Accessor active = Accessor.createMethodAccessor(Sample.class.getDeclaredField("active"), "isActive", "active");
+        Accessor name = Accessor.createMethodAccessor(Sample.class.getDeclaredField("name"), "getName", "name");
+
+        assertThat(count.retrieve(sample)).isEqualTo(42);
+        assertThat(count.retrieveLong(sample)).isEqualTo(42L);
+        assertThat(active.retrieve(sample)).isEqualTo(true);
+        assertThat(active.retrieveBoolean(sample)).isTrue();
+        assertThat(name.retrieve(sample)).isEqualTo("alpha");
+    }
+
+    @Test
+    void testFieldAccessor_retrievesBoxedAndPrimitive() throws Exception {
+        Sample sample = new Sample();
+        Accessor count = Accessor.createFieldAccessor(Sample.class.getDeclaredField("count"), "count");
+        Accessor ratio = Accessor.createFieldAccessor(Sample.class.getDeclaredField("ratio"), "ratio");
+        Accessor active = Accessor.createFieldAccessor(Sample.class.getDeclaredField("active"), "active");
+
+        assertThat(count.retrieve(sample)).isEqualTo(42);
+        assertThat(count.retrieveLong(sample)).isEqualTo(42L);
+        assertThat(ratio.retrieve(sample)).isEqualTo(1.5f);
+        assertThat(ratio.retrieveDouble(sample)).isEqualTo(1.5d);
+        assertThat(active.retrieveBoolean(sample)).isTrue();
+    }
+
+    @Test
+    void testAccessor_retrieveOnWrongTypeReturnsNull() throws Exception {
+        Accessor name = Accessor.createMethodAccessor(Sample.class.getDeclaredField("name"), "getName", "name");
+        assertThat(name.retrieve("not a Sample")).isNull();
+    }
+
+    @Test
+    void testInjector_assignsAndConverts() throws Exception {
+        Sample sample = new Sample();
+        Field countField = Sample.class.getDeclaredField("count");
+        Injector count = Injector.create(countField, "count");
+        Injector name = Injector.create(Sample.class.getDeclaredField("name"), "name");
+
+        count.inject(sample, 7);
+        assertThat(sample.count).isEqualTo(7);
+        count.inject(sample, 9L);       // Long converted to int
+        assertThat(sample.count).isEqualTo(9);
+        count.inject(sample, "11");     // String converted to int
+        assertThat(sample.count).isEqualTo(11);
+
+        name.inject(sample, "beta");
+        assertThat(sample.name).isEqualTo("beta");
+        name.inject(sample, null);
+        assertThat(sample.name).isNull();
+    }
+
+    @Test
+    void testInjector_nullTarget() throws Exception {
+        Injector name = Injector.create(Sample.class.getDeclaredField("name"), "name");
+        assertThatExceptionOfType(JsonIoException.class)
+                .isThrownBy(() -> name.inject(null, "beta"))
+                .withMessageContaining("on null object");
+    }
+
+    @Test
+    void testSetterInjector_callsSetter() throws Exception {
+        Sample sample = new Sample();
+        Injector name = Injector.create(Sample.class.getDeclaredField("name"), "setName", "name");
+        Injector count = Injector.create(Sample.class.getDeclaredField("count"), "setCount", "count");
+        assertThat(name).isNotNull();
+        assertThat(count).isNotNull();
+        assertThat(name.getDisplayName()).isEqualTo("setName");
+
+        // Bound to a generated BiConsumer, not left on the reflective fallback
+        Field setter = Injector.class.getDeclaredField("setter");
+        setter.setAccessible(true);
+        assertThat(setter.get(name)).isNotNull();
+        assertThat(setter.get(count)).isNotNull();
+
+        name.inject(sample, "beta");
+        assertThat(sample.name).isEqualTo("BETA");
+        count.inject(sample, 7);
+        assertThat(sample.count).isEqualTo(7);
+        count.inject(sample, 9L);       // Long converted to int, still through the setter
+        assertThat(sample.count).isEqualTo(9);
+        assertThat(sample.setterCalls).isEqualTo(3);
+    }
+
+    @Test
+    void testSetterInjector_missingSetter() throws Exception {
+        assertThat(Injector.create(Sample.class.getDeclaredField("ratio"), "setRatio", "ratio")).isNull();
+    }
+}
@@ -1,40 +0,0 @@
-package com.cedarsoftware.io;
-
-import java.io.StringWriter;
-import java.util.Locale;
-
-import org.junit.jupiter.api.Test;
-
-/**
- * @author John DeRegnaucourt (jdereg@gmail.com)
- *         <br>
- *         Copyright (c) Cedar Software LLC
- *         <br><br>
- *         Licensed under the Apache License, Version 2.0 (the "License");
- *         you may not use this file except in compliance with the License.
- *         You may obtain a copy of the License at
- *         <br><br>
- *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
- *         <br><br>
- *         Unless required by applicable law or agreed to in writing, software
- *         distributed under the License is distributed on an "AS IS" BASIS,
- *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- *         See the License for the specific language governing permissions and
- *         limitations under the License.
- */
-public class WritersTest
-{
-    @Test
-    void testUnusedAPIs() throws Exception
-    {
-        Writers.TimestampWriter tsw = new Writers.TimestampWriter();
-        tsw.writePrimitiveForm(null, new StringWriter(), null);
-
-        Writers.LocaleWriter lw = new Writers.LocaleWriter();
-        lw.writePrimitiveForm(Locale.getDefault(), new StringWriter(), null);
-
-        Writers.JsonStringWriter jsw = new Writers.JsonStringWriter();
-        jsw.write(8, false, new StringWriter(), null);
-    }
-
-}